@@ -0,0 +1,65 @@
+package com.tosi.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크에서 공통으로 사용하는 실제 크기의 동화, 채팅 시작 정보, 대화 기록
+ */
+public final class BenchmarkFixtures {
+    public static final String CHARACTER_NAME = "거북이";
+    public static final String USER_MESSAGE = "거북아, 달리기 시합에서 토끼를 이겼을 때 기분이 어땠어?";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 문단 40개(약 4,000자) 분량의 동화를 만듭니다.
+     */
+    public static TaleDetailDto taleDetailDto(long taleId) {
+        StringBuilder content = new StringBuilder("옛날 옛적 숲속 마을에 발이 빠른 토끼와 느림보 거북이가 살았어요.");
+        for (int i = 0; i < 40; i++) {
+            content.append('\n');
+            if (i % 5 == 0)
+                content.append("거북이는 느리지만 포기하지 않고 한 걸음 한 걸음 결승선을 향해 걸었어요. ");
+            content.append("하늘에는 구름이 둥실둥실 떠다니고 바람이 살랑살랑 불어 나뭇잎이 춤을 추었어요. 숲속 친구들은 모두 모여 시합을 구경했어요 ")
+                    .append(i).append('.');
+        }
+        return TaleDetailDto.builder()
+                .taleId(taleId)
+                .title("토끼와 거북이")
+                .content(content.toString())
+                .characters(new String[]{"토끼", CHARACTER_NAME, "여우"})
+                .images(List.of("tale/1/images/1.png", "tale/1/images/2.png", "tale/1/images/3.png"))
+                .build();
+    }
+
+    public static ChatInitRequestDto chatInitRequestDto(ObjectMapper objectMapper, long taleId) {
+        try {
+            return objectMapper.readValue("{\"childName\":\"민지\",\"characterName\":\"" + CHARACTER_NAME + "\",\"taleId\":" + taleId + "}",
+                    ChatInitRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 첫 인사와 질문, 응답이 turns번 오간 세션 메시지 리스트를 만듭니다.
+     */
+    public static List<MultiChatMessage> sessionMessageList(int turns) {
+        List<MultiChatMessage> sessionMessageList = new ArrayList<>(turns * 2 + 1);
+        sessionMessageList.add(new MultiChatMessage("system", "안녕 민지야! 나는 거북이야. 오늘은 어떤 이야기를 해볼까?"));
+        for (int i = 0; i < turns; i++) {
+            sessionMessageList.add(new MultiChatMessage("user", "거북아, 시합하는 동안 무슨 생각을 했어? " + i));
+            sessionMessageList.add(new MultiChatMessage("system",
+                    "나는 쉬지 않고 천천히 꾸준히 걸으면 언젠가 도착할 거라고 생각했어. 포기하지 않는 게 제일 중요하거든! 민지는 포기하고 싶었던 적이 있니? " + i));
+        }
+        return sessionMessageList;
+    }
+}
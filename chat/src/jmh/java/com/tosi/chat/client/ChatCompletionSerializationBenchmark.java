@@ -0,0 +1,63 @@
+package com.tosi.chat.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.BenchmarkFixtures;
+import com.tosi.chat.dto.ChatCompletionResponseDto;
+import com.tosi.chat.dto.ChatStreamChunkDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenAI API 요청, 응답 JSON 변환 비용
+ * 요청 본문은 대화 길이에 비례해 커지고, stream 모드에서는 토큰 조각마다 청크 하나를 읽습니다.
+ */
+@State(Scope.Benchmark)
+public class ChatCompletionSerializationBenchmark {
+    private static final String COMPLETION = "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"model\":\"gpt-4o-mini\","
+            + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"나는 쉬지 않고 천천히 꾸준히 걸었어. 포기하지 않는 게 제일 중요하거든! 민지는 포기하고 싶었던 적이 있니?\"},"
+            + "\"finish_reason\":\"stop\"}],"
+            + "\"usage\":{\"prompt_tokens\":1830,\"completion_tokens\":52,\"total_tokens\":1882,\"prompt_tokens_details\":{\"cached_tokens\":1536}}}";
+    private static final String STREAM_CHUNK = "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion.chunk\",\"model\":\"gpt-4o-mini\","
+            + "\"choices\":[{\"index\":0,\"delta\":{\"content\":\"거북\"},\"finish_reason\":null}]}";
+    @Param({"2", "10", "30"})
+    private int turns;
+    private ObjectMapper objectMapper;
+    private MultiChatRequest multiChatRequest;
+    private String multiChatRequestJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        List<MultiChatMessage> requestMessageList = new ArrayList<>();
+        requestMessageList.add(new MultiChatMessage("system", BenchmarkFixtures.taleDetailDto(1L).getContent()));
+        requestMessageList.addAll(BenchmarkFixtures.sessionMessageList(turns));
+        requestMessageList.add(new MultiChatMessage("user", BenchmarkFixtures.USER_MESSAGE));
+        multiChatRequest = new MultiChatRequest("gpt-4o-mini", requestMessageList, 1000, 1.0, 1.0);
+        multiChatRequestJson = objectMapper.writeValueAsString(multiChatRequest);
+    }
+
+    @Benchmark
+    public byte[] writeMultiChatRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(multiChatRequest);
+    }
+
+    @Benchmark
+    public MultiChatRequest readMultiChatRequest() throws JsonProcessingException {
+        return objectMapper.readValue(multiChatRequestJson, MultiChatRequest.class);
+    }
+
+    @Benchmark
+    public ChatCompletionResponseDto readChatCompletionResponse() throws JsonProcessingException {
+        return objectMapper.readValue(COMPLETION, ChatCompletionResponseDto.class);
+    }
+
+    @Benchmark
+    public ChatStreamChunkDto readChatStreamChunk() throws JsonProcessingException {
+        return objectMapper.readValue(STREAM_CHUNK, ChatStreamChunkDto.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tosi.chat.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.BenchmarkFixtures;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+import java.io.IOException;
+
+/**
+ * Redis에 저장하는 동화 정보의 변환 비용
+ * hash: 이전 servlet 엔진의 @RedisHash 저장에 사용하던 MappingRedisConverter
+ * json: 이전 reactive 엔진이 문자열 값으로 저장하던 Jackson JSON(Redis로 보내는 UTF-8 바이트 기준)
+ * binary: TaleDetailDtoCodec 버전 1(compression none, lz4)
+ */
+@State(Scope.Benchmark)
+public class TaleDetailDtoSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private MappingRedisConverter mappingRedisConverter;
+    private TaleDetailDto taleDetailDto;
+    private RedisData redisData;
+    private byte[] json;
+    @Param({"NONE", "LZ4"})
+    private TaleDetailDtoCodec.Compression compression;
+    private TaleDetailDtoCodec taleDetailDtoCodec;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        mappingRedisConverter = new MappingRedisConverter(new RedisMappingContext());
+        mappingRedisConverter.afterPropertiesSet();
+        taleDetailDto = BenchmarkFixtures.taleDetailDto(1L);
+        redisData = writeHash();
+        json = objectMapper.writeValueAsBytes(taleDetailDto);
+        taleDetailDtoCodec = new TaleDetailDtoCodec(objectMapper, new SimpleMeterRegistry(), compression, 512);
+        binary = taleDetailDtoCodec.encode(taleDetailDto);
+    }
+
+    @Benchmark
+    public RedisData writeHash() {
+        RedisData sink = new RedisData();
+        mappingRedisConverter.write(taleDetailDto, sink);
+        return sink;
+    }
+
+    @Benchmark
+    public TaleDetailDto readHash() {
+        return mappingRedisConverter.read(TaleDetailDto.class, redisData);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taleDetailDto);
+    }
+
+    @Benchmark
+    public TaleDetailDto readJson() throws IOException {
+        return objectMapper.readValue(json, TaleDetailDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeBinary() {
+        return taleDetailDtoCodec.encode(taleDetailDto);
+    }
+
+    @Benchmark
+    public TaleDetailDto readBinary() {
+        return taleDetailDtoCodec.decode(binary);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tosi.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.BenchmarkFixtures;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.prompt.PromptTemplateRegistry;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenAI API 요청 메시지 리스트를 만드는 비용
+ * makeInitChatTurn: 채팅 시작 프롬프트 생성(동화 문단 선택, 템플릿 렌더링)
+ * makeChatTurn: 프롬프트 재생성, 토큰 예산 계산, 세션 메시지 복사
+ * copySessionMessageList: 세션 메시지 리스트 복사만 측정한 기준값
+ */
+@State(Scope.Benchmark)
+public class ChatMessageAssemblerBenchmark {
+    @Param({"2", "10", "30"})
+    private int turns;
+    private ChatMessageAssembler chatMessageAssembler;
+    private ChatInitRequestDto chatInitRequestDto;
+    private TaleDetailDto taleDetailDto;
+    private List<MultiChatMessage> sessionMessageList;
+
+    @Setup
+    public void setUp() {
+        ChatGptProperties chatGptProperties = new ChatGptProperties();
+        ChatTokenBudgeter chatTokenBudgeter = new ChatTokenBudgeter(chatGptProperties, 3000, 1500, 200, 500, 10000);
+        ChatPromptRenderer chatPromptRenderer = new ChatPromptRenderer(
+                new PromptTemplateRegistry(new DefaultResourceLoader(), "classpath:prompt/"), 500);
+        chatMessageAssembler = new ChatMessageAssembler(chatTokenBudgeter, chatPromptRenderer, new SimpleMeterRegistry());
+        chatInitRequestDto = BenchmarkFixtures.chatInitRequestDto(new ObjectMapper(), 1L);
+        taleDetailDto = BenchmarkFixtures.taleDetailDto(1L);
+        sessionMessageList = BenchmarkFixtures.sessionMessageList(turns);
+    }
+
+    @Benchmark
+    public ChatTurn makeInitChatTurn() {
+        return chatMessageAssembler.makeInitChatTurn(1L, chatInitRequestDto, taleDetailDto);
+    }
+
+    @Benchmark
+    public ChatTurn makeChatTurn() {
+        return chatMessageAssembler.makeChatTurn("session", chatInitRequestDto, taleDetailDto,
+                sessionMessageList, BenchmarkFixtures.USER_MESSAGE, false);
+    }
+
+    @Benchmark
+    public List<MultiChatMessage> copySessionMessageList() {
+        List<MultiChatMessage> requestMessageList = new ArrayList<>(sessionMessageList.size() + 2);
+        requestMessageList.addAll(sessionMessageList);
+        requestMessageList.add(new MultiChatMessage("user", BenchmarkFixtures.USER_MESSAGE));
+        return requestMessageList;
+    }
+}
@@ -0,0 +1,167 @@
+package com.tosi.chat.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * 가상 사용자 한 명이 채팅 시작(/init) -> 질문(/) -> 마지막 인사(/final) 순서로 7개의 질문을 보내는 대화를 반복합니다.
+ * stream 모드면 SSE 엔드포인트(/stream/...)를 호출하고, 첫 delta 이벤트까지의 시간도 기록합니다.
+ */
+public class ConversationDriver {
+    static final int QUESTIONS = 7; // 이어서 채팅하기 6번 + 마지막 인사 1번
+    private static final String[] QUESTIONS_TEXT = {
+            "거북아, 달리기 시합에서 토끼를 이겼을 때 기분이 어땠어?",
+            "시합하는 동안 무슨 생각을 했어?",
+            "토끼가 잠들었을 때 깨워주고 싶지 않았어?",
+            "친구들이 응원해줬어?",
+            "다음에도 토끼랑 시합할 거야?",
+            "느려서 속상했던 적 있어?",
+            "나도 너처럼 포기하지 않을게!"
+    };
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String chatUrl;
+    private final boolean stream;
+    private final int taleCount;
+    private final Duration thinkTime;
+    private final Map<String, LatencyRecorder> recorders;
+    private final LatencyRecorder firstDeltaRecorder;
+    private final BooleanSupplier recording;
+
+    /**
+     * @param httpClient         요청을 보낼 HttpClient
+     * @param baseUrl            채팅 서비스 주소
+     * @param stream             SSE 엔드포인트 사용 여부
+     * @param taleCount          대화마다 무작위로 고를 동화 수
+     * @param thinkTime          질문 사이에 기다리는 시간
+     * @param recorders          요청 종류(init, chat, final)별 LatencyRecorder
+     * @param firstDeltaRecorder 첫 delta 이벤트까지의 시간을 기록할 LatencyRecorder
+     * @param recording          측정 구간인지 확인하는 BooleanSupplier(워밍업 중에는 기록하지 않음)
+     */
+    public ConversationDriver(HttpClient httpClient, String baseUrl, boolean stream, int taleCount, Duration thinkTime,
+                              Map<String, LatencyRecorder> recorders, LatencyRecorder firstDeltaRecorder, BooleanSupplier recording) {
+        this.httpClient = httpClient;
+        this.chatUrl = baseUrl + "/api/chat";
+        this.stream = stream;
+        this.taleCount = taleCount;
+        this.thinkTime = thinkTime;
+        this.recorders = recorders;
+        this.firstDeltaRecorder = firstDeltaRecorder;
+        this.recording = recording;
+    }
+
+    /**
+     * 대화 하나를 끝까지 진행합니다.
+     *
+     * @param userNumber 가상 사용자 번호(토큰으로 사용)
+     * @return 모든 요청이 성공했는지 여부; 실패하면 그 자리에서 대화를 중단
+     */
+    public boolean runConversation(int userNumber) throws InterruptedException {
+        long taleId = ThreadLocalRandom.current().nextLong(1, taleCount + 1);
+        String sessionId = send("init", "/init", "Bearer load-test-" + userNumber,
+                Map.of("childName", "민지", "characterName", "거북이", "taleId", taleId));
+        for (int i = 0; i < QUESTIONS && sessionId != null; i++) {
+            if (!thinkTime.isZero())
+                Thread.sleep(thinkTime);
+            boolean isFinal = i == QUESTIONS - 1;
+            sessionId = send(isFinal ? "final" : "chat", isFinal ? "/final" : "", null,
+                    Map.of("sessionId", sessionId, "multiChatMessage", QUESTIONS_TEXT[i]));
+        }
+        return sessionId != null;
+    }
+
+    /**
+     * 요청 하나를 보내고 응답 시간을 기록합니다.
+     *
+     * @return 응답의 세션 번호; 실패하면 null
+     */
+    private String send(String name, String path, String accessToken, Map<String, Object> body) {
+        LatencyRecorder recorder = recorders.get(name);
+        long startTime = System.nanoTime();
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(chatUrl + (stream ? "/stream" : "") + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            if (accessToken != null)
+                builder.header("Authorization", accessToken);
+            String sessionId = stream ? sendStream(builder.build(), startTime) : sendRequest(builder.build());
+            if (sessionId == null) {
+                recordError(recorder);
+                return null;
+            }
+            if (recording.getAsBoolean())
+                recorder.record(System.nanoTime() - startTime);
+            return sessionId;
+        } catch (IOException e) {
+            recordError(recorder);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String sendRequest(HttpRequest httpRequest) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200)
+            return null;
+        return readSessionId(objectMapper.readTree(response.body()));
+    }
+
+    /**
+     * SSE 응답을 끝까지 읽고 messages 이벤트의 세션 번호를 반환합니다. error 이벤트를 받으면 null을 반환합니다.
+     */
+    private String sendStream(HttpRequest httpRequest, long startTime) throws IOException, InterruptedException {
+        HttpResponse<Stream<String>> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            return null;
+        }
+        String event = null;
+        String sessionId = null;
+        boolean firstDelta = true;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    if ("delta".equals(event) && firstDelta) {
+                        firstDelta = false;
+                        if (recording.getAsBoolean())
+                            firstDeltaRecorder.record(System.nanoTime() - startTime);
+                    } else if ("messages".equals(event)) {
+                        sessionId = readSessionId(objectMapper.readTree(line.substring(5)));
+                    } else if ("error".equals(event)) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return sessionId;
+    }
+
+    private String readSessionId(JsonNode chatResponse) {
+        JsonNode sessionId = chatResponse.get("sessionId");
+        return sessionId == null || sessionId.isNull() ? null : sessionId.asText();
+    }
+
+    private void recordError(LatencyRecorder recorder) {
+        if (recording.getAsBoolean())
+            recorder.recordError();
+    }
+}
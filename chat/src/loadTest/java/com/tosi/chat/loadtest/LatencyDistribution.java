@@ -0,0 +1,54 @@
+package com.tosi.chat.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 중앙값과 p99로 정한 로그 정규 분포의 지연 시간
+ * 실제 API 응답 시간처럼 대부분은 중앙값 근처이고 일부 요청만 길게 늘어집니다.
+ *
+ * @param medianMillis 중앙값(ms)
+ * @param p99Millis    99번째 백분위수(ms); 중앙값과 같으면 항상 같은 지연 시간
+ */
+public record LatencyDistribution(double medianMillis, double p99Millis) {
+    private static final double Z_99 = 2.326; // 표준 정규 분포의 99번째 백분위수
+
+    /**
+     * "중앙값,p99" 또는 고정 지연 시간 하나를 읽습니다(예: 800,3000 / 20).
+     */
+    public static LatencyDistribution parse(String value) {
+        String[] values = value.split(",");
+        double median = Double.parseDouble(values[0].trim());
+        double p99 = values.length > 1 ? Double.parseDouble(values[1].trim()) : median;
+        if (median < 0 || p99 < median)
+            throw new IllegalArgumentException("지연 시간은 0 이상이고 p99가 중앙값보다 작을 수 없습니다: " + value);
+        return new LatencyDistribution(median, p99);
+    }
+
+    /**
+     * 분포에서 지연 시간 하나를 뽑습니다.
+     *
+     * @return 지연 시간(ms)
+     */
+    public long sampleMillis() {
+        if (medianMillis == 0 || p99Millis == medianMillis)
+            return Math.round(medianMillis);
+        double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        return Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    public void sleep() {
+        long millis = sampleMillis();
+        if (millis <= 0)
+            return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "p50 " + Math.round(medianMillis) + "ms, p99 " + Math.round(p99Millis) + "ms";
+    }
+}
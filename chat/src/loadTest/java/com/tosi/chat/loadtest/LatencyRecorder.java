@@ -0,0 +1,57 @@
+package com.tosi.chat.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 종류 하나의 응답 시간과 오류 수
+ * 측정 구간의 모든 응답 시간을 보관했다가 끝난 후 정렬하여 백분위수를 계산합니다.
+ */
+public class LatencyRecorder {
+    private final String name;
+    private final LongAdder errorCount = new LongAdder();
+    private long[] latencies = new long[1024];
+    private int size;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param latencyNanos 응답 시간(ns)
+     */
+    public synchronized void record(long latencyNanos) {
+        if (size == latencies.length)
+            latencies = Arrays.copyOf(latencies, size * 2);
+        latencies[size++] = latencyNanos;
+    }
+
+    public void recordError() {
+        errorCount.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getCount() {
+        return size;
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @param percentile 0과 1 사이의 백분위수
+     * @return 응답 시간(ms); 기록된 응답이 없으면 0
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (size == 0)
+            return 0;
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
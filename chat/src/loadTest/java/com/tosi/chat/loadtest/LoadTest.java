@@ -0,0 +1,220 @@
+package com.tosi.chat.loadtest;
+
+import com.tosi.chat.ChatApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 외부 API 스텁 서버와 채팅 서비스를 띄우고, 가상 사용자 concurrency명이 대화를 반복하게 하여 처리량, 응답 시간, GC 부하를 측정합니다.
+ * target을 지정하면 채팅 서비스를 띄우지 않고 이미 실행 중인 서비스에 요청을 보냅니다(그 서비스의 외부 API 주소를 스텁 서버로 지정해야 함).
+ * Redis는 redis-host, redis-port로 지정한 서버를 사용합니다.
+ * <p>
+ * ./gradlew loadTest -PloadTestArgs="--concurrency=200 --duration=60s --stream=true --openai.latency=800,3000 --openai.error-rate=0.01"
+ * <p>
+ * 옵션(기본값)
+ * engine(servlet), stream(false), concurrency(50), warmup(10s), duration(30s), think-time(0), tales(20), target, stub-port(0),
+ * redis-host(localhost), redis-port(6379),
+ * openai.latency(500,2000), openai.token-interval(15), openai.completion-tokens(40), tale.latency(20,100), user.latency(10,50),
+ * {openai, tale, user}.error-rate(0), {openai, tale, user}.error-status(503)
+ */
+public class LoadTest {
+    private static final String[] EXCLUDED_AUTO_CONFIGURATIONS = {
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration"
+    };
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        try (StubServers stubServers = new StubServers(options)) {
+            String target = options.getString("target", null);
+            ConfigurableApplicationContext applicationContext = target == null ? startChatService(options, stubServers) : null;
+            try {
+                String baseUrl = target != null ? target
+                        : "http://localhost:" + applicationContext.getEnvironment().getProperty("local.server.port");
+                run(options, stubServers, baseUrl);
+            } finally {
+                if (applicationContext != null)
+                    applicationContext.close();
+            }
+        }
+    }
+
+    /**
+     * 외부 API 주소를 스텁 서버로 바꿔 채팅 서비스를 같은 JVM에서 띄웁니다.
+     * OpenAI 요청 한도와 채팅 기록 저장(MySQL)은 스텁 서버가 아닌 채팅 서비스를 측정하기 위해 끕니다(-- 뒤에 인자를 넘겨 바꿀 수 있음).
+     * 모든 가상 사용자가 같은 IP로 요청하므로 요청 수 한도(chat.admission)는 크게 늘리고, 동시 처리 한도는 그대로 측정합니다.
+     */
+    private static ConfigurableApplicationContext startChatService(LoadTestOptions options, StubServers stubServers) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--chat.engine=" + options.getString("engine", "servlet"),
+                "--spring.autoconfigure.exclude=" + String.join(",", EXCLUDED_AUTO_CONFIGURATIONS),
+                "--MYSQL_URL=localhost", "--MYSQL_USER=load-test", "--MYSQL_PASSWORD=load-test",
+                "--REDIS_URL=" + options.getString("redis-host", "localhost"),
+                "--spring.data.redis.port=" + options.getInt("redis-port", 6379),
+                "--TALE_URL=" + stubServers.getBaseUrl() + "/api/tales",
+                "--USER_URL=" + stubServers.getBaseUrl() + "/api/users",
+                "--API_KEY=load-test",
+                "--openai.api-url=" + stubServers.getBaseUrl() + "/v1/chat/completions",
+                "--openai.rate-limit.enabled=false",
+                "--chat.transcript.enabled=false",
+                "--chat.admission.user.requests-per-minute=1000000", "--chat.admission.user.burst=1000000",
+                "--chat.admission.ip.requests-per-minute=1000000", "--chat.admission.ip.burst=1000000",
+                "--logging.level.root=WARN"));
+        // 같은 인자를 두 번 넘기면 값이 쉼표로 합쳐지므로 -- 뒤에 넘긴 인자로 기본값을 대체
+        for (String applicationArg : options.getApplicationArgs()) {
+            String name = applicationArg.split("=", 2)[0];
+            args.removeIf(arg -> arg.split("=", 2)[0].equals(name));
+            args.add(applicationArg);
+        }
+        return SpringApplication.run(ChatApplication.class, args.toArray(String[]::new));
+    }
+
+    private static void run(LoadTestOptions options, StubServers stubServers, String baseUrl) throws InterruptedException {
+        boolean stream = options.getBoolean("stream", false);
+        int concurrency = options.getInt("concurrency", 50);
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(30));
+
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        for (String name : List.of("init", "chat", "final"))
+            recorders.put(name, new LatencyRecorder(name));
+        LatencyRecorder firstDeltaRecorder = new LatencyRecorder("first delta");
+        LongAdder conversationCount = new LongAdder();
+        MeasurementWindow measurementWindow = new MeasurementWindow();
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        ConversationDriver conversationDriver = new ConversationDriver(httpClient, baseUrl, stream, options.getInt("tales", 20),
+                options.getDuration("think-time", Duration.ZERO), recorders, firstDeltaRecorder, measurementWindow::isRecording);
+
+        System.out.printf("채팅 서비스 %s, %s, 가상 사용자 %d명, 워밍업 %ds, 측정 %ds%n",
+                baseUrl, stream ? "stream" : "non-stream", concurrency, warmup.toSeconds(), duration.toSeconds());
+        System.out.println("OpenAI 스텁: " + stubServers.getOpenAi());
+        System.out.println("동화 스텁: " + stubServers.getTale());
+        System.out.println("회원 스텁: " + stubServers.getUser());
+
+        long deadline = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+        ExecutorService virtualUsers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < concurrency; i++) {
+            int userNumber = i;
+            virtualUsers.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        if (conversationDriver.runConversation(userNumber) && measurementWindow.isRecording())
+                            conversationCount.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        Thread.sleep(warmup);
+        GcSnapshot before = GcSnapshot.scrape(httpClient, baseUrl);
+        measurementWindow.start();
+        Thread.sleep(duration);
+        long elapsedNanos = measurementWindow.stop();
+        GcSnapshot after = GcSnapshot.scrape(httpClient, baseUrl);
+        virtualUsers.shutdown();
+        if (!virtualUsers.awaitTermination(90, TimeUnit.SECONDS))
+            virtualUsers.shutdownNow();
+
+        printReport(recorders, firstDeltaRecorder, conversationCount.sum(), elapsedNanos, before, after, stubServers);
+    }
+
+    private static void printReport(Map<String, LatencyRecorder> recorders, LatencyRecorder firstDeltaRecorder, long conversations,
+                                    long elapsedNanos, GcSnapshot before, GcSnapshot after, StubServers stubServers) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-12s %8s %8s %10s %10s %10s %10s%n", "요청", "성공", "오류", "req/s", "p50(ms)", "p99(ms)", "max(ms)");
+        List<LatencyRecorder> rows = new ArrayList<>(recorders.values());
+        if (firstDeltaRecorder.getCount() > 0)
+            rows.add(firstDeltaRecorder);
+        for (LatencyRecorder recorder : rows) {
+            System.out.printf("%-12s %8d %8d %10.1f %10.1f %10.1f %10.1f%n", recorder.getName(), recorder.getCount(), recorder.getErrorCount(),
+                    recorder.getCount() / seconds, recorder.getPercentileMillis(0.5), recorder.getPercentileMillis(0.99),
+                    recorder.getPercentileMillis(1));
+        }
+        System.out.printf("완료한 대화 %d개(%.2f/s), OpenAI 스텁 요청 %d개, 주입한 오류 %d개%n",
+                conversations, conversations / seconds, stubServers.getOpenAiRequestCount(), stubServers.getInjectedErrorCount());
+        if (before == null || after == null) {
+            System.out.println("GC: /actuator/prometheus를 읽을 수 없음");
+            return;
+        }
+        double allocatedMegabytes = (after.allocatedBytes() - before.allocatedBytes()) / 1024.0 / 1024.0;
+        System.out.printf("GC: 할당 %.1f MB/s, 멈춤 %d회, 총 %.1f ms(대화당 할당 %.2f MB)%n",
+                allocatedMegabytes / seconds, Math.round(after.pauseCount() - before.pauseCount()),
+                (after.pauseSeconds() - before.pauseSeconds()) * 1000,
+                conversations == 0 ? 0 : allocatedMegabytes / conversations);
+        System.out.println("(채팅 서비스를 직접 띄운 경우 스텁 서버와 가상 사용자의 할당량도 포함)");
+    }
+
+    /**
+     * 측정 구간 안에서만 응답 시간을 기록하도록 시작, 종료 시각을 관리합니다.
+     */
+    private static class MeasurementWindow {
+        private volatile boolean recording;
+        private long startTime;
+
+        void start() {
+            startTime = System.nanoTime();
+            recording = true;
+        }
+
+        long stop() {
+            recording = false;
+            return System.nanoTime() - startTime;
+        }
+
+        boolean isRecording() {
+            return recording;
+        }
+    }
+
+    /**
+     * 채팅 서비스의 /actuator/prometheus에서 읽은 누적 할당량과 GC 멈춤 횟수, 시간
+     */
+    private record GcSnapshot(double allocatedBytes, double pauseCount, double pauseSeconds) {
+        static GcSnapshot scrape(HttpClient httpClient, String baseUrl) {
+            try {
+                HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200)
+                    return null;
+                double allocatedBytes = 0, pauseCount = 0, pauseSeconds = 0;
+                for (String line : response.body().split("\n")) {
+                    if (line.startsWith("jvm_gc_memory_allocated_bytes_total"))
+                        allocatedBytes += value(line);
+                    else if (line.startsWith("jvm_gc_pause_seconds_count"))
+                        pauseCount += value(line);
+                    else if (line.startsWith("jvm_gc_pause_seconds_sum"))
+                        pauseSeconds += value(line);
+                }
+                return new GcSnapshot(allocatedBytes, pauseCount, pauseSeconds);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private static double value(String line) {
+            return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tosi.chat.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * --이름=값 형식의 부하 테스트 옵션
+ * -- 뒤의 인자는 부하 테스트가 직접 띄우는 채팅 서비스에 그대로 전달합니다(예: -- --chat.response-cache.enabled=true).
+ */
+public class LoadTestOptions {
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    public LoadTestOptions(String[] args) {
+        boolean applicationArg = false;
+        for (String arg : args) {
+            if (applicationArg) {
+                applicationArgs.add(arg);
+            } else if (arg.equals("--")) {
+                applicationArg = true;
+            } else if (arg.startsWith("--")) {
+                int separator = arg.indexOf('=');
+                if (separator < 0)
+                    options.put(arg.substring(2), "true");
+                else
+                    options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else {
+                throw new IllegalArgumentException("알 수 없는 인자: " + arg);
+            }
+        }
+    }
+
+    public String getString(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * 30s, 500ms, 2m처럼 단위를 붙인 시간을 읽습니다. 단위가 없으면 ms입니다.
+     */
+    public Duration getDuration(String name, Duration defaultValue) {
+        String value = options.get(name);
+        if (value == null)
+            return defaultValue;
+        if (value.endsWith("ms"))
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("s"))
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        if (value.endsWith("m"))
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        return Duration.ofMillis(Long.parseLong(value));
+    }
+
+    public LatencyDistribution getLatency(String name, LatencyDistribution defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : LatencyDistribution.parse(value);
+    }
+
+    public List<String> getApplicationArgs() {
+        return applicationArgs;
+    }
+}
@@ -0,0 +1,198 @@
+package com.tosi.chat.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 채팅 서비스가 호출하는 외부 API(OpenAI 채팅 API, 동화 서비스, 회원 서비스)를 흉내 내는 로컬 서버
+ * 요청마다 설정된 분포에서 지연 시간을 뽑아 기다린 후 응답하고, 설정된 비율만큼 오류 응답을 보냅니다.
+ * <p>
+ * POST /v1/chat/completions: stream 요청이면 토큰 조각을 tokenInterval마다 SSE로 보내고, 아니면 같은 시간을 기다린 후 한 번에 응답합니다.
+ * GET /api/tales/content/{taleId}: 문단 40개 분량의 동화
+ * GET /api/users/auth: Authorization 헤더가 있으면 회원 번호
+ */
+public class StubServers implements AutoCloseable {
+    private static final String COMPLETION = "나는 쉬지 않고 천천히 꾸준히 걸었어. 포기하지 않는 게 제일 중요하거든! 민지는 포기하고 싶었던 적이 있니?";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer httpServer;
+    private final Settings openAi;
+    private final Settings tale;
+    private final Settings user;
+    private final LatencyDistribution tokenInterval;
+    private final int completionTokens;
+    private final LongAdder openAiRequestCount = new LongAdder();
+    private final LongAdder injectedErrorCount = new LongAdder();
+
+    /**
+     * 외부 API 하나의 지연 시간과 오류 주입 설정
+     *
+     * @param latency     응답(stream이면 첫 토큰 조각)까지의 지연 시간
+     * @param errorRate   오류로 응답할 요청 비율(0 ~ 1)
+     * @param errorStatus 오류 응답 상태 코드(429면 Retry-After: 1 헤더 포함)
+     */
+    public record Settings(LatencyDistribution latency, double errorRate, int errorStatus) {
+        static Settings of(LoadTestOptions options, String name, LatencyDistribution defaultLatency) {
+            return new Settings(options.getLatency(name + ".latency", defaultLatency),
+                    options.getDouble(name + ".error-rate", 0),
+                    options.getInt(name + ".error-status", 503));
+        }
+
+        @Override
+        public String toString() {
+            return latency + ", 오류 " + errorRate * 100 + "% (" + errorStatus + ")";
+        }
+    }
+
+    public StubServers(LoadTestOptions options) throws IOException {
+        this.openAi = Settings.of(options, "openai", new LatencyDistribution(500, 2000));
+        this.tale = Settings.of(options, "tale", new LatencyDistribution(20, 100));
+        this.user = Settings.of(options, "user", new LatencyDistribution(10, 50));
+        this.tokenInterval = options.getLatency("openai.token-interval", new LatencyDistribution(15, 15));
+        this.completionTokens = options.getInt("openai.completion-tokens", 40);
+
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", options.getInt("stub-port", 0)), 1024);
+        httpServer.setExecutor(command -> Thread.ofVirtual().start(command)); // 지연 시간 동안 스레드를 점유하지 않도록 요청마다 가상 스레드
+        httpServer.createContext("/v1/chat/completions", exchange -> handle(exchange, openAi, this::completion));
+        httpServer.createContext("/api/tales/content/", exchange -> handle(exchange, tale, this::taleDetail));
+        httpServer.createContext("/api/users/auth", exchange -> handle(exchange, user, this::userId));
+        httpServer.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + httpServer.getAddress().getPort();
+    }
+
+    public Settings getOpenAi() {
+        return openAi;
+    }
+
+    public Settings getTale() {
+        return tale;
+    }
+
+    public Settings getUser() {
+        return user;
+    }
+
+    public long getOpenAiRequestCount() {
+        return openAiRequestCount.sum();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrorCount.sum();
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, Settings settings, Handler handler) throws IOException {
+        try (exchange) {
+            if (ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+                injectedErrorCount.increment();
+                settings.latency().sleep();
+                if (settings.errorStatus() == 429)
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                send(exchange, settings.errorStatus(), "{\"error\":{\"message\":\"injected by load test\"}}");
+                return;
+            }
+            handler.handle(exchange, settings.latency());
+        }
+    }
+
+    private void completion(HttpExchange exchange, LatencyDistribution latency) throws IOException {
+        openAiRequestCount.increment();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        int promptTokens = body.length() / 2; // 한국어 프롬프트는 대략 2자당 1토큰
+        boolean stream = body.contains("\"stream\":true");
+        latency.sleep();
+        if (!stream) {
+            for (int i = 0; i < completionTokens; i++)
+                tokenInterval.sleep();
+            send(exchange, 200, objectMapper.writeValueAsString(Map.of(
+                    "choices", List.of(Map.of("index", 0, "message", Map.of("role", "assistant", "content", COMPLETION), "finish_reason", "stop")),
+                    "usage", usage(promptTokens))));
+            return;
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream outputStream = exchange.getResponseBody();
+        int tokenLength = Math.max(1, COMPLETION.length() / completionTokens);
+        for (int start = 0; start < COMPLETION.length(); start += tokenLength) {
+            if (start > 0)
+                tokenInterval.sleep();
+            String delta = COMPLETION.substring(start, Math.min(COMPLETION.length(), start + tokenLength));
+            writeEvent(outputStream, Map.of("choices", List.of(Map.of("index", 0, "delta", Map.of("content", delta)))));
+        }
+        writeEvent(outputStream, Map.of("choices", List.of(), "usage", usage(promptTokens)));
+        outputStream.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    private void taleDetail(HttpExchange exchange, LatencyDistribution latency) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        long taleId = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        StringBuilder content = new StringBuilder("옛날 옛적 숲속 마을에 발이 빠른 토끼와 느림보 거북이가 살았어요.");
+        for (int i = 0; i < 40; i++) {
+            content.append('\n');
+            if (i % 5 == 0)
+                content.append("거북이는 느리지만 포기하지 않고 한 걸음 한 걸음 결승선을 향해 걸었어요. ");
+            content.append("하늘에는 구름이 둥실둥실 떠다니고 바람이 살랑살랑 불어 나뭇잎이 춤을 추었어요 ").append(i).append('.');
+        }
+        Map<String, Object> taleDetail = new LinkedHashMap<>();
+        taleDetail.put("taleId", taleId);
+        taleDetail.put("title", "토끼와 거북이 " + taleId);
+        taleDetail.put("content", content.toString());
+        taleDetail.put("characters", List.of("토끼", "거북이", "여우"));
+        taleDetail.put("images", List.of("tale/" + taleId + "/images/1.png"));
+        latency.sleep();
+        send(exchange, 200, objectMapper.writeValueAsString(taleDetail));
+    }
+
+    private void userId(HttpExchange exchange, LatencyDistribution latency) throws IOException {
+        String accessToken = exchange.getRequestHeaders().getFirst("Authorization");
+        latency.sleep();
+        if (accessToken == null) {
+            send(exchange, 401, "{}");
+            return;
+        }
+        send(exchange, 200, String.valueOf(Math.abs(accessToken.hashCode() % 100_000) + 1));
+    }
+
+    private Map<String, Object> usage(int promptTokens) {
+        return Map.of("prompt_tokens", promptTokens,
+                "completion_tokens", completionTokens,
+                "total_tokens", promptTokens + completionTokens,
+                "prompt_tokens_details", Map.of("cached_tokens", promptTokens / 2));
+    }
+
+    private void writeEvent(OutputStream outputStream, Object data) throws IOException {
+        outputStream.write(("data: " + objectMapper.writeValueAsString(data) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange, LatencyDistribution latency) throws IOException;
+    }
+}
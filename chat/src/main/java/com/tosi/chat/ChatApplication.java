@@ -1,9 +1,14 @@
 package com.tosi.chat;
 
+import com.tosi.chat.common.config.ChatRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(ChatRuntimeHints.class)
 public class ChatApplication {
 
 	public static void main(String[] args) {
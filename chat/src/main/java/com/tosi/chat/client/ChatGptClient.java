@@ -0,0 +1,329 @@
+package com.tosi.chat.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.dto.ChatCompletionResponseDto;
+import com.tosi.chat.dto.ChatStreamChunkDto;
+import com.tosi.chat.dto.ChatUsageDto;
+import com.tosi.chat.dto.MultiChatChoicesRequest;
+import com.tosi.chat.dto.MultiChatStreamRequest;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@RequiredArgsConstructor
+@Component
+public class ChatGptClient implements DisposableBean {
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+    private final CompletionRouter completionRouter;
+    @Qualifier("openAiRestTemplate")
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChatUsageRecorder chatUsageRecorder;
+    // 스트리밍 응답의 다음 줄 대기 시간, SSE 응답 종료를 확인하는 스레드; 확인 작업은 짧으므로 하나만 사용
+    private final ScheduledExecutorService streamWatchdogScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "openai-stream-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * OpenAI API에 채팅 메시지 리스트를 보내고 완성된 응답 메시지를 반환합니다.
+     * CompletionRouter가 요청 등급에 맞는 백엔드를 고르고, 백엔드가 장애 중이면 다음 백엔드로 다시 요청합니다.
+     * 실패한 요청은 백엔드의 OpenAiResilience가 다시 보내고, 헤지 요청을 사용하면 응답이 늦을 때 같은 요청을 한 번 더 보냅니다.
+     * 요청마다 백엔드의 OpenAiRateLimiter에서 요청 수, 토큰 수 허용량을 예약합니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @return OpenAI API가 생성한 응답 메시지
+     * @throws com.tosi.chat.common.exception.CustomException 모든 백엔드의 서킷 브레이커가 열려 있거나 동시 요청 수 제한 또는 요청 한도를 넘으면 예외 처리
+     */
+    public String requestChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier) {
+        return requestChat(multiChatMessageList, tier, usage -> {
+        });
+    }
+
+    /**
+     * requestChat과 같지만, 이번 요청에서 받은 usage를 모두 usageConsumer에도 넘깁니다.
+     * 재시도, 헤지 요청, 다른 백엔드로 다시 보낸 요청도 토큰을 사용하므로 각각 넘깁니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param usageConsumer        응답의 usage를 전달받을 Consumer
+     * @return OpenAI API가 생성한 응답 메시지
+     */
+    public String requestChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier, Consumer<ChatUsageDto> usageConsumer) {
+        return completionRouter.execute(tier, backend -> requestChat(backend, multiChatMessageList, usageConsumer));
+    }
+
+    /**
+     * 같은 메시지 리스트로 응답 n개를 한 번의 OpenAI API 요청으로 생성합니다.
+     * 프롬프트 토큰은 한 번만 사용하므로 같은 요청을 n번 보내는 것보다 저렴합니다.
+     * n을 지원하지 않는 백엔드(로컬 서버 등)는 n개보다 적게 응답할 수 있습니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param n                    생성할 응답 수
+     * @return OpenAI API가 생성한 응답 메시지 리스트
+     * @throws com.tosi.chat.common.exception.CustomException 모든 백엔드의 서킷 브레이커가 열려 있거나 동시 요청 수 제한 또는 요청 한도를 넘으면 예외 처리
+     */
+    public List<String> requestChoices(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier, int n) {
+        return completionRouter.execute(tier, backend -> requestCompletion(backend, new MultiChatChoicesRequest(
+                backend.getModel(),
+                multiChatMessageList,
+                backend.getMaxTokens(),
+                backend.getTemperature(),
+                backend.getTopP(),
+                n
+        ), multiChatMessageList, n, usage -> {
+        }).getContents());
+    }
+
+    /**
+     * OpenAI API에 stream 모드로 요청을 보내고, SSE로 도착하는 토큰 조각을 받는 즉시 deltaConsumer에 넘깁니다.
+     * 스트림이 끝나면 조각을 모두 이어 붙인 전체 응답 메시지를 반환합니다.
+     * 마지막 청크로 받은 usage는 ChatUsageRecorder에 집계합니다.
+     * 응답을 받기 전에 실패한 요청만 다시 보내거나 다음 백엔드로 보내고, 토큰 조각을 받기 시작한 후 끊긴 스트림은 다시 요청하지 않습니다.
+     * 다음 줄이 백엔드의 streamIdleTimeout 안에 도착하지 않으면 요청을 취소하고 백엔드 장애(ResourceAccessException)로 처리합니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param deltaConsumer        토큰 조각을 전달받을 Consumer; 예외를 던지면 스트림 수신을 중단
+     * @return OpenAI API가 생성한 전체 응답 메시지
+     * @throws com.tosi.chat.common.exception.CustomException 모든 백엔드의 서킷 브레이커가 열려 있거나 동시 요청 수 제한 또는 요청 한도를 넘으면 예외 처리
+     */
+    public String streamChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier, Consumer<String> deltaConsumer) {
+        return streamChat(multiChatMessageList, tier, usage -> {
+        }, deltaConsumer);
+    }
+
+    /**
+     * streamChat과 같지만, 마지막 청크로 받은 usage를 usageConsumer에도 넘깁니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param usageConsumer        응답의 usage를 전달받을 Consumer
+     * @param deltaConsumer        토큰 조각을 전달받을 Consumer; 예외를 던지면 스트림 수신을 중단
+     * @return OpenAI API가 생성한 전체 응답 메시지
+     */
+    public String streamChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier,
+                             Consumer<ChatUsageDto> usageConsumer, Consumer<String> deltaConsumer) {
+        return streamChat(multiChatMessageList, tier, usageConsumer, deltaConsumer, () -> false);
+    }
+
+    /**
+     * streamChat과 같지만, 응답을 받을 클라이언트가 없어지면(SSE 응답 종료, 타임아웃) 다음 토큰 조각을 기다리지 않고 요청을 취소합니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param usageConsumer        응답의 usage를 전달받을 Consumer
+     * @param deltaConsumer        토큰 조각을 전달받을 Consumer; 예외를 던지면 스트림 수신을 중단
+     * @param cancelled            응답을 받을 클라이언트가 없어졌는지 확인하는 BooleanSupplier
+     * @return OpenAI API가 생성한 전체 응답 메시지
+     * @throws java.util.concurrent.CancellationException cancelled가 true가 되어 수신을 중단하면 예외 처리
+     */
+    public String streamChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier,
+                             Consumer<ChatUsageDto> usageConsumer, Consumer<String> deltaConsumer, BooleanSupplier cancelled) {
+        AtomicBoolean responseStarted = new AtomicBoolean();
+        return completionRouter.executeStream(tier, backend -> streamChat(backend, multiChatMessageList, usageConsumer, delta -> {
+            responseStarted.set(true);
+            deltaConsumer.accept(delta);
+        }, cancelled), responseStarted::get);
+    }
+
+    /**
+     * 백엔드 하나에 요청을 보내고 응답 메시지를 반환합니다.
+     */
+    private String requestChat(CompletionBackend backend, List<MultiChatMessage> multiChatMessageList, Consumer<ChatUsageDto> usageConsumer) {
+        MultiChatRequest multiChatRequest = new MultiChatRequest(
+                backend.getModel(),
+                multiChatMessageList,
+                backend.getMaxTokens(),
+                backend.getTemperature(),
+                backend.getTopP()
+        );
+        return requestCompletion(backend, multiChatRequest, multiChatMessageList, 1, usageConsumer).getContent();
+    }
+
+    /**
+     * 백엔드 하나에 요청을 보내고, 응답을 받기까지 걸린 시간을 백엔드에 기록합니다.
+     * 응답 n개를 요청하면 응답 토큰도 n배로 추정해 요청 한도에서 예약합니다.
+     * 요청 한도는 동시 요청 수 제한, 헤지에 들어가기 전에 예약하므로 허용량을 기다리는 동안 동시 요청 수를 차지하지 않고,
+     * 기다린 시간은 헤지 지연 시간과 백엔드 응답 시간에 포함되지 않습니다. 재시도, 헤지 요청이 사용한 양은 응답 헤더로 반영됩니다.
+     *
+     * @throws CustomException 응답 본문이 비어 있으면 CHAT_API_UNAVAILABLE로 예외 처리하여 CompletionRouter가 다음 백엔드로 요청
+     */
+    private ChatCompletionResponseDto requestCompletion(CompletionBackend backend, MultiChatRequest multiChatRequest,
+                                                        List<MultiChatMessage> multiChatMessageList, int n,
+                                                        Consumer<ChatUsageDto> usageConsumer) {
+        HttpEntity<?> httpEntity = buildHttpEntity(multiChatRequest, backend.getApiKey());
+        OpenAiRateLimiter openAiRateLimiter = backend.getOpenAiRateLimiter();
+        int estimatedTokens = openAiRateLimiter.estimateTokens(multiChatMessageList);
+        int reservedTokens = estimatedTokens == 0 ? 0 : estimatedTokens + (n - 1) * backend.getMaxTokens();
+
+        openAiRateLimiter.acquire(reservedTokens);
+        long startTime = System.nanoTime();
+        ChatCompletionResponseDto completion = backend.getOpenAiResilience().executeHedged(() -> withRateLimit(openAiRateLimiter, () -> {
+            ResponseEntity<ChatCompletionResponseDto> responseEntity = restTemplate.postForEntity(
+                    backend.getApiUrl(),
+                    httpEntity,
+                    ChatCompletionResponseDto.class);
+            openAiRateLimiter.update(responseEntity.getHeaders());
+            ChatCompletionResponseDto chatCompletionResponseDto = responseEntity.getBody();
+            // 본문이 빈 200 응답은 응답을 생성하지 못한 것으로 보고 다음 백엔드로 요청
+            if (chatCompletionResponseDto == null)
+                throw new CustomException(ExceptionCode.CHAT_API_UNAVAILABLE);
+            recordUsage(chatCompletionResponseDto.getUsage(), usageConsumer);
+            return chatCompletionResponseDto;
+        }));
+        long responseNanos = System.nanoTime() - startTime;
+        backend.recordLatency(responseNanos);
+        backend.recordResponseTime(responseNanos, false);
+        return completion;
+    }
+
+    /**
+     * 백엔드 하나에 stream 모드로 요청을 보내고, 첫 토큰 조각과 전체 응답을 받기까지 걸린 시간을 백엔드에 기록합니다.
+     * 요청 한도는 동시 요청 수 제한에 들어가기 전에 예약하며, 기다린 시간은 응답 시간에 포함되지 않습니다.
+     */
+    private String streamChat(CompletionBackend backend, List<MultiChatMessage> multiChatMessageList,
+                              Consumer<ChatUsageDto> usageConsumer, Consumer<String> deltaConsumer, BooleanSupplier cancelled) {
+        MultiChatStreamRequest multiChatStreamRequest = new MultiChatStreamRequest(
+                backend.getModel(),
+                multiChatMessageList,
+                backend.getMaxTokens(),
+                backend.getTemperature(),
+                backend.getTopP()
+        );
+        HttpEntity<?> httpEntity = buildHttpEntity(multiChatStreamRequest, backend.getApiKey());
+        OpenAiRateLimiter openAiRateLimiter = backend.getOpenAiRateLimiter();
+        int estimatedTokens = openAiRateLimiter.estimateTokens(multiChatMessageList);
+
+        openAiRateLimiter.acquire(estimatedTokens);
+        long startTime = System.nanoTime();
+        String streamedContent = backend.getOpenAiResilience().execute(() -> withRateLimit(openAiRateLimiter, () -> restTemplate.execute(
+                backend.getApiUrl(),
+                HttpMethod.POST,
+                restTemplate.httpEntityCallback(httpEntity),
+                response -> {
+                    openAiRateLimiter.update(response.getHeaders());
+                    InputStream body = response.getBody();
+                    try (StreamWatchdog streamWatchdog = new StreamWatchdog(streamWatchdogScheduler, body, backend.getStreamIdleTimeout(), cancelled)) {
+                        return readStream(backend, body, streamWatchdog, startTime, usageConsumer, deltaConsumer);
+                    } catch (RuntimeException e) {
+                        // 응답을 닫을 때 남은 본문을 끝까지 읽지 않도록 먼저 끊음
+                        try {
+                            body.close();
+                        } catch (IOException closeException) {
+                            e.addSuppressed(closeException);
+                        }
+                        throw e;
+                    }
+                })));
+        backend.recordResponseTime(System.nanoTime() - startTime, true);
+        return streamedContent;
+    }
+
+    /**
+     * SSE 본문을 한 줄씩 읽어 토큰 조각을 deltaConsumer에 넘기고, 조각을 모두 이어 붙인 응답 메시지를 반환합니다.
+     * StreamWatchdog이 스트림을 닫아 읽기가 끝나면 끝까지 받은 응답으로 보지 않고 중단한 이유에 맞는 예외를 던집니다.
+     */
+    private String readStream(CompletionBackend backend, InputStream body, StreamWatchdog streamWatchdog, long startTime,
+                              Consumer<ChatUsageDto> usageConsumer, Consumer<String> deltaConsumer) throws IOException {
+        StringBuilder content = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                streamWatchdog.touch();
+                if (!line.startsWith(SSE_DATA_PREFIX))
+                    continue;
+                String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                if (SSE_DONE.equals(data))
+                    return content.toString();
+                ChatStreamChunkDto chatStreamChunkDto = objectMapper.readValue(data, ChatStreamChunkDto.class);
+                recordUsage(chatStreamChunkDto.getUsage(), usageConsumer);
+                String delta = chatStreamChunkDto.getDeltaContent();
+                if (delta == null || delta.isEmpty())
+                    continue;
+                if (content.isEmpty())
+                    backend.recordLatency(System.nanoTime() - startTime);
+                content.append(delta);
+                deltaConsumer.accept(delta);
+            }
+        } catch (IOException e) {
+            streamWatchdog.throwIfAborted();
+            throw e;
+        }
+        streamWatchdog.throwIfAborted();
+        return content.toString();
+    }
+
+    /**
+     * 요청을 보내고, 오류 응답에 담긴 한도 헤더도 요청 한도에 반영합니다.
+     *
+     * @param openAiRateLimiter 요청을 보낼 백엔드의 OpenAiRateLimiter
+     * @param request           OpenAI API에 요청을 보내는 Supplier
+     * @return 요청 결과
+     */
+    private <T> T withRateLimit(OpenAiRateLimiter openAiRateLimiter, Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (RestClientResponseException e) {
+            openAiRateLimiter.update(e.getResponseHeaders());
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        streamWatchdogScheduler.shutdownNow();
+    }
+
+    private void recordUsage(ChatUsageDto chatUsageDto, Consumer<ChatUsageDto> usageConsumer) {
+        if (chatUsageDto == null)
+            return;
+        chatUsageRecorder.record(chatUsageDto);
+        usageConsumer.accept(chatUsageDto);
+    }
+
+    /**
+     * 요청 객체와 헤더를 포함한 HttpEntity 객체를 생성합니다.
+     *
+     * @param multiChatRequest OpenAI API 설정 정보, 채팅 메시지 리스트를 담은 MultiChatRequest 객체
+     * @param apiKey           요청을 보낼 백엔드의 API 키
+     * @return OpenAI API에 보낼 HttpEntity 객체
+     */
+    private HttpEntity<?> buildHttpEntity(MultiChatRequest multiChatRequest, String apiKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/json; charset=UTF-8"));
+        headers.add("Authorization", "Bearer " + apiKey);
+        return new HttpEntity<>(multiChatRequest, headers);
+    }
+}
@@ -0,0 +1,60 @@
+package com.tosi.chat.client;
+
+import com.tosi.chat.dto.ChatUsageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OpenAI API 응답의 usage를 모아 토큰 사용량과 프롬프트 캐시 적중률을 집계합니다.
+ * 프롬프트 앞부분(규칙 -> 동화 -> 등장인물 -> 사용자 정보)이 요청마다 같을수록 cached_tokens가 늘어납니다.
+ */
+@Slf4j
+@Component
+public class ChatUsageRecorder {
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder cachedPromptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+
+    /**
+     * 응답 하나의 usage를 집계합니다.
+     *
+     * @param chatUsageDto OpenAI API 응답의 usage; 없으면 집계하지 않음
+     */
+    public void record(ChatUsageDto chatUsageDto) {
+        if (chatUsageDto == null)
+            return;
+        requestCount.increment();
+        promptTokens.add(chatUsageDto.getPromptTokens());
+        cachedPromptTokens.add(chatUsageDto.getCachedTokens());
+        completionTokens.add(chatUsageDto.getCompletionTokens());
+        log.debug("OpenAI usage prompt: {}, cached: {}, completion: {}",
+                chatUsageDto.getPromptTokens(), chatUsageDto.getCachedTokens(), chatUsageDto.getCompletionTokens());
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getPromptTokens() {
+        return promptTokens.sum();
+    }
+
+    public long getCachedPromptTokens() {
+        return cachedPromptTokens.sum();
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens.sum();
+    }
+
+    /**
+     * 전체 프롬프트 토큰 중 OpenAI 프롬프트 캐시에서 재사용된 토큰의 비율을 반환합니다.
+     */
+    public double getPromptCacheHitRate() {
+        long prompt = promptTokens.sum();
+        return prompt == 0 ? 0 : (double) cachedPromptTokens.sum() / prompt;
+    }
+}
@@ -0,0 +1,193 @@
+package com.tosi.chat.client;
+
+import com.tosi.chat.common.config.ChatGptProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 채팅 응답을 생성할 OpenAI 호환 API 백엔드 하나의 설정과 요청 보호, 요청 한도, 최근 지연 시간, 오류 비율
+ * 설정하지 않은 값은 ChatGptProperties의 기본값을 사용합니다.
+ * 지연 시간, 동시 요청 수, 서킷 브레이커 상태, 재시도, 요청 한도 대기 횟수는 backend 태그를 붙여 MeterRegistry에 등록합니다.
+ */
+@Getter
+public class CompletionBackend {
+    private static final double ERROR_RATE_DECAY = 0.1; // 요청 결과 하나가 오류 비율에 반영되는 비율(지수 이동 평균)
+    private final String name;
+    private final String apiUrl;
+    private final String apiKey;
+    private final String model;
+    private final int maxTokens;
+    private final Double temperature;
+    private final Double topP;
+    private final double inputCost;
+    private final double outputCost;
+    private final Set<ChatGptProperties.Tier> tiers;
+    private final Duration streamIdleTimeout;
+    private final OpenAiResilience openAiResilience;
+    private final OpenAiRateLimiter openAiRateLimiter;
+    @Getter(AccessLevel.NONE)
+    private final LatencyWindow latencyWindow;
+    @Getter(AccessLevel.NONE)
+    private final Timer firstTokenTimer;
+    @Getter(AccessLevel.NONE)
+    private final Timer responseTimer;
+    @Getter(AccessLevel.NONE)
+    private final Timer streamResponseTimer;
+    @Getter(AccessLevel.NONE)
+    private final long errorRateHalfLifeNanos;
+    @Getter(AccessLevel.NONE)
+    private double errorRate;
+    @Getter(AccessLevel.NONE)
+    private long errorRateUpdatedAt = System.nanoTime();
+
+    /**
+     * @param chatGptProperties  기본값이 담긴 ChatGptProperties 객체
+     * @param backend            백엔드 설정
+     * @param resilienceFactory  백엔드 이름으로 OpenAiResilience를 만드는 Function
+     * @param rateLimiterFactory 백엔드 이름과 max_tokens로 OpenAiRateLimiter를 만드는 BiFunction
+     * @param meterRegistry      지표를 등록할 MeterRegistry
+     */
+    public CompletionBackend(ChatGptProperties chatGptProperties, ChatGptProperties.Backend backend,
+                             Function<String, OpenAiResilience> resilienceFactory,
+                             BiFunction<String, Integer, OpenAiRateLimiter> rateLimiterFactory,
+                             MeterRegistry meterRegistry) {
+        this.model = Objects.requireNonNullElse(backend.getModel(), chatGptProperties.getModel());
+        this.name = Objects.requireNonNullElse(backend.getName(), model);
+        this.apiUrl = Objects.requireNonNullElse(backend.getApiUrl(), chatGptProperties.getApiUrl());
+        this.apiKey = Objects.requireNonNullElse(backend.getApiKey(), Objects.requireNonNullElse(chatGptProperties.getApiKey(), ""));
+        this.maxTokens = Objects.requireNonNullElse(backend.getMaxTokens(), chatGptProperties.getMaxTokens());
+        this.temperature = Objects.requireNonNullElse(backend.getTemperature(), chatGptProperties.getTemperature());
+        this.topP = Objects.requireNonNullElse(backend.getTopP(), chatGptProperties.getTopP());
+        this.inputCost = backend.getInputCost();
+        this.outputCost = backend.getOutputCost();
+        this.tiers = Set.copyOf(backend.getTiers());
+        this.streamIdleTimeout = chatGptProperties.getStreamIdleTimeout();
+        this.openAiResilience = resilienceFactory.apply(name);
+        this.openAiRateLimiter = rateLimiterFactory.apply(name, maxTokens);
+        this.latencyWindow = new LatencyWindow(chatGptProperties.getRouting().getWindowSize());
+        this.errorRateHalfLifeNanos = chatGptProperties.getRouting().getErrorRateHalfLife().toNanos();
+
+        Tags tags = Tags.of("backend", name);
+        this.firstTokenTimer = Timer.builder("chat.openai.first.token")
+                .description("요청을 보낸 후 첫 토큰 조각(스트리밍이 아니면 전체 응답)을 받기까지 걸린 시간")
+                .tags(tags)
+                .register(meterRegistry);
+        this.responseTimer = Timer.builder("chat.openai.response")
+                .description("요청을 보낸 후 응답을 모두 받기까지 걸린 시간")
+                .tags(tags).tag("stream", "false")
+                .register(meterRegistry);
+        this.streamResponseTimer = Timer.builder("chat.openai.response")
+                .description("요청을 보낸 후 응답을 모두 받기까지 걸린 시간")
+                .tags(tags).tag("stream", "true")
+                .register(meterRegistry);
+        Gauge.builder("chat.openai.in.flight", openAiResilience, OpenAiResilience::getConcurrentCallCount)
+                .description("응답을 기다리거나 스트리밍 중인 요청 수")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("chat.openai.circuit.open", openAiResilience, resilience -> resilience.isCircuitOpen() ? 1 : 0)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("chat.openai.error.rate", this, CompletionBackend::getErrorRate)
+                .description("라우팅에 사용하는 최근 오류 비율")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.openai.retried.calls", openAiResilience, OpenAiResilience::getRetriedCallCount)
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.openai.hedged.requests", openAiResilience, OpenAiResilience::getHedgedRequestCount)
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.openai.rate.limited", openAiRateLimiter, OpenAiRateLimiter::getDelayedRequestCount)
+                .description("요청 한도를 넘어 대기하거나 거절된 요청 수")
+                .tags(tags).tag("result", "delayed")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.openai.rate.limited", openAiRateLimiter, OpenAiRateLimiter::getRejectedRequestCount)
+                .description("요청 한도를 넘어 대기하거나 거절된 요청 수")
+                .tags(tags).tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 요청을 보낸 후 응답(스트리밍이면 첫 토큰 조각)을 받기까지 걸린 시간을 기록합니다.
+     *
+     * @param latencyNanos 지연 시간(ns)
+     */
+    public void recordLatency(long latencyNanos) {
+        latencyWindow.record(latencyNanos);
+        firstTokenTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 요청을 보낸 후 응답을 모두 받기까지 걸린 시간을 기록합니다.
+     *
+     * @param responseNanos 응답 시간(ns)
+     * @param stream        stream 모드 요청인지 여부
+     */
+    public void recordResponseTime(long responseNanos, boolean stream) {
+        (stream ? streamResponseTimer : responseTimer).record(responseNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 최근 지연 시간의 백분위수를 반환합니다.
+     *
+     * @param percentile     0과 1 사이의 백분위수
+     * @param minimumSamples 계산에 필요한 최소 응답 수
+     * @return 지연 시간(ms); 기록된 응답이 minimumSamples보다 적으면 -1
+     */
+    public long getLatencyMillis(double percentile, int minimumSamples) {
+        long latencyNanos = latencyWindow.percentile(percentile, minimumSamples);
+        return latencyNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    }
+
+    public synchronized void recordSuccess() {
+        decayErrorRate();
+        errorRate -= errorRate * ERROR_RATE_DECAY;
+    }
+
+    public synchronized void recordFailure() {
+        decayErrorRate();
+        errorRate += (1 - errorRate) * ERROR_RATE_DECAY;
+    }
+
+    /**
+     * 최근 요청 결과의 지수 이동 평균으로 계산한 오류 비율(0 ~ 1)을 반환합니다.
+     * 오류 비율이 높아 뒤로 밀린 백엔드는 요청을 받지 못해 값이 갱신되지 않으므로, 마지막 갱신 후 지난 시간만큼 errorRateHalfLife마다 절반으로 줄입니다.
+     */
+    public synchronized double getErrorRate() {
+        return errorRate * decayFactor(System.nanoTime());
+    }
+
+    private void decayErrorRate() {
+        long now = System.nanoTime();
+        errorRate *= decayFactor(now);
+        errorRateUpdatedAt = now;
+    }
+
+    private double decayFactor(long now) {
+        if (errorRateHalfLifeNanos <= 0)
+            return 1;
+        return Math.pow(0.5, (double) (now - errorRateUpdatedAt) / errorRateHalfLifeNanos);
+    }
+
+    /**
+     * 프롬프트 토큰 수와 max_tokens로 요청 1개의 최대 비용을 추정합니다.
+     *
+     * @param promptTokens 프롬프트 토큰 수
+     * @return 예상 비용(USD)
+     */
+    public double estimateCost(int promptTokens) {
+        return (promptTokens * inputCost + maxTokens * outputCost) / 1_000_000;
+    }
+}
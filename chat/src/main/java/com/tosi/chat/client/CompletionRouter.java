@@ -0,0 +1,245 @@
+package com.tosi.chat.client;
+
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.config.OpenAiRateLimitProperties;
+import com.tosi.chat.common.config.OpenAiResilienceProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.service.ChatTokenBudgeter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * 설정된 OpenAI 호환 API 백엔드 중에서 요청마다 시도할 백엔드 순서를 정하고, 앞 백엔드가 실패하면 다음 백엔드로 다시 요청합니다.
+ * 요청 등급(일반 대화, 마지막 인사)을 우선 처리하는 백엔드를 점수가 낮은 순서로 먼저 시도하고, 모두 실패하면 나머지 백엔드를 시도합니다.
+ * 점수는 최근 지연 시간(p50, p95 평균, 초) * latencyWeight + 요청 1개의 예상 비용(USD) * costWeight에 (1 + 최근 오류 비율)을 곱해 계산합니다.
+ * 최근 오류 비율이 maxErrorRate를 넘거나 서킷 브레이커가 열린 백엔드는 다른 백엔드가 모두 실패했을 때만 시도합니다.
+ * 다음 백엔드로 넘어가는 오류는 서킷 브레이커 차단, 벌크헤드 포화, 요청 한도 초과와 재시도 후에도 실패한 5xx 응답, 연결 실패, 타임아웃뿐이며,
+ * 4xx 응답처럼 요청 자체가 잘못된 오류나 토큰 조각을 전달하기 시작한 후의 오류는 그대로 던집니다.
+ */
+@Slf4j
+@Component
+public class CompletionRouter implements DisposableBean {
+    private final ChatGptProperties.Routing routingProperties;
+    private final List<CompletionBackend> completionBackends;
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    public CompletionRouter(ChatGptProperties chatGptProperties,
+                            OpenAiResilienceProperties openAiResilienceProperties,
+                            OpenAiRateLimitProperties openAiRateLimitProperties,
+                            ChatTokenBudgeter chatTokenBudgeter,
+                            StringRedisTemplate stringRedisTemplate,
+                            ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                            MeterRegistry meterRegistry) {
+        this.routingProperties = chatGptProperties.getRouting();
+        this.hedgeExecutor = newHedgeExecutor(openAiResilienceProperties.getHedge().getMaxConcurrentHedges());
+        List<ChatGptProperties.Backend> backends = chatGptProperties.getBackends().isEmpty()
+                ? List.of(new ChatGptProperties.Backend())
+                : chatGptProperties.getBackends();
+        List<CompletionBackend> completionBackends = new ArrayList<>(backends.size());
+        for (ChatGptProperties.Backend backend : backends) {
+            completionBackends.add(new CompletionBackend(chatGptProperties, backend,
+                    name -> new OpenAiResilience(name, openAiResilienceProperties, hedgeExecutor),
+                    (name, maxTokens) -> new OpenAiRateLimiter(name, openAiRateLimitProperties, maxTokens, chatTokenBudgeter,
+                            stringRedisTemplate, reactiveStringRedisTemplate),
+                    meterRegistry));
+        }
+        this.completionBackends = List.copyOf(completionBackends);
+    }
+
+    /**
+     * 모든 백엔드가 함께 사용하는 헤지 요청 전용 스레드 풀을 만듭니다.
+     * 큐 없이 maxConcurrentHedges개까지만 스레드를 만들고, 넘으면 작업을 거절하여 헤지 요청을 보내지 않습니다.
+     * SSE 스트리밍 풀과 나누어 두어, 헤지 요청이 스트리밍 응답 뒤에서 기다리거나 스트리밍 스레드를 차지하지 않습니다.
+     */
+    private static ThreadPoolExecutor newHedgeExecutor(int maxConcurrentHedges) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "openai-hedge-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(0, maxConcurrentHedges, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 설정된 모든 백엔드를 반환합니다.
+     */
+    public List<CompletionBackend> getCompletionBackends() {
+        return completionBackends;
+    }
+
+    /**
+     * 요청 등급을 처리할 백엔드를 시도할 순서대로 정렬합니다.
+     *
+     * @param tier 요청 등급
+     * @return 우선 처리하는 정상 백엔드, 다른 등급의 정상 백엔드, 장애 중인 백엔드 순서로 각각 점수가 낮은 순서대로 정렬한 리스트
+     */
+    public List<CompletionBackend> route(ChatGptProperties.Tier tier) {
+        if (completionBackends.size() == 1)
+            return completionBackends;
+        List<CompletionBackend> routes = new ArrayList<>(completionBackends);
+        routes.sort(Comparator.comparingInt((CompletionBackend backend) -> isDegraded(backend) ? 1 : 0)
+                .thenComparingInt(backend -> backend.getTiers().contains(tier) ? 0 : 1)
+                .thenComparingDouble(this::score));
+        return routes;
+    }
+
+    /**
+     * 백엔드를 순서대로 시도하여 처음 성공한 응답을 반환합니다.
+     *
+     * @param tier 요청 등급
+     * @param call 백엔드에 요청을 보내는 Function
+     * @return 요청 결과
+     */
+    public <T> T execute(ChatGptProperties.Tier tier, Function<CompletionBackend, T> call) {
+        return execute(tier, call, () -> false);
+    }
+
+    /**
+     * execute와 같지만, 토큰 조각을 전달하기 시작한 후 실패하면 사용자에게 같은 내용을 다시 보내지 않도록 다음 백엔드를 시도하지 않습니다.
+     *
+     * @param tier            요청 등급
+     * @param call            백엔드에 stream 모드로 요청을 보내는 Function
+     * @param responseStarted 토큰 조각을 전달하기 시작했는지 확인하는 BooleanSupplier
+     * @return 요청 결과
+     */
+    public <T> T executeStream(ChatGptProperties.Tier tier, Function<CompletionBackend, T> call, BooleanSupplier responseStarted) {
+        return execute(tier, call, responseStarted);
+    }
+
+    /**
+     * execute의 reactive 버전입니다.
+     *
+     * @param tier 요청 등급
+     * @param call 백엔드에 요청을 보내는 Mono를 만드는 Function
+     * @return 처음 성공한 응답을 발행하는 Mono
+     */
+    public <T> Mono<T> executeReactive(ChatGptProperties.Tier tier, Function<CompletionBackend, Mono<T>> call) {
+        return Mono.defer(() -> executeReactive(route(tier), 0, call));
+    }
+
+    /**
+     * executeStream의 reactive 버전입니다. 첫 요소를 발행한 후 실패하면 다음 백엔드를 시도하지 않습니다.
+     *
+     * @param tier 요청 등급
+     * @param call 백엔드에 stream 모드로 요청을 보내는 Flux를 만드는 Function
+     * @return 처음 성공한 백엔드의 응답을 발행하는 Flux
+     */
+    public <T> Flux<T> executeStreamReactive(ChatGptProperties.Tier tier, Function<CompletionBackend, Flux<T>> call) {
+        return Flux.defer(() -> executeStreamReactive(route(tier), 0, call));
+    }
+
+    private <T> T execute(ChatGptProperties.Tier tier, Function<CompletionBackend, T> call, BooleanSupplier responseStarted) {
+        List<CompletionBackend> routes = route(tier);
+        for (int i = 0; ; i++) {
+            CompletionBackend backend = routes.get(i);
+            try {
+                T result = call.apply(backend);
+                backend.recordSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!isBackendFailure(e))
+                    throw e;
+                backend.recordFailure();
+                if (i == routes.size() - 1 || responseStarted.getAsBoolean())
+                    throw e;
+                logFallback(backend, routes.get(i + 1), e);
+            }
+        }
+    }
+
+    private <T> Mono<T> executeReactive(List<CompletionBackend> routes, int index, Function<CompletionBackend, Mono<T>> call) {
+        CompletionBackend backend = routes.get(index);
+        return call.apply(backend)
+                .doOnSuccess(result -> backend.recordSuccess())
+                .onErrorResume(this::isBackendFailure, e -> {
+                    backend.recordFailure();
+                    if (index == routes.size() - 1)
+                        return Mono.error(e);
+                    logFallback(backend, routes.get(index + 1), e);
+                    return executeReactive(routes, index + 1, call);
+                });
+    }
+
+    private <T> Flux<T> executeStreamReactive(List<CompletionBackend> routes, int index, Function<CompletionBackend, Flux<T>> call) {
+        CompletionBackend backend = routes.get(index);
+        AtomicBoolean responseStarted = new AtomicBoolean();
+        return call.apply(backend)
+                .doOnNext(element -> responseStarted.set(true))
+                .doOnComplete(backend::recordSuccess)
+                .onErrorResume(this::isBackendFailure, e -> {
+                    backend.recordFailure();
+                    if (index == routes.size() - 1 || responseStarted.get())
+                        return Flux.error(e);
+                    logFallback(backend, routes.get(index + 1), e);
+                    return executeStreamReactive(routes, index + 1, call);
+                });
+    }
+
+    /**
+     * 최근 지연 시간과 예상 비용, 오류 비율로 백엔드 점수를 계산합니다. 낮을수록 먼저 시도합니다.
+     * 지연 시간을 계산할 만큼 응답을 받지 못한 백엔드는 지연 시간 점수를 0으로 두어 새 백엔드도 요청을 받게 합니다.
+     */
+    private double score(CompletionBackend backend) {
+        long p50 = backend.getLatencyMillis(0.5, routingProperties.getMinimumNumberOfCalls());
+        long p95 = backend.getLatencyMillis(0.95, routingProperties.getMinimumNumberOfCalls());
+        double latencySeconds = p50 < 0 ? 0 : (p50 + p95) / 2000.0;
+        double score = latencySeconds * routingProperties.getLatencyWeight()
+                + backend.estimateCost(routingProperties.getPromptTokens()) * routingProperties.getCostWeight();
+        return score * (1 + backend.getErrorRate());
+    }
+
+    private boolean isDegraded(CompletionBackend backend) {
+        return backend.getOpenAiResilience().isCircuitOpen() || backend.getErrorRate() > routingProperties.getMaxErrorRate();
+    }
+
+    /**
+     * 백엔드 장애로 보고 다음 백엔드를 시도할 예외인지 확인합니다.
+     */
+    private boolean isBackendFailure(Throwable throwable) {
+        if (throwable instanceof CustomException customException)
+            return customException.getExceptionCode() == ExceptionCode.CHAT_API_UNAVAILABLE
+                    || customException.getExceptionCode() == ExceptionCode.CHAT_API_RATE_LIMITED;
+        if (throwable instanceof RestClientResponseException restClientResponseException)
+            return restClientResponseException.getStatusCode().is5xxServerError();
+        if (throwable instanceof WebClientResponseException webClientResponseException)
+            return webClientResponseException.getStatusCode().is5xxServerError();
+        return throwable instanceof ResourceAccessException
+                || throwable instanceof WebClientRequestException
+                || throwable instanceof TimeoutException;
+    }
+
+    private void logFallback(CompletionBackend backend, CompletionBackend next, Throwable throwable) {
+        log.warn("{} 백엔드 요청 실패, {} 백엔드로 다시 요청합니다: {}", backend.getName(), next.getName(), throwable.getMessage());
+    }
+
+    @Override
+    public void destroy() {
+        hedgeExecutor.shutdown();
+    }
+}
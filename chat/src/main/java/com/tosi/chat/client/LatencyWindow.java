@@ -0,0 +1,36 @@
+package com.tosi.chat.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 응답 지연 시간을 고정 크기 원형 버퍼에 기록하고 백분위수를 계산합니다.
+ */
+class LatencyWindow {
+    private final AtomicLongArray samples;
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    LatencyWindow(int size) {
+        this.samples = new AtomicLongArray(size);
+    }
+
+    void record(long latencyNanos) {
+        samples.set((int) (sampleCount.getAndIncrement() % samples.length()), latencyNanos);
+    }
+
+    /**
+     * @return 백분위수에 해당하는 지연 시간(ns); 기록된 응답이 minimumSamples보다 적으면 -1
+     */
+    long percentile(double percentile, int minimumSamples) {
+        int size = (int) Math.min(sampleCount.get(), samples.length());
+        if (size == 0 || size < minimumSamples)
+            return -1;
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++)
+            sorted[i] = samples.get(i);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+}
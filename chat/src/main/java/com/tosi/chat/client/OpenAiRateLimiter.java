@@ -0,0 +1,386 @@
+package com.tosi.chat.client;
+
+import com.tosi.chat.common.config.OpenAiRateLimitProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.service.ChatTokenBudgeter;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OpenAI API 키의 분당 요청 수(RPM)와 분당 토큰 수(TPM) 한도를 넘지 않도록 요청 전에 토큰 버킷에서 허용량을 예약합니다.
+ * 토큰 수는 OpenAI와 같은 방식으로 프롬프트 토큰 수 + max_tokens로 추정합니다.
+ * 허용량이 부족하면 채워질 때까지 기다리고, queueTimeout 안에 채워지지 않으면 기다리지 않고 CHAT_API_RATE_LIMITED(429) 예외를 던집니다.
+ * 응답 헤더(x-ratelimit-limit-*, x-ratelimit-remaining-*)를 받을 때마다 한도를 갱신하고 남은 허용량을 실제 남은 양 이하로 줄입니다.
+ * local 모드는 파드마다 한도 / replicas 만큼의 버킷을 사용하고, redis 모드는 모든 파드가 Redis에 저장된 버킷을 Lua 스크립트로 함께 사용합니다.
+ * Redis 명령이 실패하면 local 버킷으로 대신 제한합니다.
+ * OpenAI API 한도는 모델마다 따로 적용되므로 백엔드마다 하나씩 만들어 각자의 버킷을 사용합니다.
+ */
+@Slf4j
+public class OpenAiRateLimiter {
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // 요청 수, 토큰 수 버킷을 Redis 서버 시각 기준으로 채운 후 둘 다 예약하고 기다릴 시간(ms)을 반환; queueTimeout을 넘으면 예약하지 않고 -1
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local amounts = {1, tonumber(ARGV[3])}
+            local available = {}
+            local wait = 0
+            for i = 1, 2 do
+                local capacity = tonumber(ARGV[i])
+                local bucket = redis.call('HMGET', KEYS[i], 'available', 'updated')
+                local value = tonumber(bucket[1]) or capacity
+                local updated = tonumber(bucket[2]) or now
+                value = math.min(capacity, value + math.max(0, now - updated) * capacity / 60000)
+                available[i] = value
+                if value < amounts[i] then
+                    wait = math.max(wait, math.ceil((amounts[i] - value) * 60000 / capacity))
+                end
+            end
+            if wait > tonumber(ARGV[4]) then
+                return -1
+            end
+            for i = 1, 2 do
+                redis.call('HSET', KEYS[i], 'available', tostring(available[i] - amounts[i]), 'updated', now)
+                redis.call('PEXPIRE', KEYS[i], 120000)
+            end
+            return wait
+            """, Long.class);
+    // 요청 수, 토큰 수 버킷의 남은 허용량을 응답 헤더의 남은 양 이하로 줄임; 남은 양이 -1이면 그대로 둠
+    private static final RedisScript<Long> CLAMP_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            for i = 1, 2 do
+                local remaining = tonumber(ARGV[i + 2])
+                if remaining >= 0 then
+                    local capacity = tonumber(ARGV[i])
+                    local bucket = redis.call('HMGET', KEYS[i], 'available', 'updated')
+                    local value = tonumber(bucket[1]) or capacity
+                    local updated = tonumber(bucket[2]) or now
+                    value = math.min(capacity, value + math.max(0, now - updated) * capacity / 60000)
+                    redis.call('HSET', KEYS[i], 'available', tostring(math.min(value, remaining)), 'updated', now)
+                    redis.call('PEXPIRE', KEYS[i], 120000)
+                end
+            end
+            return 0
+            """, Long.class);
+    // 기다리는 중 취소된 요청이 예약한 요청 수, 토큰 수를 버킷에 돌려줌; 버킷 크기를 넘지 않음
+    private static final RedisScript<Long> REFUND_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local amounts = {1, tonumber(ARGV[3])}
+            for i = 1, 2 do
+                local capacity = tonumber(ARGV[i])
+                local bucket = redis.call('HMGET', KEYS[i], 'available', 'updated')
+                local value = tonumber(bucket[1]) or capacity
+                local updated = tonumber(bucket[2]) or now
+                value = math.min(capacity, value + math.max(0, now - updated) * capacity / 60000 + amounts[i])
+                redis.call('HSET', KEYS[i], 'available', tostring(value), 'updated', now)
+                redis.call('PEXPIRE', KEYS[i], 120000)
+            end
+            return 0
+            """, Long.class);
+    private final List<String> bucketKeys;
+    private final OpenAiRateLimitProperties openAiRateLimitProperties;
+    private final int maxTokens;
+    private final ChatTokenBudgeter chatTokenBudgeter;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final LongAdder delayedRequestCount = new LongAdder();
+    private final LongAdder rejectedRequestCount = new LongAdder();
+    private volatile long requestsPerMinute;
+    private volatile long tokensPerMinute;
+
+    public OpenAiRateLimiter(String name,
+                             OpenAiRateLimitProperties openAiRateLimitProperties,
+                             int maxTokens,
+                             ChatTokenBudgeter chatTokenBudgeter,
+                             StringRedisTemplate stringRedisTemplate,
+                             ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+        this.bucketKeys = List.of("openaiRateLimit::" + name + "::requests", "openaiRateLimit::" + name + "::tokens");
+        this.openAiRateLimitProperties = openAiRateLimitProperties;
+        this.maxTokens = maxTokens;
+        this.chatTokenBudgeter = chatTokenBudgeter;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.requestsPerMinute = openAiRateLimitProperties.getRequestsPerMinute();
+        this.tokensPerMinute = openAiRateLimitProperties.getTokensPerMinute();
+        long now = System.nanoTime();
+        this.requestBucket = new TokenBucket(localCapacity(requestsPerMinute), now);
+        this.tokenBucket = new TokenBucket(localCapacity(tokensPerMinute), now);
+    }
+
+    /**
+     * 요청이 TPM 한도에서 차지할 토큰 수를 추정합니다.
+     *
+     * @param multiChatMessageList OpenAI API에 보낼 채팅 메시지 리스트
+     * @return 프롬프트 토큰 수 + max_tokens
+     */
+    public int estimateTokens(List<MultiChatMessage> multiChatMessageList) {
+        if (!openAiRateLimitProperties.isEnabled())
+            return 0;
+        return chatTokenBudgeter.countRequestTokens(multiChatMessageList) + maxTokens;
+    }
+
+    /**
+     * 요청 1개와 추정 토큰 수만큼 허용량을 예약하고, 허용량이 채워질 때까지 현재 스레드에서 기다립니다.
+     * 기다리는 중 interrupt되면 예약한 허용량을 돌려줍니다.
+     *
+     * @param estimatedTokens estimateTokens로 추정한 토큰 수
+     * @throws CustomException queueTimeout 안에 허용량이 채워지지 않으면 예외 처리
+     */
+    public void acquire(int estimatedTokens) {
+        if (!openAiRateLimitProperties.isEnabled())
+            return;
+
+        long waitMillis = -1;
+        boolean reserved = false;
+        if (openAiRateLimitProperties.getMode() == OpenAiRateLimitProperties.Mode.REDIS) {
+            try {
+                Long redisWaitMillis = stringRedisTemplate.execute(RESERVE_SCRIPT, bucketKeys, reserveArgs(estimatedTokens));
+                if (redisWaitMillis != null) {
+                    waitMillis = redisWaitMillis;
+                    reserved = true;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Redis 요청 한도 확인 실패, 로컬 한도로 제한합니다: {}", e.getMessage());
+            }
+        }
+        if (!reserved)
+            waitMillis = reserveLocal(estimatedTokens);
+
+        if (waitMillis <= 0) {
+            checkReserved(waitMillis);
+            return;
+        }
+        delayedRequestCount.increment();
+        try {
+            Thread.sleep(waitMillis);
+        } catch (InterruptedException e) {
+            refund(reserved, estimatedTokens);
+            Thread.currentThread().interrupt();
+            throw new CustomException(ExceptionCode.CHAT_API_RATE_LIMITED);
+        }
+    }
+
+    /**
+     * acquire의 reactive 버전입니다. 기다리는 동안 스레드를 점유하지 않고, 기다리는 중 구독이 취소되면 예약한 허용량을 돌려줍니다.
+     *
+     * @param estimatedTokens estimateTokens로 추정한 토큰 수
+     * @return 허용량이 채워지면 완료되는 Mono; queueTimeout 안에 채워지지 않으면 CustomException으로 종료
+     */
+    public Mono<Void> acquireReactive(int estimatedTokens) {
+        if (!openAiRateLimitProperties.isEnabled())
+            return Mono.empty();
+
+        Mono<Long> localWaitMillis = Mono.fromSupplier(() -> reserveLocal(estimatedTokens));
+        Mono<Long> waitMillis = localWaitMillis;
+        AtomicBoolean redisReserved = new AtomicBoolean();
+        if (openAiRateLimitProperties.getMode() == OpenAiRateLimitProperties.Mode.REDIS) {
+            waitMillis = reactiveStringRedisTemplate.execute(RESERVE_SCRIPT, bucketKeys, List.of(reserveArgs(estimatedTokens)))
+                    .next()
+                    .doOnNext(wait -> redisReserved.set(true))
+                    .onErrorResume(e -> {
+                        log.warn("Redis 요청 한도 확인 실패, 로컬 한도로 제한합니다: {}", e.getMessage());
+                        return localWaitMillis;
+                    })
+                    .switchIfEmpty(localWaitMillis);
+        }
+        return waitMillis.flatMap(wait -> {
+            if (wait <= 0) {
+                checkReserved(wait);
+                return Mono.empty();
+            }
+            delayedRequestCount.increment();
+            return Mono.delay(Duration.ofMillis(wait))
+                    .doOnCancel(() -> refund(redisReserved.get(), estimatedTokens))
+                    .then();
+        });
+    }
+
+    /**
+     * OpenAI API 응답 헤더로 한도를 갱신하고, 남은 허용량을 실제 남은 요청 수, 토큰 수 이하로 줄입니다.
+     * 다른 파드나 다른 서비스가 같은 API 키를 사용해 줄어든 양을 반영합니다.
+     *
+     * @param headers OpenAI API 응답 헤더(오류 응답 포함); null이면 무시
+     */
+    public void update(HttpHeaders headers) {
+        if (!openAiRateLimitProperties.isEnabled() || headers == null)
+            return;
+
+        long limitRequests = parseHeader(headers, "x-ratelimit-limit-requests");
+        long limitTokens = parseHeader(headers, "x-ratelimit-limit-tokens");
+        if (limitRequests > 0 && limitRequests != requestsPerMinute) {
+            log.info("OpenAI API 요청 수 한도 변경: {} -> {}", requestsPerMinute, limitRequests);
+            requestsPerMinute = limitRequests;
+        }
+        if (limitTokens > 0 && limitTokens != tokensPerMinute) {
+            log.info("OpenAI API 토큰 수 한도 변경: {} -> {}", tokensPerMinute, limitTokens);
+            tokensPerMinute = limitTokens;
+        }
+
+        long remainingRequests = parseHeader(headers, "x-ratelimit-remaining-requests");
+        long remainingTokens = parseHeader(headers, "x-ratelimit-remaining-tokens");
+        if (remainingRequests < 0 && remainingTokens < 0)
+            return;
+        if (openAiRateLimitProperties.getMode() == OpenAiRateLimitProperties.Mode.REDIS) {
+            // 응답 처리 스레드를 막지 않도록 결과를 기다리지 않음
+            reactiveStringRedisTemplate.execute(CLAMP_SCRIPT, bucketKeys,
+                            List.of(String.valueOf(requestsPerMinute), String.valueOf(tokensPerMinute),
+                                    String.valueOf(remainingRequests), String.valueOf(remainingTokens)))
+                    .subscribe(result -> {
+                    }, e -> log.warn("Redis 요청 한도 갱신 실패: {}", e.getMessage()));
+        }
+        clampLocal(remainingRequests, remainingTokens);
+    }
+
+    /**
+     * 허용량이 부족해 기다린 요청 수를 반환합니다.
+     */
+    public long getDelayedRequestCount() {
+        return delayedRequestCount.sum();
+    }
+
+    /**
+     * queueTimeout 안에 허용량이 채워지지 않아 거절한 요청 수를 반환합니다.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.sum();
+    }
+
+    private void checkReserved(long waitMillis) {
+        if (waitMillis < 0) {
+            rejectedRequestCount.increment();
+            throw new CustomException(ExceptionCode.CHAT_API_RATE_LIMITED);
+        }
+    }
+
+    /**
+     * 예약한 요청 1개와 토큰을 예약한 버킷에 돌려줍니다.
+     *
+     * @param redisReserved Redis 버킷에서 예약했는지 여부; false면 local 버킷에서 예약
+     */
+    private void refund(boolean redisReserved, int estimatedTokens) {
+        if (!redisReserved) {
+            refundLocal(estimatedTokens);
+            return;
+        }
+        // 요청 스레드를 막지 않도록 결과를 기다리지 않음
+        reactiveStringRedisTemplate.execute(REFUND_SCRIPT, bucketKeys, List.of(reserveArgs(estimatedTokens)))
+                .subscribe(result -> {
+                }, e -> log.warn("Redis 요청 한도 반환 실패: {}", e.getMessage()));
+    }
+
+    private Object[] reserveArgs(int estimatedTokens) {
+        return new Object[]{String.valueOf(requestsPerMinute), String.valueOf(tokensPerMinute),
+                String.valueOf(estimatedTokens), String.valueOf(openAiRateLimitProperties.getQueueTimeout().toMillis())};
+    }
+
+    /**
+     * 로컬 버킷에서 요청 1개와 토큰을 예약합니다. 허용량이 부족해도 예약하여 남은 양이 음수가 될 수 있으며, 이후 요청은 그만큼 더 기다립니다.
+     *
+     * @return 기다릴 시간(ms); queueTimeout을 넘으면 예약하지 않고 -1
+     */
+    private synchronized long reserveLocal(int estimatedTokens) {
+        long now = System.nanoTime();
+        double requestCapacity = localCapacity(requestsPerMinute);
+        double tokenCapacity = localCapacity(tokensPerMinute);
+        requestBucket.refill(now, requestCapacity);
+        tokenBucket.refill(now, tokenCapacity);
+        long waitNanos = Math.max(requestBucket.waitNanos(1, requestCapacity), tokenBucket.waitNanos(estimatedTokens, tokenCapacity));
+        if (waitNanos > openAiRateLimitProperties.getQueueTimeout().toNanos())
+            return -1;
+        requestBucket.take(1);
+        tokenBucket.take(estimatedTokens);
+        return (waitNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private synchronized void refundLocal(int estimatedTokens) {
+        long now = System.nanoTime();
+        double requestCapacity = localCapacity(requestsPerMinute);
+        double tokenCapacity = localCapacity(tokensPerMinute);
+        requestBucket.refill(now, requestCapacity);
+        tokenBucket.refill(now, tokenCapacity);
+        requestBucket.give(1, requestCapacity);
+        tokenBucket.give(estimatedTokens, tokenCapacity);
+    }
+
+    private synchronized void clampLocal(long remainingRequests, long remainingTokens) {
+        long now = System.nanoTime();
+        requestBucket.refill(now, localCapacity(requestsPerMinute));
+        tokenBucket.refill(now, localCapacity(tokensPerMinute));
+        if (remainingRequests >= 0)
+            requestBucket.clamp(localCapacity(remainingRequests));
+        if (remainingTokens >= 0)
+            tokenBucket.clamp(localCapacity(remainingTokens));
+    }
+
+    /**
+     * API 키 전체의 양을 local 버킷에서 사용할 양으로 나눕니다.
+     * redis 모드에서는 Redis 장애 시에만 local 버킷을 사용하므로 같은 기준으로 나눠 한도를 넘지 않게 합니다.
+     */
+    private double localCapacity(long amount) {
+        return (double) amount / Math.max(1, openAiRateLimitProperties.getReplicas());
+    }
+
+    private long parseHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null)
+            return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 1분 동안 capacity만큼 일정한 속도로 채워지는 토큰 버킷
+     */
+    private static class TokenBucket {
+        private double available;
+        private long refilledAt;
+
+        private TokenBucket(double capacity, long now) {
+            this.available = capacity;
+            this.refilledAt = now;
+        }
+
+        private void refill(long now, double capacity) {
+            available = Math.min(capacity, available + (now - refilledAt) * capacity / WINDOW_NANOS);
+            refilledAt = now;
+        }
+
+        private long waitNanos(double amount, double capacity) {
+            if (available >= amount)
+                return 0;
+            return (long) Math.ceil((amount - available) * WINDOW_NANOS / capacity);
+        }
+
+        private void take(double amount) {
+            available -= amount;
+        }
+
+        private void give(double amount, double capacity) {
+            available = Math.min(capacity, available + amount);
+        }
+
+        private void clamp(double remaining) {
+            available = Math.min(available, remaining);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.tosi.chat.client;
+
+import com.tosi.chat.common.config.OpenAiResilienceProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * OpenAI API 호출을 벌크헤드 -> 서킷 브레이커 -> 재시도 순서로 감싸고, 스트리밍이 아닌 요청은 헤지 요청을 보낼 수 있습니다.
+ * 재시도는 응답 본문을 받기 전에 실패한 요청(429, 5xx 응답, 연결 실패)만 다시 보내므로
+ * 스트리밍 요청에서 토큰 조각을 전달하기 시작한 후 끊긴 응답은 다시 요청하지 않습니다.
+ * 재시도 대기 시간은 Retry-After(retry-after-ms) 헤더가 있으면 그 값을 따르고, 없으면 재시도마다 2배로 늘어나는 상한 안에서 무작위로 정합니다.
+ * 서킷 브레이커가 열려 있거나 벌크헤드에 자리가 없으면 OpenAI API를 호출하지 않고 CHAT_API_UNAVAILABLE 예외를 던집니다.
+ * 재시도 후에도 429로 응답하면 CHAT_API_RATE_LIMITED 예외를 던집니다.
+ * 백엔드마다 하나씩 만들어 한 백엔드의 장애가 다른 백엔드의 서킷 브레이커, 벌크헤드에 영향을 주지 않게 합니다.
+ */
+@Slf4j
+public class OpenAiResilience {
+    private static final String RETRY_AFTER_MS = "retry-after-ms";
+    private static final int HEDGE_PENDING = 0;
+    private static final int HEDGE_STARTED = 1;
+    private static final int HEDGE_SKIPPED = 2;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final OpenAiResilienceProperties.Retry retryProperties;
+    private final OpenAiResilienceProperties.Hedge hedgeProperties;
+    private final Executor hedgeExecutor;
+    private final LatencyWindow latencyWindow;
+    private final LongAdder hedgedRequestCount = new LongAdder();
+
+    public OpenAiResilience(String name,
+                            OpenAiResilienceProperties openAiResilienceProperties,
+                            Executor hedgeExecutor) {
+        OpenAiResilienceProperties.Bulkhead bulkheadProperties = openAiResilienceProperties.getBulkhead();
+        OpenAiResilienceProperties.CircuitBreaker circuitBreakerProperties = openAiResilienceProperties.getCircuitBreaker();
+        this.retryProperties = openAiResilienceProperties.getRetry();
+        this.hedgeProperties = openAiResilienceProperties.getHedge();
+        this.hedgeExecutor = hedgeExecutor;
+        this.latencyWindow = new LatencyWindow(hedgeProperties.getWindowSize());
+
+        this.bulkhead = Bulkhead.of(name, BulkheadConfig.custom()
+                .maxConcurrentCalls(bulkheadProperties.getMaxConcurrentCalls())
+                .maxWaitDuration(bulkheadProperties.getMaxWait())
+                .build());
+        this.circuitBreaker = CircuitBreaker.of(name, CircuitBreakerConfig.custom()
+                .failureRateThreshold(circuitBreakerProperties.getFailureRateThreshold())
+                .slidingWindowSize(circuitBreakerProperties.getSlidingWindowSize())
+                .minimumNumberOfCalls(circuitBreakerProperties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(circuitBreakerProperties.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(circuitBreakerProperties.getPermittedNumberOfCallsInHalfOpenState())
+                .recordException(this::isFailure)
+                .build());
+        this.retry = Retry.of(name, RetryConfig.custom()
+                .maxAttempts(retryProperties.getMaxAttempts())
+                .retryOnException(this::isRetryable)
+                .intervalBiFunction((attempt, result) -> backoffMillis(attempt, result.isLeft() ? result.getLeft() : null))
+                .build());
+        this.circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> log.warn("{} 백엔드 서킷 브레이커 상태 변경: {}", name, event.getStateTransition()));
+    }
+
+    /**
+     * OpenAI API 호출을 벌크헤드, 서킷 브레이커, 재시도로 감싸 실행합니다.
+     *
+     * @param call OpenAI API를 호출하는 Supplier
+     * @return 호출 결과
+     * @throws CustomException 서킷 브레이커가 열려 있거나 벌크헤드에 자리가 없거나 요청 한도를 넘으면 예외 처리
+     */
+    public <T> T execute(Supplier<T> call) {
+        Supplier<T> guardedCall = Retry.decorateSupplier(retry,
+                CircuitBreaker.decorateSupplier(circuitBreaker,
+                        Bulkhead.decorateSupplier(bulkhead, call)));
+        try {
+            return guardedCall.get();
+        } catch (RuntimeException e) {
+            throw translate(e);
+        }
+    }
+
+    /**
+     * execute와 같지만, 헤지 요청을 사용하면 최근 응답 지연 시간의 백분위수만큼 기다려도 응답이 없을 때 같은 요청을 한 번 더 보내고 먼저 성공한 응답을 반환합니다.
+     * 첫 요청은 현재 스레드에서 실행하고, 헤지 요청만 크기가 제한된 헤지 전용 스레드 풀에서 실행합니다. 풀에 자리가 없으면 헤지 요청을 보내지 않습니다.
+     * 한 요청이 먼저 성공하면 다른 요청의 스레드를 interrupt하여 중단합니다(JDK HttpClient는 바로 중단되고, 중단할 수 없는 클라이언트는 응답을 받은 후 버림).
+     * 스트리밍 요청은 사용자에게 이미 전달한 토큰 조각을 되돌릴 수 없으므로 사용하지 않습니다.
+     *
+     * @param call OpenAI API를 호출하는 Supplier
+     * @return 먼저 성공한 호출 결과
+     * @throws CustomException 서킷 브레이커가 열려 있거나 벌크헤드에 자리가 없거나 요청 한도를 넘으면 예외 처리
+     */
+    public <T> T executeHedged(Supplier<T> call) {
+        if (!hedgeProperties.isEnabled())
+            return execute(call);
+
+        Supplier<T> timedCall = () -> {
+            long startTime = System.nanoTime();
+            T result = call.get();
+            latencyWindow.record(System.nanoTime() - startTime);
+            return result;
+        };
+        Duration hedgeDelay = hedgeDelay();
+        if (hedgeDelay == null)
+            return execute(timedCall);
+
+        FutureTask<T> primary = new FutureTask<>(() -> execute(timedCall));
+        FutureTask<T> hedge = new FutureTask<>(() -> {
+            T result = execute(timedCall);
+            primary.cancel(true);
+            return result;
+        });
+        AtomicInteger hedgeState = new AtomicInteger(HEDGE_PENDING);
+        // 지연 시간 기준이 지날 때까지 첫 요청이 끝나지 않았으면 헤지 요청을 보냄
+        CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS, Runnable::run).execute(() -> {
+            if (!hedgeState.compareAndSet(HEDGE_PENDING, HEDGE_STARTED))
+                return;
+            try {
+                hedgeExecutor.execute(hedge);
+                hedgedRequestCount.increment();
+            } catch (RejectedExecutionException e) {
+                hedge.cancel(false);
+            }
+        });
+
+        primary.run();
+        if (primary.isCancelled())
+            Thread.interrupted(); // 헤지 요청이 첫 요청을 중단하며 남긴 interrupt 상태를 지움
+        boolean hedgeStarted = !hedgeState.compareAndSet(HEDGE_PENDING, HEDGE_SKIPPED);
+        try {
+            T result = primary.get();
+            if (hedgeStarted)
+                hedge.cancel(true);
+            return result;
+        } catch (CancellationException e) {
+            // 헤지 요청이 먼저 성공
+            return join(hedge);
+        } catch (ExecutionException e) {
+            if (!hedgeStarted)
+                throw unwrap(e.getCause());
+            try {
+                return join(hedge);
+            } catch (CancellationException ce) {
+                // 헤지 전용 스레드 풀에 자리가 없어 헤지 요청을 보내지 못함
+                throw unwrap(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * execute의 reactive 버전입니다. 재시도는 Mono를 다시 구독하여 요청을 다시 보냅니다.
+     *
+     * @param call OpenAI API를 호출하는 Mono
+     * @return 벌크헤드, 서킷 브레이커, 재시도를 적용한 Mono
+     */
+    public <T> Mono<T> executeReactive(Mono<T> call) {
+        return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry))
+                .onErrorMap(RuntimeException.class, this::translate);
+    }
+
+    /**
+     * 스트리밍 요청용 execute의 reactive 버전입니다. 스트림이 끝날 때까지 벌크헤드 자리를 차지합니다.
+     *
+     * @param call OpenAI API를 호출하는 Flux
+     * @return 벌크헤드, 서킷 브레이커, 재시도를 적용한 Flux
+     */
+    public <T> Flux<T> executeReactive(Flux<T> call) {
+        return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry))
+                .onErrorMap(RuntimeException.class, this::translate);
+    }
+
+    /**
+     * executeHedged의 reactive 버전입니다. 먼저 성공한 응답을 받으면 다른 요청의 구독을 취소하여 연결을 끊습니다.
+     *
+     * @param call OpenAI API를 호출하는 Mono
+     * @return 먼저 성공한 응답을 발행하는 Mono
+     */
+    public <T> Mono<T> executeHedgedReactive(Mono<T> call) {
+        if (!hedgeProperties.isEnabled())
+            return executeReactive(call);
+
+        Mono<T> timedCall = Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return call.doOnSuccess(result -> latencyWindow.record(System.nanoTime() - startTime));
+        });
+        return Mono.defer(() -> {
+            Duration hedgeDelay = hedgeDelay();
+            if (hedgeDelay == null)
+                return executeReactive(timedCall);
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.One<Throwable> primaryFailed = Sinks.one();
+            Mono<T> primary = executeReactive(timedCall)
+                    .doOnError(e -> {
+                        primaryError.set(e);
+                        primaryFailed.tryEmitValue(e);
+                    });
+            // 첫 요청이 지연 시간 기준 전에 실패하면 헤지 요청을 보내지 않음
+            Mono<T> hedge = Mono.delay(hedgeDelay)
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> {
+                        hedgedRequestCount.increment();
+                        return executeReactive(timedCall);
+                    });
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class, e -> primaryError.get() != null ? primaryError.get() : e);
+        });
+    }
+
+    /**
+     * 헤지 요청을 보낸 횟수를 반환합니다.
+     */
+    public long getHedgedRequestCount() {
+        return hedgedRequestCount.sum();
+    }
+
+    /**
+     * 벌크헤드 자리를 차지하고 있는(응답을 기다리거나 스트리밍 중인) 요청 수를 반환합니다.
+     */
+    public int getConcurrentCallCount() {
+        return bulkhead.getBulkheadConfig().getMaxConcurrentCalls() - bulkhead.getMetrics().getAvailableConcurrentCalls();
+    }
+
+    /**
+     * 서킷 브레이커 상태(CLOSED, OPEN, HALF_OPEN 등)를 반환합니다.
+     */
+    public String getCircuitBreakerState() {
+        return circuitBreaker.getState().name();
+    }
+
+    /**
+     * 서킷 브레이커가 요청을 차단하고 있는지 확인합니다.
+     */
+    public boolean isCircuitOpen() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * 재시도 후 성공하거나 실패한 호출 수를 반환합니다.
+     */
+    public long getRetriedCallCount() {
+        Retry.Metrics metrics = retry.getMetrics();
+        return metrics.getNumberOfSuccessfulCallsWithRetryAttempt() + metrics.getNumberOfFailedCallsWithRetryAttempt();
+    }
+
+    /**
+     * 서킷 브레이커가 실패로 기록할 예외인지 확인합니다.
+     * 5xx 응답, 연결 실패, 타임아웃만 OpenAI API 장애로 보고, 4xx 응답(429 포함)이나 클라이언트 연결 끊김,
+     * 다른 헤지 요청이 먼저 성공하여 중단된(interrupt된) 요청은 기록하지 않습니다.
+     */
+    private boolean isFailure(Throwable throwable) {
+        if (Thread.currentThread().isInterrupted())
+            return false;
+        HttpStatusCode statusCode = statusCode(throwable);
+        if (statusCode != null)
+            return statusCode.is5xxServerError();
+        return throwable instanceof ResourceAccessException || throwable instanceof WebClientRequestException
+                || throwable instanceof TimeoutException;
+    }
+
+    /**
+     * 다시 요청할 예외인지 확인합니다.
+     * 429(Retry-After가 maxRetryAfter 이하인 경우), 5xx 응답과 연결 실패만 다시 요청합니다.
+     * 응답 도중 끊긴 경우는 이미 토큰 조각을 전달했을 수 있어 다시 요청하지 않습니다.
+     */
+    private boolean isRetryable(Throwable throwable) {
+        if (Thread.currentThread().isInterrupted())
+            return false;
+        HttpStatusCode statusCode = statusCode(throwable);
+        if (statusCode != null) {
+            if (statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                Duration retryAfter = retryAfter(throwable);
+                return retryAfter == null || retryAfter.compareTo(retryProperties.getMaxRetryAfter()) <= 0;
+            }
+            return statusCode.is5xxServerError();
+        }
+        return isConnectFailure(throwable);
+    }
+
+    /**
+     * 다음 재시도까지 기다릴 시간을 계산합니다.
+     * Retry-After가 있으면 그 값을, 없으면 0 ~ min(maxBackoff, initialBackoff * 2^(attempt - 1)) 사이의 무작위 값을 사용합니다(full jitter).
+     */
+    private long backoffMillis(int attempt, Throwable throwable) {
+        Duration retryAfter = throwable == null ? null : retryAfter(throwable);
+        if (retryAfter != null)
+            return Math.max(0, retryAfter.toMillis());
+        long ceiling = retryProperties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        ceiling = Math.min(ceiling, retryProperties.getMaxBackoff().toMillis());
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 응답 헤더의 retry-after-ms(밀리초) 또는 Retry-After(초, HTTP 날짜)를 읽습니다.
+     *
+     * @return 기다려야 하는 시간; 헤더가 없거나 읽을 수 없으면 null
+     */
+    private Duration retryAfter(Throwable throwable) {
+        HttpHeaders headers = null;
+        if (throwable instanceof RestClientResponseException responseException)
+            headers = responseException.getResponseHeaders();
+        else if (throwable instanceof WebClientResponseException responseException)
+            headers = responseException.getHeaders();
+        if (headers == null)
+            return null;
+
+        try {
+            String retryAfterMillis = headers.getFirst(RETRY_AFTER_MS);
+            if (retryAfterMillis != null)
+                return Duration.ofMillis((long) Double.parseDouble(retryAfterMillis.trim()));
+            String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter == null)
+                return null;
+            retryAfter = retryAfter.trim();
+            if (!retryAfter.isEmpty() && Character.isDigit(retryAfter.charAt(0)))
+                return Duration.ofSeconds(Long.parseLong(retryAfter));
+            return Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private HttpStatusCode statusCode(Throwable throwable) {
+        if (throwable instanceof RestClientResponseException responseException)
+            return responseException.getStatusCode();
+        if (throwable instanceof WebClientResponseException responseException)
+            return responseException.getStatusCode();
+        return null;
+    }
+
+    /**
+     * 요청을 보내기 전 연결 단계에서 실패했는지 원인 예외를 따라가며 확인합니다.
+     */
+    private boolean isConnectFailure(Throwable throwable) {
+        if (!(throwable instanceof ResourceAccessException || throwable instanceof WebClientRequestException))
+            return false;
+        for (Throwable cause = throwable.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof org.apache.hc.client5.http.ConnectTimeoutException)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * 서킷 브레이커, 벌크헤드의 거절과 재시도 후에도 남은 429 응답을 클라이언트에 돌려줄 CustomException으로 바꿉니다.
+     */
+    private RuntimeException translate(RuntimeException exception) {
+        if (exception instanceof CallNotPermittedException || exception instanceof BulkheadFullException)
+            return new CustomException(ExceptionCode.CHAT_API_UNAVAILABLE);
+        HttpStatusCode statusCode = statusCode(exception);
+        if (statusCode != null && statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value())
+            return new CustomException(ExceptionCode.CHAT_API_RATE_LIMITED);
+        return exception;
+    }
+
+    /**
+     * 헤지 요청을 보내기까지 기다릴 시간을 계산합니다.
+     *
+     * @return 최근 응답 지연 시간의 백분위수와 minDelay 중 긴 시간; 최근 응답이 부족하면 null
+     */
+    private Duration hedgeDelay() {
+        long percentileNanos = latencyWindow.percentile(hedgeProperties.getPercentile(), hedgeProperties.getMinimumNumberOfCalls());
+        if (percentileNanos < 0)
+            return null;
+        return Duration.ofNanos(Math.max(percentileNanos, hedgeProperties.getMinDelay().toNanos()));
+    }
+
+    private <T> T join(FutureTask<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RuntimeException unwrap(Throwable throwable) {
+        while (throwable instanceof CompletionException && throwable.getCause() != null)
+            throwable = throwable.getCause();
+        if (throwable instanceof RuntimeException runtimeException)
+            return runtimeException;
+        return new IllegalStateException(throwable);
+    }
+}
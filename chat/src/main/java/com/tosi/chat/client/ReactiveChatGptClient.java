@@ -0,0 +1,200 @@
+package com.tosi.chat.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.dto.ChatCompletionResponseDto;
+import com.tosi.chat.dto.ChatStreamChunkDto;
+import com.tosi.chat.dto.ChatUsageDto;
+import com.tosi.chat.dto.MultiChatStreamRequest;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * WebClient로 OpenAI API를 호출하는 reactive 채팅 엔진용 클라이언트
+ */
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+public class ReactiveChatGptClient {
+    private static final String SSE_DONE = "[DONE]";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE = new ParameterizedTypeReference<>() {
+    };
+    private final CompletionRouter completionRouter;
+    @Qualifier("openAiWebClient")
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final ChatUsageRecorder chatUsageRecorder;
+
+    /**
+     * OpenAI API에 채팅 메시지 리스트를 보내고 완성된 응답 메시지를 반환합니다.
+     * CompletionRouter가 요청 등급에 맞는 백엔드를 고르고, 백엔드가 장애 중이면 다음 백엔드로 다시 요청합니다.
+     * 실패한 요청은 백엔드의 OpenAiResilience가 다시 보내고, 헤지 요청을 사용하면 응답이 늦을 때 같은 요청을 한 번 더 보냅니다.
+     * 요청마다 백엔드의 OpenAiRateLimiter에서 요청 수, 토큰 수 허용량을 예약하며, 기다리는 동안 스레드를 점유하지 않습니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @return OpenAI API가 생성한 응답 메시지를 발행하는 Mono
+     */
+    public Mono<String> requestChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier) {
+        return requestChat(multiChatMessageList, tier, usage -> {
+        });
+    }
+
+    /**
+     * requestChat과 같지만, 이번 요청에서 받은 usage를 모두 usageConsumer에도 넘깁니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param usageConsumer        응답의 usage를 전달받을 Consumer
+     * @return OpenAI API가 생성한 응답 메시지를 발행하는 Mono
+     */
+    public Mono<String> requestChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier, Consumer<ChatUsageDto> usageConsumer) {
+        return completionRouter.executeReactive(tier, backend -> requestChat(backend, multiChatMessageList, usageConsumer));
+    }
+
+    /**
+     * OpenAI API에 stream 모드로 요청을 보내고, SSE로 도착하는 토큰 조각을 순서대로 발행합니다.
+     * 구독을 취소하면 OpenAI API 연결도 끊어 더 이상 토큰을 생성하지 않습니다.
+     * 다음 이벤트가 백엔드의 streamIdleTimeout 안에 도착하지 않으면 연결을 끊고 백엔드 장애(TimeoutException)로 처리합니다.
+     * 응답을 받기 전에 실패한 요청만 다시 보내거나 다음 백엔드로 보내고, 토큰 조각을 받기 시작한 후 끊긴 스트림은 다시 요청하지 않습니다.
+     * 요청마다 백엔드의 OpenAiRateLimiter에서 요청 수, 토큰 수 허용량을 예약합니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @return 토큰 조각을 발행하는 Flux
+     */
+    public Flux<String> streamChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier) {
+        return streamChat(multiChatMessageList, tier, usage -> {
+        });
+    }
+
+    /**
+     * streamChat과 같지만, 마지막 청크로 받은 usage를 usageConsumer에도 넘깁니다.
+     *
+     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
+     * @param tier                 요청 등급
+     * @param usageConsumer        응답의 usage를 전달받을 Consumer
+     * @return 토큰 조각을 발행하는 Flux
+     */
+    public Flux<String> streamChat(List<MultiChatMessage> multiChatMessageList, ChatGptProperties.Tier tier, Consumer<ChatUsageDto> usageConsumer) {
+        return completionRouter.executeStreamReactive(tier, backend -> streamChat(backend, multiChatMessageList, usageConsumer));
+    }
+
+    /**
+     * 백엔드 하나에 요청을 보내고, 응답을 받기까지 걸린 시간을 백엔드에 기록합니다.
+     * 요청 한도는 헤지에 들어가기 전에 예약하며, 기다린 시간은 헤지 지연 시간과 응답 시간에 포함되지 않습니다.
+     */
+    private Mono<String> requestChat(CompletionBackend backend, List<MultiChatMessage> multiChatMessageList, Consumer<ChatUsageDto> usageConsumer) {
+        MultiChatRequest multiChatRequest = new MultiChatRequest(
+                backend.getModel(),
+                multiChatMessageList,
+                backend.getMaxTokens(),
+                backend.getTemperature(),
+                backend.getTopP()
+        );
+        OpenAiRateLimiter openAiRateLimiter = backend.getOpenAiRateLimiter();
+        int estimatedTokens = openAiRateLimiter.estimateTokens(multiChatMessageList);
+
+        return openAiRateLimiter.acquireReactive(estimatedTokens).then(Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return backend.getOpenAiResilience().executeHedgedReactive(webClient.post()
+                            .uri(backend.getApiUrl())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + backend.getApiKey())
+                            .bodyValue(multiChatRequest)
+                            .retrieve()
+                            .toEntity(ChatCompletionResponseDto.class)
+                            .doOnError(WebClientResponseException.class, e -> openAiRateLimiter.update(e.getHeaders()))
+                            .doOnNext(responseEntity -> openAiRateLimiter.update(responseEntity.getHeaders()))
+                            .mapNotNull(ResponseEntity::getBody)
+                            .switchIfEmpty(Mono.error(() -> new CustomException(ExceptionCode.CHAT_API_UNAVAILABLE)))
+                            .doOnNext(chatCompletionResponseDto -> recordUsage(chatCompletionResponseDto.getUsage(), usageConsumer)))
+                    .doOnSuccess(chatCompletionResponseDto -> {
+                        long responseNanos = System.nanoTime() - startTime;
+                        backend.recordLatency(responseNanos);
+                        backend.recordResponseTime(responseNanos, false);
+                    })
+                    .mapNotNull(ChatCompletionResponseDto::getContent);
+        }));
+    }
+
+    /**
+     * 백엔드 하나에 stream 모드로 요청을 보내고, 첫 토큰 조각과 전체 응답을 받기까지 걸린 시간을 백엔드에 기록합니다.
+     * 요청 한도는 동시 요청 수 제한에 들어가기 전에 예약하며, 기다린 시간은 응답 시간에 포함되지 않습니다.
+     */
+    private Flux<String> streamChat(CompletionBackend backend, List<MultiChatMessage> multiChatMessageList, Consumer<ChatUsageDto> usageConsumer) {
+        MultiChatStreamRequest multiChatStreamRequest = new MultiChatStreamRequest(
+                backend.getModel(),
+                multiChatMessageList,
+                backend.getMaxTokens(),
+                backend.getTemperature(),
+                backend.getTopP()
+        );
+        OpenAiRateLimiter openAiRateLimiter = backend.getOpenAiRateLimiter();
+        int estimatedTokens = openAiRateLimiter.estimateTokens(multiChatMessageList);
+
+        return openAiRateLimiter.acquireReactive(estimatedTokens).thenMany(Flux.defer(() -> {
+            long startTime = System.nanoTime();
+            AtomicBoolean latencyRecorded = new AtomicBoolean();
+            return backend.getOpenAiResilience().executeReactive(webClient.post()
+                            .uri(backend.getApiUrl())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + backend.getApiKey())
+                            .bodyValue(multiChatStreamRequest)
+                            .retrieve()
+                            .toEntityFlux(SSE_TYPE)
+                            .doOnError(WebClientResponseException.class, e -> openAiRateLimiter.update(e.getHeaders()))
+                            .flatMapMany(responseEntity -> {
+                                openAiRateLimiter.update(responseEntity.getHeaders());
+                                // 다음 이벤트가 streamIdleTimeout 안에 오지 않으면 TimeoutException으로 연결을 끊고 백엔드 장애로 기록
+                                return responseEntity.getBody().timeout(backend.getStreamIdleTimeout());
+                            }))
+                    .mapNotNull(ServerSentEvent::data)
+                    .takeWhile(data -> !SSE_DONE.equals(data))
+                    .<String>handle((data, sink) -> {
+                        try {
+                            ChatStreamChunkDto chatStreamChunkDto = objectMapper.readValue(data, ChatStreamChunkDto.class);
+                            recordUsage(chatStreamChunkDto.getUsage(), usageConsumer);
+                            String delta = chatStreamChunkDto.getDeltaContent();
+                            if (delta != null && !delta.isEmpty())
+                                sink.next(delta);
+                        } catch (JsonProcessingException e) {
+                            sink.error(e);
+                        }
+                    })
+                    .doOnNext(delta -> {
+                        if (latencyRecorded.compareAndSet(false, true))
+                            backend.recordLatency(System.nanoTime() - startTime);
+                    })
+                    .doOnComplete(() -> backend.recordResponseTime(System.nanoTime() - startTime, true));
+        }));
+    }
+
+    private void recordUsage(ChatUsageDto chatUsageDto, Consumer<ChatUsageDto> usageConsumer) {
+        if (chatUsageDto == null)
+            return;
+        chatUsageRecorder.record(chatUsageDto);
+        usageConsumer.accept(chatUsageDto);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tosi.chat.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 스트리밍 응답 본문을 읽는 동안 다음 줄이 idleTimeout 안에 도착하는지, 응답을 받을 클라이언트가 아직 남아 있는지 주기적으로 확인합니다.
+ * 둘 중 하나라도 어긋나면 본문 스트림을 닫아 요청을 취소하고, readLine에서 기다리던 스레드를 깨웁니다.
+ * HTTP 클라이언트에 따라 스트림을 닫을 때 남은 본문을 읽으려 할 수 있으므로 확인 스레드가 아닌 별도 가상 스레드에서 닫습니다.
+ */
+class StreamWatchdog implements AutoCloseable {
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1); // 확인 주기의 최댓값
+    private final InputStream body;
+    private final long idleTimeoutNanos;
+    private final BooleanSupplier cancelled;
+    private final ScheduledFuture<?> check;
+    private volatile long lastReadAt = System.nanoTime();
+    private volatile Reason abortedBy;
+
+    /**
+     * @param scheduler   확인 작업을 실행할 ScheduledExecutorService
+     * @param body        스트리밍 응답 본문
+     * @param idleTimeout 다음 줄을 받을 때까지 기다리는 최대 시간
+     * @param cancelled   응답을 받을 클라이언트가 없어졌는지(SSE 응답 종료, 타임아웃) 확인하는 BooleanSupplier
+     */
+    StreamWatchdog(ScheduledExecutorService scheduler, InputStream body, Duration idleTimeout, BooleanSupplier cancelled) {
+        this.body = body;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.cancelled = cancelled;
+        long periodNanos = Math.min(CHECK_INTERVAL_NANOS, Math.max(idleTimeoutNanos / 2, TimeUnit.MILLISECONDS.toNanos(10)));
+        this.check = scheduler.scheduleWithFixedDelay(this::check, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 본문에서 한 줄을 받았음을 기록합니다.
+     */
+    void touch() {
+        lastReadAt = System.nanoTime();
+    }
+
+    /**
+     * 스트림을 닫아 중단했다면 이유에 맞는 예외를 던집니다.
+     *
+     * @throws SocketTimeoutException 다음 줄이 idleTimeout 안에 오지 않아 중단한 경우; RestTemplate이 ResourceAccessException으로 감싸 백엔드 장애로 처리
+     * @throws CancellationException  응답을 받을 클라이언트가 없어 중단한 경우; 백엔드 장애로 보지 않음
+     */
+    void throwIfAborted() throws SocketTimeoutException {
+        if (abortedBy == Reason.IDLE)
+            throw new SocketTimeoutException("스트리밍 응답이 " + TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) + "ms 동안 도착하지 않았습니다.");
+        if (abortedBy == Reason.CANCELLED)
+            throw new CancellationException("SSE 응답이 끝나 스트리밍 응답 수신을 중단했습니다.");
+    }
+
+    @Override
+    public void close() {
+        check.cancel(false);
+    }
+
+    private void check() {
+        if (abortedBy != null)
+            return;
+        Reason reason = cancelled.getAsBoolean() ? Reason.CANCELLED
+                : System.nanoTime() - lastReadAt > idleTimeoutNanos ? Reason.IDLE : null;
+        if (reason == null)
+            return;
+        abortedBy = reason;
+        Thread.ofVirtual().name("openai-stream-abort").start(() -> {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // 이미 끊긴 스트림
+            }
+        });
+    }
+
+    private enum Reason {
+        IDLE, CANCELLED
+    }
+}
@@ -0,0 +1,82 @@
+package com.tosi.chat.common.admission;
+
+import com.tosi.chat.common.config.ChatAdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 파드 전체에서 동시에 처리 중인 채팅 요청 수를 최근 응답 시간에 맞춰 조절하는 AIMD 한도입니다.
+ * 요청이 latencyThreshold 안에 성공하면 한도를 조금씩(1 / 한도) 늘리고, 늦거나 5xx로 끝나면 backoffRatio를 곱해 줄입니다.
+ * 한도를 줄이기 전에 시작한 요청이 늦게 끝나도 다시 줄이지 않아, 한꺼번에 끝난 느린 요청들이 한도를 최솟값까지 떨어뜨리지 않습니다.
+ * 동시에 처리 중인 요청이 한도의 절반보다 적을 때는 한도가 실제로 쓰이지 않은 것이므로 늘리지 않습니다.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private double limit;
+    private long lastDecreasedAt;
+
+    public AdaptiveConcurrencyLimiter(ChatAdmissionProperties.Concurrency concurrency) {
+        this.minLimit = concurrency.getMinLimit();
+        this.maxLimit = concurrency.getMaxLimit();
+        this.latencyThresholdNanos = concurrency.getLatencyThreshold().toNanos();
+        this.backoffRatio = concurrency.getBackoffRatio();
+        this.limit = Math.clamp(concurrency.getInitialLimit(), minLimit, maxLimit);
+        this.lastDecreasedAt = System.nanoTime();
+    }
+
+    /**
+     * 한도 안이면 요청 하나를 처리 중으로 기록합니다.
+     *
+     * @return 처리할 수 있으면 요청 시작 시각(System.nanoTime); 한도가 가득 찼으면 -1
+     */
+    public long tryAcquire() {
+        int currentLimit = getLimit();
+        while (true) {
+            int current = inflight.get();
+            if (current >= currentLimit)
+                return -1;
+            if (inflight.compareAndSet(current, current + 1))
+                return System.nanoTime();
+        }
+    }
+
+    /**
+     * 요청이 끝나면 처리 중인 요청에서 빼고, 응답 시간과 결과로 한도를 조절합니다.
+     *
+     * @param startedAt tryAcquire가 반환한 요청 시작 시각
+     * @param failed    5xx로 끝났는지 여부
+     */
+    public void release(long startedAt, boolean failed) {
+        int current = inflight.getAndDecrement();
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (failed || now - startedAt > latencyThresholdNanos) {
+                if (startedAt > lastDecreasedAt) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreasedAt = now;
+                }
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * 응답 시간을 한도 조절에 사용하지 않는 요청(SSE 스트리밍 등)이 끝나면 처리 중인 요청에서 뺍니다.
+     */
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,188 @@
+package com.tosi.chat.common.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tosi.chat.common.config.ChatAdmissionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 토큰(회원)과 클라이언트 IP마다 Redis에 저장된 토큰 버킷으로 채팅 요청 수를 제한합니다.
+ * 모든 파드가 같은 버킷을 Lua 스크립트로 함께 사용하며, 두 버킷 모두 남아 있을 때만 요청 하나씩 차감합니다.
+ * Redis 명령이 실패하면 파드마다 한도 / replicas 만큼의 로컬 버킷으로 대신 제한합니다.
+ * 실패 후 REDIS_RETRY_INTERVAL 동안은 Redis를 시도하지 않고 로컬 버킷만 사용하여, 장애 중 요청마다 명령 제한 시간만큼 기다리지 않게 합니다.
+ */
+@Slf4j
+public class AdmissionRateLimiter {
+    static final String KEY_PREFIX = "chatAdmission::";
+    static final Duration REDIS_RETRY_INTERVAL = Duration.ofSeconds(5); // Redis 명령 실패 후 다시 시도하기까지 로컬 버킷만 사용하는 시간
+    // 버킷들을 Redis 서버 시각 기준으로 채운 후 모두 1 이상이면 1씩 차감하고 {0, 0}을 반환;
+    // 부족한 버킷이 있으면 차감하지 않고 {부족한 버킷 번호, 1이 채워질 때까지 기다릴 시간(ms)}을 반환
+    private static final RedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local available = {}
+            for i = 1, #KEYS do
+                local capacity = tonumber(ARGV[i * 2 - 1])
+                local rate = tonumber(ARGV[i * 2]) / 60000
+                local bucket = redis.call('HMGET', KEYS[i], 'available', 'updated')
+                local value = tonumber(bucket[1]) or capacity
+                local updated = tonumber(bucket[2]) or now
+                value = math.min(capacity, value + math.max(0, now - updated) * rate)
+                if value < 1 then
+                    return {i, math.ceil((1 - value) / rate)}
+                end
+                available[i] = value
+            end
+            for i = 1, #KEYS do
+                local capacity = tonumber(ARGV[i * 2 - 1])
+                local rate = tonumber(ARGV[i * 2]) / 60000
+                redis.call('HSET', KEYS[i], 'available', tostring(available[i] - 1), 'updated', now)
+                redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate) + 1000)
+            end
+            return {0, 0}
+            """, List.class);
+    private final ChatAdmissionProperties chatAdmissionProperties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, TokenBucket> localBuckets;
+    private volatile long redisRetryAt = System.nanoTime();
+
+    public AdmissionRateLimiter(ChatAdmissionProperties chatAdmissionProperties, StringRedisTemplate stringRedisTemplate) {
+        this.chatAdmissionProperties = chatAdmissionProperties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * 회원 버킷(userKey가 있을 때)과 IP 버킷에서 요청 하나를 차감합니다.
+     *
+     * @param userKey 토큰(회원)을 구분하는 값; 토큰 없이 보낸 요청이면 null
+     * @param ip      클라이언트 IP
+     * @return 허용 여부와 거절한 버킷, 다시 시도할 수 있을 때까지의 시간이 담긴 Result 객체
+     */
+    public Result tryAcquire(String userKey, String ip) {
+        List<Limit> limits = new ArrayList<>(2);
+        if (userKey != null)
+            limits.add(new Limit(Scope.USER, KEY_PREFIX + "user::" + userKey, chatAdmissionProperties.getUser()));
+        limits.add(new Limit(Scope.IP, KEY_PREFIX + "ip::" + ip, chatAdmissionProperties.getIp()));
+
+        if (System.nanoTime() - redisRetryAt < 0)
+            return tryAcquireLocal(limits);
+        try {
+            List<?> result = stringRedisTemplate.execute(ACQUIRE_SCRIPT, limits.stream().map(Limit::key).toList(), acquireArgs(limits));
+            if (result != null && result.size() == 2)
+                return toResult(limits, ((Number) result.get(0)).intValue(), ((Number) result.get(1)).longValue());
+        } catch (RuntimeException e) {
+            redisRetryAt = System.nanoTime() + REDIS_RETRY_INTERVAL.toNanos();
+            log.warn("Redis 요청 수 확인 실패, {}초 동안 로컬 한도로 제한합니다: {}", REDIS_RETRY_INTERVAL.toSeconds(), e.getMessage());
+        }
+        return tryAcquireLocal(limits);
+    }
+
+    private Object[] acquireArgs(List<Limit> limits) {
+        Object[] args = new Object[limits.size() * 2];
+        for (int i = 0; i < limits.size(); i++) {
+            args[i * 2] = String.valueOf(limits.get(i).bucket().getBurst());
+            args[i * 2 + 1] = String.valueOf(limits.get(i).bucket().getRequestsPerMinute());
+        }
+        return args;
+    }
+
+    private Result toResult(List<Limit> limits, int rejectedIndex, long retryAfterMillis) {
+        if (rejectedIndex <= 0)
+            return Result.ADMITTED;
+        return new Result(limits.get(rejectedIndex - 1).scope(), retryAfterMillis);
+    }
+
+    /**
+     * 로컬 버킷에서 요청 하나를 차감합니다. 버킷 크기와 채워지는 속도는 replicas로 나눕니다.
+     */
+    private Result tryAcquireLocal(List<Limit> limits) {
+        List<TokenBucket> buckets = new ArrayList<>(limits.size());
+        for (Limit limit : limits)
+            buckets.add(localBuckets.get(limit.key(), key -> new TokenBucket(localCapacity(limit.bucket().getBurst()), System.nanoTime())));
+
+        // 여러 버킷을 함께 확인하고 차감하므로 파드 안에서는 한 번에 하나씩 처리
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (int i = 0; i < limits.size(); i++) {
+                ChatAdmissionProperties.Bucket bucket = limits.get(i).bucket();
+                TokenBucket tokenBucket = buckets.get(i);
+                tokenBucket.refill(now, localCapacity(bucket.getBurst()), localCapacity(bucket.getRequestsPerMinute()));
+                long waitNanos = tokenBucket.waitNanos(localCapacity(bucket.getRequestsPerMinute()));
+                if (waitNanos > 0)
+                    return new Result(limits.get(i).scope(), TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+            }
+            for (TokenBucket tokenBucket : buckets)
+                tokenBucket.take();
+        }
+        return Result.ADMITTED;
+    }
+
+    private double localCapacity(long amount) {
+        return (double) amount / Math.max(1, chatAdmissionProperties.getReplicas());
+    }
+
+    /**
+     * 요청 수를 제한하는 단위
+     */
+    public enum Scope {
+        USER, IP
+    }
+
+    /**
+     * 요청 수 확인 결과
+     *
+     * @param rejectedBy       요청을 거절한 버킷; 허용하면 null
+     * @param retryAfterMillis 거절한 버킷에 요청 하나가 채워질 때까지의 시간(ms)
+     */
+    public record Result(Scope rejectedBy, long retryAfterMillis) {
+        static final Result ADMITTED = new Result(null, 0);
+
+        public boolean isAdmitted() {
+            return rejectedBy == null;
+        }
+    }
+
+    private record Limit(Scope scope, String key, ChatAdmissionProperties.Bucket bucket) {
+    }
+
+    /**
+     * 1분 동안 requestsPerMinute만큼 일정한 속도로 채워지고 burst까지 쌓이는 토큰 버킷
+     */
+    private static class TokenBucket {
+        private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+        private double available;
+        private long refilledAt;
+
+        private TokenBucket(double capacity, long now) {
+            this.available = capacity;
+            this.refilledAt = now;
+        }
+
+        private void refill(long now, double capacity, double requestsPerMinute) {
+            available = Math.min(capacity, available + (now - refilledAt) * requestsPerMinute / WINDOW_NANOS);
+            refilledAt = now;
+        }
+
+        private long waitNanos(double requestsPerMinute) {
+            if (available >= 1)
+                return 0;
+            return (long) Math.ceil((1 - available) * WINDOW_NANOS / requestsPerMinute);
+        }
+
+        private void take() {
+            available -= 1;
+        }
+    }
+}
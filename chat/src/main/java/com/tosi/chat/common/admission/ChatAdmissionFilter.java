@@ -0,0 +1,248 @@
+package com.tosi.chat.common.admission;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.common.config.ChatAdmissionProperties;
+import com.tosi.chat.common.exception.ErrorResponse;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.dto.ChatSessionDto;
+import com.tosi.chat.repository.ChatSessionRedisRepository;
+import com.tosi.chat.service.UserAuthorizationCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 채팅 API 요청을 컨트롤러에 넘기기 전에 처리할 수 있는 요청인지 확인합니다.
+ * 파드의 동시 처리 한도(AdaptiveConcurrencyLimiter)가 가득 찼으면 503, 토큰(회원)이나 IP의 요청 수 한도(AdmissionRateLimiter)를 넘으면 429로
+ * Retry-After와 함께 바로 응답하므로, 거절한 요청은 회원 인증, 동화 조회, OpenAI API 호출을 하지 않습니다.
+ * servlet, reactive 엔진 모두 Spring MVC에서 처리되므로 같은 필터를 사용하며, 비동기 응답(Mono, SseEmitter)은 응답이 끝날 때 처리 중인 요청에서 뺍니다.
+ * 채팅 시작 요청은 토큰으로, 이어서 채팅하기 요청은 본문의 세션 번호로 Redis에서 세션을 조회해 채팅을 시작한 회원의 한도를 적용합니다.
+ * 세션이 없거나 만료되었으면 404로 바로 응답하고, 회원 번호 없이 저장된 이전 세션은 세션 번호마다 한도를 적용합니다.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class ChatAdmissionFilter extends OncePerRequestFilter {
+    private static final String CHAT_PATH = "/api/chat";
+    private static final String STREAM_PATH = "/api/chat/stream";
+    private static final String INIT_SUFFIX = "/init";
+    private final UserAuthorizationCache userAuthorizationCache;
+    private final ChatSessionRedisRepository chatSessionRedisRepository;
+    private final ObjectMapper objectMapper;
+    private final AdmissionRateLimiter admissionRateLimiter;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final Duration overloadedRetryAfter;
+    private final Counter admittedCounter;
+    private final Counter userLimitedCounter;
+    private final Counter ipLimitedCounter;
+    private final Counter overloadedCounter;
+    private final Counter sessionNotFoundCounter;
+
+    public ChatAdmissionFilter(ChatAdmissionProperties chatAdmissionProperties,
+                               UserAuthorizationCache userAuthorizationCache,
+                               ChatSessionRedisRepository chatSessionRedisRepository,
+                               StringRedisTemplate stringRedisTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.userAuthorizationCache = userAuthorizationCache;
+        this.chatSessionRedisRepository = chatSessionRedisRepository;
+        this.objectMapper = objectMapper;
+        this.admissionRateLimiter = new AdmissionRateLimiter(chatAdmissionProperties, stringRedisTemplate);
+        this.adaptiveConcurrencyLimiter = new AdaptiveConcurrencyLimiter(chatAdmissionProperties.getConcurrency());
+        this.overloadedRetryAfter = chatAdmissionProperties.getConcurrency().getRetryAfter();
+        this.admittedCounter = admissionCounter(meterRegistry, "admitted");
+        this.userLimitedCounter = admissionCounter(meterRegistry, "user_limited");
+        this.ipLimitedCounter = admissionCounter(meterRegistry, "ip_limited");
+        this.overloadedCounter = admissionCounter(meterRegistry, "overloaded");
+        this.sessionNotFoundCounter = admissionCounter(meterRegistry, "session_not_found");
+        Gauge.builder("chat.admission.concurrency.limit", adaptiveConcurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("파드에서 동시에 처리할 수 있는 채팅 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.admission.concurrency.inflight", adaptiveConcurrencyLimiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("파드에서 처리 중인 채팅 요청 수")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(CHAT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long startedAt = adaptiveConcurrencyLimiter.tryAcquire();
+        if (startedAt < 0) {
+            overloadedCounter.increment();
+            reject(objectMapper, response, ExceptionCode.CHAT_OVERLOADED, overloadedRetryAfter.toMillis());
+            return;
+        }
+
+        String userKey;
+        if (request.getRequestURI().endsWith(INIT_SUFFIX)) {
+            String accessToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+            userKey = StringUtils.hasText(accessToken) ? userAuthorizationCache.findRateLimitKey(accessToken) : null;
+        } else {
+            CachedBodyHttpServletRequest cachedBodyRequest;
+            try {
+                cachedBodyRequest = new CachedBodyHttpServletRequest(request);
+            } catch (IOException e) {
+                adaptiveConcurrencyLimiter.release();
+                throw e;
+            }
+            request = cachedBodyRequest;
+            SessionLookup sessionLookup = findSession(cachedBodyRequest.getBody());
+            if (!sessionLookup.found()) {
+                adaptiveConcurrencyLimiter.release();
+                sessionNotFoundCounter.increment();
+                writeError(objectMapper, response, ExceptionCode.CHAT_SESSION_NOT_FOUND);
+                return;
+            }
+            userKey = sessionLookup.userKey();
+        }
+        AdmissionRateLimiter.Result result = admissionRateLimiter.tryAcquire(userKey, request.getRemoteAddr());
+        if (!result.isAdmitted()) {
+            adaptiveConcurrencyLimiter.release();
+            (result.rejectedBy() == AdmissionRateLimiter.Scope.USER ? userLimitedCounter : ipLimitedCounter).increment();
+            reject(objectMapper, response, ExceptionCode.CHAT_TOO_MANY_REQUESTS, result.retryAfterMillis());
+            return;
+        }
+        admittedCounter.increment();
+
+        boolean stream = request.getRequestURI().startsWith(STREAM_PATH);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted())
+                request.getAsyncContext().addListener(new ReleaseListener(startedAt, stream));
+            else
+                release(startedAt, stream, failed || response.getStatus() >= 500);
+        }
+    }
+
+    /**
+     * 요청 본문의 세션 번호로 세션을 조회해 채팅을 시작한 회원의 한도를 적용할 값을 찾습니다.
+     * 본문이 JSON이 아니거나 Redis 조회에 실패하면 IP 한도만 적용하고, 오류 응답은 컨트롤러와 서비스에 맡깁니다.
+     *
+     * @param body 요청 본문
+     * @return 세션 존재 여부와 요청 수를 제한할 값이 담긴 SessionLookup 객체
+     */
+    private SessionLookup findSession(byte[] body) {
+        JsonNode sessionId;
+        try {
+            sessionId = objectMapper.readTree(body).get("sessionId");
+        } catch (IOException e) {
+            return SessionLookup.IP_ONLY;
+        }
+        if (sessionId == null || !StringUtils.hasText(sessionId.asText()))
+            return SessionLookup.NOT_FOUND;
+
+        Optional<ChatSessionDto> chatSessionDto;
+        try {
+            chatSessionDto = chatSessionRedisRepository.findSession(sessionId.asText());
+        } catch (RuntimeException e) {
+            return SessionLookup.IP_ONLY;
+        }
+        return chatSessionDto
+                .map(session -> new SessionLookup(true, session.getUserId() != null
+                        ? UserAuthorizationCache.userRateLimitKey(session.getUserId())
+                        : "session:" + sessionId.asText()))
+                .orElse(SessionLookup.NOT_FOUND);
+    }
+
+    /**
+     * 스트리밍 응답은 생성되는 답변 길이만큼 오래 걸리므로 응답 시간을 한도 조절에 사용하지 않습니다.
+     */
+    private void release(long startedAt, boolean stream, boolean failed) {
+        if (stream)
+            adaptiveConcurrencyLimiter.release();
+        else
+            adaptiveConcurrencyLimiter.release(startedAt, failed);
+    }
+
+    /**
+     * 요청을 처리하지 않고 ErrorResponse와 Retry-After(초, 올림)로 응답합니다.
+     */
+    static void reject(ObjectMapper objectMapper, HttpServletResponse response, ExceptionCode exceptionCode, long retryAfterMillis) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        writeError(objectMapper, response, exceptionCode);
+    }
+
+    /**
+     * 요청을 처리하지 않고 ErrorResponse로 응답합니다.
+     */
+    private static void writeError(ObjectMapper objectMapper, HttpServletResponse response, ExceptionCode exceptionCode) throws IOException {
+        response.setStatus(exceptionCode.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.of(exceptionCode));
+    }
+
+    private Counter admissionCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.admission.requests")
+                .description("채팅 요청 수 제한, 동시 처리 한도 확인 결과")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 세션 조회 결과
+     *
+     * @param found   세션 존재 여부
+     * @param userKey 요청 수를 제한할 값; IP 한도만 적용하면 null
+     */
+    private record SessionLookup(boolean found, String userKey) {
+        static final SessionLookup NOT_FOUND = new SessionLookup(false, null);
+        static final SessionLookup IP_ONLY = new SessionLookup(true, null);
+    }
+
+    /**
+     * 비동기 응답이 끝나면(타임아웃, 오류 포함) 처리 중인 요청에서 뺍니다.
+     */
+    private class ReleaseListener implements AsyncListener {
+        private final long startedAt;
+        private final boolean stream;
+
+        private ReleaseListener(long startedAt, boolean stream) {
+            this.startedAt = startedAt;
+            this.stream = stream;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            boolean failed = event.getSuppliedResponse() instanceof HttpServletResponse response && response.getStatus() >= 500;
+            release(startedAt, stream, failed);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
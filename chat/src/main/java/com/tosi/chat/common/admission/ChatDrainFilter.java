@@ -0,0 +1,159 @@
+package com.tosi.chat.common.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.common.exception.ExceptionCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 처리 중인 채팅 요청(스트리밍 포함)을 세고, 애플리케이션이 종료될 때 새 채팅을 받지 않고 처리 중인 채팅이 끝나기를 기다립니다.
+ * 종료가 시작되면 새 채팅 요청에는 OpenAI API를 호출하지 않고 503(CHAT_SHUTTING_DOWN), Retry-After와 Connection: close로 응답해
+ * 클라이언트가 다른 파드로 다시 요청하게 하고, 처리 중인 채팅은 drainTimeout까지 응답을 마치도록 둡니다.
+ * 웹 서버의 graceful shutdown보다 먼저 멈추므로 웹 서버는 기다릴 요청 없이 종료되고, 그 후 채팅 기록(ChatTranscriptRecorder)이 저장됩니다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class ChatDrainFilter extends OncePerRequestFilter implements SmartLifecycle {
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE + 1;
+    private static final String CHAT_PATH = "/api/chat";
+    private static final long RETRY_AFTER_MILLIS = 1000;
+    private final ObjectMapper objectMapper;
+    private final Duration drainTimeout;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    public ChatDrainFilter(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${chat.shutdown.drain-timeout}") Duration drainTimeout) {
+        this.objectMapper = objectMapper;
+        this.drainTimeout = drainTimeout;
+        Gauge.builder("chat.requests.inflight", inflight, AtomicInteger::get)
+                .description("응답을 마치지 않은 채팅 요청 수(스트리밍 포함)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(CHAT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // 먼저 센 후 확인하여, 종료가 시작된 후 들어온 요청이 세지 않은 채로 처리되지 않게 함
+        inflight.incrementAndGet();
+        if (draining) {
+            exit();
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+            ChatAdmissionFilter.reject(objectMapper, response, ExceptionCode.CHAT_SHUTTING_DOWN, RETRY_AFTER_MILLIS);
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ExitListener());
+                async = true;
+            }
+        } finally {
+            if (!async)
+                exit();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * 새 채팅을 받지 않고, 처리 중인 채팅이 모두 끝나거나 drainTimeout이 지날 때까지 기다립니다.
+     */
+    @Override
+    public void stop() {
+        draining = true;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        log.info("새 채팅 요청을 받지 않고 처리 중인 채팅 {}개가 끝나기를 기다립니다.", inflight.get());
+        synchronized (inflight) {
+            while (inflight.get() > 0) {
+                long remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+                if (remainingMillis <= 0)
+                    break;
+                try {
+                    inflight.wait(remainingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (inflight.get() > 0)
+            log.warn("처리 중인 채팅 {}개를 마치지 못하고 종료합니다.", inflight.get());
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void exit() {
+        if (inflight.decrementAndGet() == 0 && draining) {
+            synchronized (inflight) {
+                inflight.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 비동기 응답(Mono, SseEmitter)이 끝나면(타임아웃, 오류 포함) 처리 중인 요청에서 뺍니다.
+     */
+    private class ExitListener implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
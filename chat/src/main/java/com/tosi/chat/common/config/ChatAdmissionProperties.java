@@ -0,0 +1,49 @@
+package com.tosi.chat.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 채팅 API 요청을 처리하기 전에 요청 수와 동시에 처리 중인 요청 수를 제한하기 위한 설정
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.admission")
+@Getter
+@Setter
+public class ChatAdmissionProperties {
+    private boolean enabled = true;
+    private Bucket user = new Bucket(20, 10); // 토큰(회원)마다 적용
+    private Bucket ip = new Bucket(300, 100); // 클라이언트 IP마다 적용
+    private int replicas = 1; // Redis 장애로 로컬 버킷을 사용할 때 한도를 나눌 파드 수
+    private Concurrency concurrency = new Concurrency();
+
+    @Getter
+    @Setter
+    public static class Bucket {
+        private long requestsPerMinute; // 버킷이 채워지는 속도
+        private long burst; // 버킷 크기; 한 번에 몰아서 보낼 수 있는 요청 수
+
+        public Bucket() {
+        }
+
+        public Bucket(long requestsPerMinute, long burst) {
+            this.requestsPerMinute = requestsPerMinute;
+            this.burst = burst;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 150; // Tomcat 요청 스레드(200)보다 작게 두어 health check 등 다른 요청이 처리될 수 있게 함
+        private Duration latencyThreshold = Duration.ofSeconds(10); // 스트리밍이 아닌 요청이 이보다 늦거나 5xx로 끝나면 한도를 줄임
+        private double backoffRatio = 0.9; // 한도를 줄일 때 곱하는 비율
+        private Duration retryAfter = Duration.ofSeconds(1); // 503 응답의 Retry-After
+    }
+}
@@ -1,20 +1,68 @@
 package com.tosi.chat.common.config;
 
 
-import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 채팅 응답을 생성할 OpenAI 호환 API 백엔드 설정
+ * 최상위 값은 모든 백엔드의 기본값이며, backends가 비어 있으면 기본값으로 만든 백엔드 하나만 사용합니다.
+ */
 @Component // 빈 등록
+@ConfigurationProperties(prefix = "openai")
 @Getter
-@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Setter
 public class ChatGptProperties {
-    private final String apiURL = "https://api.openai.com/v1/chat/completions";
-    private final String model = "gpt-4o-mini"; // OpenAI 모델 버전한 번의 요청에서 입력과 출력에 사용할 최대 토큰 수
-    private final int maxTokens = 1000;
-    private final Double temperature = 1.0; // 랜덤성 조절; 1에 가까울수록 창의적인 답변, 0에 가까울수록 일관적인 답변
-    private final Double topP = 1.0; // 확률 분포 조절; 1에 가까울수록 다양한 토큰, 0에 가까울수록 정답일 확률이 높은 토큰만 선택
+    private String apiKey;
+    private String apiUrl = "https://api.openai.com/v1/chat/completions";
+    private String model = "gpt-4o-mini"; // OpenAI 모델 버전; 요청 토큰 수 계산에도 사용
+    private int maxTokens = 1000; // 한 번의 요청에서 출력에 사용할 최대 토큰 수
+    private Double temperature = 1.0; // 랜덤성 조절; 1에 가까울수록 창의적인 답변, 0에 가까울수록 일관적인 답변
+    private Double topP = 1.0; // 확률 분포 조절; 1에 가까울수록 다양한 토큰, 0에 가까울수록 정답일 확률이 높은 토큰만 선택
+    private Duration streamIdleTimeout = Duration.ofSeconds(20); // 스트리밍 응답에서 다음 줄을 기다리는 최대 시간; 넘으면 요청을 취소하고 백엔드 장애로 처리
+    private List<Backend> backends = new ArrayList<>();
+    private Routing routing = new Routing();
+
+    /**
+     * 채팅 요청 등급
+     */
+    public enum Tier {
+        STANDARD, // 채팅 시작, 이어서 채팅하기
+        FINAL // 마지막 인사
+    }
 
+    @Getter
+    @Setter
+    public static class Backend {
+        private String name; // 서킷 브레이커, 요청 한도 버킷을 구분하는 이름; 없으면 모델 이름
+        private String apiUrl; // 없으면 기본값 사용(최상위 값과 같음)
+        private String apiKey;
+        private String model;
+        private Integer maxTokens;
+        private Double temperature;
+        private Double topP;
+        private double inputCost; // 입력 토큰 100만 개당 비용(USD)
+        private double outputCost; // 출력 토큰 100만 개당 비용(USD)
+        private Set<Tier> tiers = EnumSet.allOf(Tier.class); // 우선 처리할 요청 등급; 다른 등급은 이 등급의 백엔드가 모두 실패할 때만 처리
+    }
 
+    @Getter
+    @Setter
+    public static class Routing {
+        private double latencyWeight = 1.0; // 최근 지연 시간(p50, p95 평균) 1초당 점수
+        private double costWeight = 1000; // 요청 1개의 예상 비용 1 USD당 점수
+        private int promptTokens = 3000; // 예상 비용을 계산할 때 사용할 요청 1개의 프롬프트 토큰 수
+        private double maxErrorRate = 0.5; // 최근 오류 비율이 넘으면 다른 백엔드가 모두 실패할 때만 사용
+        private Duration errorRateHalfLife = Duration.ofSeconds(30); // 요청이 없어도 오류 비율이 절반으로 줄어드는 시간; 뒤로 밀린 백엔드도 다시 요청을 받게 함
+        private int windowSize = 200; // 지연 시간 백분위수를 계산할 최근 응답 수
+        private int minimumNumberOfCalls = 10; // 응답이 이보다 적으면 지연 시간을 점수에 반영하지 않음
+    }
 }
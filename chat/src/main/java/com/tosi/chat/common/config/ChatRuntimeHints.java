@@ -0,0 +1,26 @@
+package com.tosi.chat.common.config;
+
+import com.tosi.chat.common.exception.ErrorResponse;
+import com.tosi.chat.dto.*;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * native image로 빌드할 때(./gradlew nativeCompile -Pnative) Spring AOT가 찾지 못하는 리플렉션, 리소스 사용을 등록합니다.
+ * 컨트롤러 요청, 응답 타입 외에 ObjectMapper, RestTemplate, WebClient로 직접 변환하는 DTO와 프롬프트 템플릿 파일이 대상입니다.
+ */
+public class ChatRuntimeHints implements RuntimeHintsRegistrar {
+    private static final Class<?>[] JSON_TYPES = {
+            ChatCompletionResponseDto.class, ChatInitRequestDto.class, ChatRequestDto.class, ChatResponseDto.class,
+            ChatStreamChunkDto.class, ChatTranscriptDto.class, ChatUsageDto.class, MultiChatChoicesRequest.class,
+            MultiChatStreamRequest.class, TaleDetailDto.class, MultiChatMessage.class, ErrorResponse.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+        hints.resources().registerPattern("prompt/*.txt");
+    }
+}
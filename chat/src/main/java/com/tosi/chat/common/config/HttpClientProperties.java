@@ -0,0 +1,32 @@
+package com.tosi.chat.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "http.client")
+@Getter
+@Setter
+public class HttpClientProperties {
+    private Upstream openai = new Upstream();
+    private Upstream tale = new Upstream();
+    private Upstream user = new Upstream();
+
+    /**
+     * 외부 서비스마다 따로 적용하는 HTTP 커넥션 풀, 타임아웃 설정
+     */
+    @Getter
+    @Setter
+    public static class Upstream {
+        private int maxConnections = 50; // 서비스(라우트)당 최대 커넥션 수
+        private Duration connectTimeout = Duration.ofSeconds(1); // TCP(+TLS) 연결 제한 시간
+        private Duration readTimeout = Duration.ofSeconds(5); // 응답 대기 제한 시간
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1); // 풀에서 커넥션을 얻기까지 기다리는 시간
+        private Duration keepAlive = Duration.ofSeconds(30); // 유휴 커넥션 재사용 시간
+        private boolean http2 = false; // true면 JDK HttpClient로 HTTP/2(ALPN)를 협상하고 하나의 커넥션에 요청을 다중화
+    }
+}
@@ -0,0 +1,29 @@
+package com.tosi.chat.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * OpenAI API 키의 분당 요청 수(RPM), 분당 토큰 수(TPM) 한도에 맞춰 요청을 보내기 위한 설정
+ */
+@Component
+@ConfigurationProperties(prefix = "openai.rate-limit")
+@Getter
+@Setter
+public class OpenAiRateLimitProperties {
+    private boolean enabled = true;
+    private Mode mode = Mode.LOCAL;
+    private long requestsPerMinute = 500; // API 키 전체 RPM; 응답 헤더(x-ratelimit-limit-requests)를 받으면 그 값으로 바뀜
+    private long tokensPerMinute = 200000; // API 키 전체 TPM; 응답 헤더(x-ratelimit-limit-tokens)를 받으면 그 값으로 바뀜
+    private int replicas = 1; // local 모드에서 한도를 나눠 가질 파드 수
+    private Duration queueTimeout = Duration.ofSeconds(2); // 한도를 넘은 요청이 기다릴 수 있는 최대 시간; 넘으면 429
+
+    public enum Mode {
+        LOCAL, // 파드마다 한도 / replicas 만큼 사용
+        REDIS // 모든 파드가 Redis에 저장된 하나의 버킷을 함께 사용
+    }
+}
@@ -0,0 +1,68 @@
+package com.tosi.chat.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "openai.resilience")
+@Getter
+@Setter
+public class OpenAiResilienceProperties {
+    private Bulkhead bulkhead = new Bulkhead();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Retry retry = new Retry();
+    private Hedge hedge = new Hedge();
+
+    /**
+     * 파드 하나가 동시에 보낼 수 있는 OpenAI API 요청 수 제한
+     */
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        private int maxConcurrentCalls = 50; // 동시에 진행할 수 있는 요청 수(스트리밍 요청 포함)
+        private Duration maxWait = Duration.ofMillis(500); // 자리가 날 때까지 기다리는 시간(servlet 엔진만 적용)
+    }
+
+    /**
+     * OpenAI API 장애가 계속되면 요청을 보내지 않고 바로 실패시키는 설정
+     */
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private float failureRateThreshold = 50; // 최근 요청 중 실패 비율(%)이 넘으면 차단
+        private int slidingWindowSize = 50; // 실패 비율을 계산할 최근 요청 수
+        private int minimumNumberOfCalls = 20; // 실패 비율을 계산하기 위한 최소 요청 수
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30); // 차단 후 다시 시도해보기까지의 시간
+        private int permittedNumberOfCallsInHalfOpenState = 5; // 다시 시도해볼 때 허용하는 요청 수
+    }
+
+    /**
+     * 429, 5xx 응답과 연결 실패를 다시 요청하는 설정
+     */
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 3; // 첫 요청을 포함한 최대 요청 횟수
+        private Duration initialBackoff = Duration.ofMillis(500); // 첫 재시도 대기 시간의 상한; 재시도마다 2배로 늘어남
+        private Duration maxBackoff = Duration.ofSeconds(8);
+        private Duration maxRetryAfter = Duration.ofSeconds(10); // Retry-After가 이보다 길면 재시도하지 않음
+    }
+
+    /**
+     * 스트리밍이 아닌 요청이 지연 시간 백분위수보다 오래 걸리면 같은 요청을 한 번 더 보내 먼저 온 응답을 사용하는 설정
+     */
+    @Getter
+    @Setter
+    public static class Hedge {
+        private boolean enabled = false; // 추가 요청만큼 토큰 비용이 늘어나므로 기본값은 사용하지 않음
+        private double percentile = 0.95; // 추가 요청을 보내기까지 기다릴 지연 시간 백분위수
+        private Duration minDelay = Duration.ofSeconds(1); // 백분위수가 이보다 짧아도 이만큼은 기다림
+        private int windowSize = 200; // 백분위수를 계산할 최근 응답 수
+        private int minimumNumberOfCalls = 20; // 최근 응답이 이보다 적으면 추가 요청을 보내지 않음
+        private int maxConcurrentHedges = 20; // 파드당 동시에 진행할 수 있는 헤지 요청 수; 넘으면 헤지 요청을 보내지 않음
+    }
+}
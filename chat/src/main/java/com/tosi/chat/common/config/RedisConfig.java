@@ -1,5 +1,7 @@
 package com.tosi.chat.common.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
@@ -8,11 +10,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -25,14 +32,53 @@ public class RedisConfig {
     private String redisHost;
     @Value("${spring.data.redis.port}")
     private int redisPort;
+    @Value("${spring.data.redis.timeout}")
+    private Duration commandTimeout;
+    @Value("${spring.data.redis.connect-timeout}")
+    private Duration connectTimeout;
 
+    /**
+     * Lettuce 커넥션 팩토리는 blocking, reactive Redis 명령을 모두 지원합니다.
+     * 반환 타입을 LettuceConnectionFactory로 지정해야 ReactiveRedisConnectionFactory 빈으로도 인식됩니다.
+     * Lettuce 기본 명령 제한 시간(60초)으로는 Redis 장애 때 요청 수 제한, 캐시 조회가 오래 멈추므로 짧게 설정하고,
+     * 연결이 끊긴 동안의 명령은 쌓아두지 않고 바로 실패시켜 로컬 버킷, 동화 서비스 조회로 빠르게 넘어가게 합니다.
+     */
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
+    public LettuceConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration conf = new RedisStandaloneConfiguration();
         conf.setHostName(redisHost);
         conf.setPort(redisPort);
 
-        return new LettuceConnectionFactory(conf);
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(commandTimeout)
+                .clientOptions(ClientOptions.builder()
+                        .socketOptions(SocketOptions.builder().connectTimeout(connectTimeout).build())
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .build())
+                .build();
+        return new LettuceConnectionFactory(conf, clientConfiguration);
+    }
+
+    /**
+     * 값을 바이트 배열 그대로 읽고 쓰는 RedisTemplate입니다. 동화 정보처럼 직접 변환한 바이너리 값을 저장할 때 사용합니다.
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        return redisTemplate;
+    }
+
+    /**
+     * binaryRedisTemplate의 reactive 버전입니다.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> reactiveBinaryRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, RedisSerializationContext.<String, byte[]>newSerializationContext(StringRedisSerializer.UTF_8)
+                .value(RedisSerializer.byteArray())
+                .build());
     }
 
     @Bean
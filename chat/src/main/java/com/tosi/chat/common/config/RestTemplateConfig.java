@@ -1,19 +1,110 @@
 package com.tosi.chat.common.config;
 
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+
 @Configuration
+@RequiredArgsConstructor
 public class RestTemplateConfig {
+    private final HttpClientProperties httpClientProperties;
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreadsEnabled;
+
     /**
-     * RestTemplate를 빈으로 등록하여 스프링에서 관리되도록 합니다.
-     * 스프링 컨텍스트에서 하나의 인스턴스만 생성(싱글턴)되며, 의존성 주입을 통해 여러 곳에서 재사용할 수 있습니다.
+     * RestTemplate를 외부 서비스마다 하나씩 빈으로 등록하여 스프링에서 관리되도록 합니다.
+     * 서비스마다 커넥션 풀과 타임아웃을 따로 두기 때문에 OpenAI API 응답이 느려져도 회원, 동화 서비스 요청은 영향을 받지 않습니다.
+     * 커넥션을 재사용하므로 요청마다 TCP, TLS 연결을 새로 맺지 않습니다.
      */
+    @Bean
+    public RestTemplate openAiRestTemplate() {
+        return new RestTemplate(clientHttpRequestFactory(httpClientProperties.getOpenai()));
+    }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate taleRestTemplate() {
+        return new RestTemplate(clientHttpRequestFactory(httpClientProperties.getTale()));
+    }
+
+    @Bean
+    public RestTemplate userRestTemplate() {
+        return new RestTemplate(clientHttpRequestFactory(httpClientProperties.getUser()));
+    }
+
+    /**
+     * HTTP/2를 사용하면 JDK HttpClient를, 아니면 커넥션 풀을 사용하는 Apache HttpClient를 생성합니다.
+     *
+     * @param upstream 외부 서비스의 커넥션 풀, 타임아웃 설정
+     * @return RestTemplate에서 사용할 ClientHttpRequestFactory 객체
+     */
+    private ClientHttpRequestFactory clientHttpRequestFactory(HttpClientProperties.Upstream upstream) {
+        if (upstream.isHttp2())
+            return jdkClientHttpRequestFactory(upstream);
+        return pooledClientHttpRequestFactory(upstream);
+    }
+
+    /**
+     * HTTP/2를 우선 협상하는 JDK HttpClient를 생성합니다.
+     * HTTP/2는 하나의 커넥션에 여러 요청을 동시에 보내므로 커넥션 수를 제한하지 않으며, 서버가 지원하지 않으면 HTTP/1.1로 연결합니다.
+     * 가상 스레드 모드에서는 응답 처리도 가상 스레드에서 실행합니다.
+     * read-timeout은 응답 헤더를 받을 때까지만 적용되며, 본문을 읽는 동안에는 적용되지 않습니다.
+     * 스트리밍 응답 본문의 대기 시간은 ChatGptClient가 openai.stream-idle-timeout으로 따로 제한합니다.
+     */
+    private ClientHttpRequestFactory jdkClientHttpRequestFactory(HttpClientProperties.Upstream upstream) {
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(upstream.getConnectTimeout());
+        if (virtualThreadsEnabled)
+            httpClientBuilder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        HttpClient httpClient = httpClientBuilder.build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(upstream.getReadTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * 라우트당 최대 커넥션 수, keep-alive 시간이 적용된 커넥션 풀을 사용하는 Apache HttpClient를 생성합니다.
+     * 만료되었거나 오래 쉬고 있는 커넥션은 백그라운드에서 정리합니다.
+     */
+    private ClientHttpRequestFactory pooledClientHttpRequestFactory(HttpClientProperties.Upstream upstream) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(upstream.getMaxConnections())
+                .setMaxConnPerRoute(upstream.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(upstream.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(upstream.getReadTimeout()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(upstream.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(upstream.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(upstream.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(upstream.getKeepAlive()))
+                .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
     }
 
 }
@@ -0,0 +1,66 @@
+package com.tosi.chat.common.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * reactive 채팅 엔진에서 사용하는 WebClient를 외부 서비스마다 하나씩 빈으로 등록합니다.
+ * RestTemplate과 같은 http.client 설정으로 커넥션 풀과 타임아웃을 서비스마다 따로 둡니다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+@RequiredArgsConstructor
+public class WebClientConfig {
+    private final HttpClientProperties httpClientProperties;
+    private final WebClient.Builder webClientBuilder;
+
+    @Bean
+    public WebClient openAiWebClient() {
+        return webClient("openai", httpClientProperties.getOpenai());
+    }
+
+    @Bean
+    public WebClient taleWebClient() {
+        return webClient("tale", httpClientProperties.getTale());
+    }
+
+    @Bean
+    public WebClient userWebClient() {
+        return webClient("user", httpClientProperties.getUser());
+    }
+
+    /**
+     * 최대 커넥션 수, 커넥션 대기 시간, keep-alive 시간이 적용된 커넥션 풀과 타임아웃을 가진 Reactor Netty 클라이언트로 WebClient를 생성합니다.
+     * HTTP/2를 사용하면 TLS(ALPN)로 HTTP/2를 협상하고, 서버가 지원하지 않으면 HTTP/1.1로 연결합니다.
+     *
+     * @param name     커넥션 풀 이름
+     * @param upstream 외부 서비스의 커넥션 풀, 타임아웃 설정
+     * @return 외부 서비스 전용 WebClient 객체
+     */
+    private WebClient webClient(String name, HttpClientProperties.Upstream upstream) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(upstream.getMaxConnections())
+                .pendingAcquireTimeout(upstream.getConnectionRequestTimeout())
+                .maxIdleTime(upstream.getKeepAlive())
+                .evictInBackground(upstream.getKeepAlive())
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) upstream.getConnectTimeout().toMillis())
+                .responseTimeout(upstream.getReadTimeout());
+        if (upstream.isHttp2())
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
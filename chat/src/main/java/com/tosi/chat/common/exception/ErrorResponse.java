@@ -36,4 +36,10 @@ public class ErrorResponse {
                 .build();
     }
 
+    public static ErrorResponse of(Throwable throwable) {
+        if (throwable instanceof CustomException customException)
+            return of(customException.getExceptionCode());
+        return of(HttpStatus.INTERNAL_SERVER_ERROR, throwable.getMessage());
+    }
+
 }
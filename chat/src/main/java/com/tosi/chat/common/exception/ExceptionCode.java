@@ -7,7 +7,15 @@ import org.springframework.http.HttpStatus;
 @AllArgsConstructor
 @Getter
 public enum ExceptionCode {
-    INVALID_TOKEN(HttpStatus.BAD_REQUEST, "AUTH_001", "유효하지 않은 토큰입니다.");
+    INVALID_TOKEN(HttpStatus.BAD_REQUEST, "AUTH_001", "유효하지 않은 토큰입니다."),
+    USER_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "AUTH_002", "회원 인증 서비스에 연결할 수 없습니다. 잠시 후 다시 시도해주세요."),
+    CHAT_SESSION_NOT_FOUND(HttpStatus.NOT_FOUND, "CHAT_001", "채팅 세션이 존재하지 않거나 만료되었습니다."),
+    CHAT_API_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "CHAT_002", "채팅 응답을 생성할 수 없습니다. 잠시 후 다시 시도해주세요."),
+    CHAT_API_RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "CHAT_003", "채팅 요청이 많습니다. 잠시 후 다시 시도해주세요."),
+    CHAT_TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "CHAT_004", "짧은 시간에 너무 많은 채팅을 보냈습니다. 잠시 후 다시 시도해주세요."),
+    CHAT_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "CHAT_005", "채팅 서버가 혼잡합니다. 잠시 후 다시 시도해주세요."),
+    CHAT_SHUTTING_DOWN(HttpStatus.SERVICE_UNAVAILABLE, "CHAT_006", "채팅 서버를 교체하고 있습니다. 잠시 후 다시 시도해주세요."),
+    TALE_NOT_FOUND(HttpStatus.NOT_FOUND, "TALE_001", "동화 정보가 존재하지 않습니다.");
 
     private final HttpStatus status;
     private final String code;
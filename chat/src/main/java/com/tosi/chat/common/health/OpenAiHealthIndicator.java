@@ -0,0 +1,37 @@
+package com.tosi.chat.common.health;
+
+import com.tosi.chat.client.CompletionBackend;
+import com.tosi.chat.client.CompletionRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OpenAI API 백엔드의 서킷 브레이커 상태로 채팅 응답을 생성할 수 있는지 판단합니다. 헬스 체크마다 OpenAI API를 호출하지 않습니다.
+ * 모든 백엔드의 서킷 브레이커가 열려 있으면 DOWN입니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OpenAiHealthIndicator implements HealthIndicator {
+    private final CompletionRouter completionRouter;
+
+    @Override
+    public Health health() {
+        boolean available = false;
+        Map<String, Object> backends = new LinkedHashMap<>();
+        for (CompletionBackend completionBackend : completionRouter.getCompletionBackends()) {
+            boolean circuitOpen = completionBackend.getOpenAiResilience().isCircuitOpen();
+            available |= !circuitOpen;
+            backends.put(completionBackend.getName(), Map.of(
+                    "circuitOpen", circuitOpen,
+                    "errorRate", completionBackend.getErrorRate()));
+        }
+        return (available ? Health.up() : Health.down())
+                .withDetail("backends", backends)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.tosi.chat.common.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 최근 Tale 서비스 호출 결과로 동화 정보를 가져올 수 있는지 판단합니다. 헬스 체크마다 Tale 서비스를 호출하지 않습니다.
+ * 연속으로 FAILURE_THRESHOLD번 실패하면 DOWN이고, 한 번이라도 성공하면 UP으로 돌아옵니다.
+ * 채팅 요청이 있어야 상태가 바뀌므로 readiness 그룹에 넣으면 모든 파드가 요청을 받지 않아 회복하지 못합니다.
+ */
+@Component
+public class TaleServiceHealthIndicator implements HealthIndicator {
+    private static final int FAILURE_THRESHOLD = 5;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile String lastError;
+
+    /**
+     * Tale 서비스가 응답하면(존재하지 않는 동화 포함) 호출합니다.
+     */
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * 연결 실패, 타임아웃, 5xx 응답 등으로 Tale 서비스 호출이 실패하면 호출합니다.
+     *
+     * @param throwable 호출 중 발생한 예외
+     */
+    public void recordFailure(Throwable throwable) {
+        lastError = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+        consecutiveFailures.incrementAndGet();
+    }
+
+    @Override
+    public Health health() {
+        int failures = consecutiveFailures.get();
+        Health.Builder builder = failures >= FAILURE_THRESHOLD ? Health.down() : Health.up();
+        builder.withDetail("consecutiveFailures", failures);
+        if (failures > 0 && lastError != null)
+            builder.withDetail("lastError", lastError);
+        return builder.build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.tosi.chat.common.metrics;
+
+import com.tosi.chat.client.ChatUsageRecorder;
+import com.tosi.chat.service.ChatResponseCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * 여러 클래스에 흩어진 집계 값을 /actuator/prometheus로 내보낼 지표로 등록하고, 진행 중인 SSE 스트림 수를 측정합니다.
+ * OpenAI API 토큰 사용량은 ChatUsageRecorder, 응답 캐시 적중 수는 ChatResponseCache의 값을 그대로 읽습니다.
+ */
+@Component
+public class ChatMetrics {
+    private final LongTaskTimer streamTimer;
+
+    public ChatMetrics(MeterRegistry meterRegistry,
+                       ChatUsageRecorder chatUsageRecorder,
+                       ChatResponseCache chatResponseCache) {
+        this.streamTimer = LongTaskTimer.builder("chat.streams")
+                .description("클라이언트에 응답을 보내고 있는 SSE 스트림")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("chat.openai.tokens", chatUsageRecorder, ChatUsageRecorder::getPromptTokens)
+                .description("OpenAI API 응답의 usage에 담긴 토큰 수")
+                .tag("type", "prompt")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.openai.tokens", chatUsageRecorder, ChatUsageRecorder::getCachedPromptTokens)
+                .description("OpenAI API 응답의 usage에 담긴 토큰 수")
+                .tag("type", "cached")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.openai.tokens", chatUsageRecorder, ChatUsageRecorder::getCompletionTokens)
+                .description("OpenAI API 응답의 usage에 담긴 토큰 수")
+                .tag("type", "completion")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("chat.response.cache.requests", chatResponseCache, ChatResponseCache::getExactHitCount)
+                .description("응답 캐시 조회 결과")
+                .tag("result", "exact")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.response.cache.requests", chatResponseCache, ChatResponseCache::getSimilarHitCount)
+                .description("응답 캐시 조회 결과")
+                .tag("result", "similar")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.response.cache.requests", chatResponseCache, ChatResponseCache::getMissCount)
+                .description("응답 캐시 조회 결과")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * SSE 스트림 측정을 시작합니다. 스트림이 끝나면 반환한 Sample의 stop을 호출해야 합니다.
+     *
+     * @return 진행 중인 스트림 수와 경과 시간에 반영되는 LongTaskTimer.Sample 객체
+     */
+    public LongTaskTimer.Sample startStream() {
+        return streamTimer.start();
+    }
+}
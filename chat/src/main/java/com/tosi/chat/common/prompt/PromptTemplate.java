@@ -0,0 +1,108 @@
+package com.tosi.chat.common.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {{변수}} 자리표시자를 가진 프롬프트 템플릿
+ * 생성할 때 한 번만 고정 문자열과 변수 조각으로 나눠두고, 렌더링할 때는 결과 길이를 미리 계산한 StringBuilder에 조각을 이어 붙입니다.
+ * 일부 변수만 채운 새 템플릿을 만들 수 있어, 자주 바뀌지 않는 부분을 미리 채워 캐시해두고 요청마다 나머지 변수만 채울 수 있습니다.
+ */
+public final class PromptTemplate {
+    private static final String VARIABLE_START = "{{";
+    private static final String VARIABLE_END = "}}";
+    private final String[] literals; // 항상 variables보다 하나 많음
+    private final String[] variables;
+    private final int literalLength;
+
+    private PromptTemplate(String[] literals, String[] variables) {
+        this.literals = literals;
+        this.variables = variables;
+        int length = 0;
+        for (String literal : literals)
+            length += literal.length();
+        this.literalLength = length;
+    }
+
+    /**
+     * 템플릿 문자열을 고정 문자열과 변수 조각으로 나눕니다.
+     *
+     * @param template {{변수}} 자리표시자를 가진 템플릿 문자열
+     * @return 파싱된 PromptTemplate 객체
+     * @throws IllegalArgumentException 닫히지 않은 자리표시자가 있으면 예외 처리
+     */
+    public static PromptTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = template.indexOf(VARIABLE_START, position)) >= 0) {
+            int end = template.indexOf(VARIABLE_END, start + VARIABLE_START.length());
+            if (end < 0)
+                throw new IllegalArgumentException("닫히지 않은 템플릿 변수가 있습니다. position: " + start);
+            literals.add(template.substring(position, start));
+            variables.add(template.substring(start + VARIABLE_START.length(), end).strip());
+            position = end + VARIABLE_END.length();
+        }
+        literals.add(template.substring(position));
+        return new PromptTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    /**
+     * 템플릿에 나오는 순서대로 변수 이름을 반환합니다.
+     */
+    public List<String> getVariables() {
+        return List.of(variables);
+    }
+
+    /**
+     * 모든 변수를 채운 프롬프트를 만듭니다. 값이 없는 변수는 빈 문자열로 채웁니다.
+     *
+     * @param values 변수 이름과 값
+     * @return 렌더링된 프롬프트
+     */
+    public String render(Map<String, String> values) {
+        if (variables.length == 0)
+            return literals[0];
+
+        int length = literalLength;
+        for (String variable : variables) {
+            String value = values.get(variable);
+            length += value == null ? 0 : value.length();
+        }
+        StringBuilder prompt = new StringBuilder(length);
+        for (int i = 0; i < variables.length; i++) {
+            prompt.append(literals[i]);
+            String value = values.get(variables[i]);
+            if (value != null)
+                prompt.append(value);
+        }
+        return prompt.append(literals[variables.length]).toString();
+    }
+
+    /**
+     * 주어진 변수만 채우고 나머지 변수는 그대로 남긴 새 템플릿을 만듭니다.
+     *
+     * @param values 채울 변수 이름과 값
+     * @return 일부 변수가 채워진 PromptTemplate 객체
+     */
+    public PromptTemplate bind(Map<String, String> values) {
+        List<String> boundLiterals = new ArrayList<>(literals.length);
+        List<String> boundVariables = new ArrayList<>(variables.length);
+        StringBuilder literal = new StringBuilder(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            String value = values.get(variables[i]);
+            if (value != null) {
+                literal.append(value).append(literals[i + 1]);
+                continue;
+            }
+            boundLiterals.add(literal.toString());
+            boundVariables.add(variables[i]);
+            literal.setLength(0);
+            literal.append(literals[i + 1]);
+        }
+        boundLiterals.add(literal.toString());
+        return new PromptTemplate(boundLiterals.toArray(new String[0]), boundVariables.toArray(new String[0]));
+    }
+}
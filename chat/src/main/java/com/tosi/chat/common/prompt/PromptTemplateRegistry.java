@@ -0,0 +1,132 @@
+package com.tosi.chat.common.prompt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 채팅 프롬프트 템플릿을 설정된 위치(chat.prompt.template.location)에서 읽어 파싱해둡니다.
+ * 위치를 file: 경로로 지정하면 주기적으로 파일 수정 시각을 확인하여 바뀐 템플릿을 재배포 없이 다시 읽습니다.
+ * 새 템플릿을 읽거나 파싱하지 못하면 기존 템플릿을 계속 사용합니다.
+ * OpenAI 프롬프트 캐시는 요청마다 같은 앞부분을 재사용하므로, 채팅 시작 템플릿은
+ * 모든 요청에 같은 규칙 -> 동화(taleTitle, taleContent) -> 등장인물(characterName) -> 사용자 정보(childName) 순서여야 합니다.
+ */
+@Slf4j
+@Component
+public class PromptTemplateRegistry {
+    private static final String CHAT_INIT_TEMPLATE = "chat-init.txt";
+    private static final String CHAT_FINAL_TEMPLATE = "chat-final.txt";
+    private static final List<Set<String>> CHAT_INIT_VARIABLE_ORDER = List.of(
+            Set.of("taleTitle", "taleContent"),
+            Set.of("characterName"),
+            Set.of("childName"));
+    private final Resource chatInitResource;
+    private final Resource chatFinalResource;
+    private volatile Templates templates;
+
+    public PromptTemplateRegistry(ResourceLoader resourceLoader,
+                                  @Value("${chat.prompt.template.location}") String location) {
+        String directory = location.endsWith("/") ? location : location + "/";
+        this.chatInitResource = resourceLoader.getResource(directory + CHAT_INIT_TEMPLATE);
+        this.chatFinalResource = resourceLoader.getResource(directory + CHAT_FINAL_TEMPLATE);
+        this.templates = loadTemplates(0);
+    }
+
+    /**
+     * 채팅 시작 프롬프트 템플릿을 반환합니다.
+     * 변수: taleTitle, taleContent, characterName, childName
+     */
+    public PromptTemplate getChatInitTemplate() {
+        return templates.chatInit();
+    }
+
+    /**
+     * 마지막 인사 프롬프트를 반환합니다.
+     */
+    public String getChatFinalPrompt() {
+        return templates.chatFinal();
+    }
+
+    /**
+     * 템플릿을 다시 읽을 때마다 증가하는 버전을 반환합니다.
+     * 템플릿으로 만든 결과를 캐시할 때 키에 포함하여 이전 템플릿의 결과를 사용하지 않도록 합니다.
+     */
+    public long getVersion() {
+        return templates.version();
+    }
+
+    /**
+     * 템플릿 파일의 수정 시각이 바뀌었으면 다시 읽습니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.prompt.template.reload-interval}", initialDelayString = "${chat.prompt.template.reload-interval}")
+    public void reloadIfModified() {
+        Templates current = templates;
+        if (lastModified(chatInitResource) == current.chatInitLastModified()
+                && lastModified(chatFinalResource) == current.chatFinalLastModified())
+            return;
+        try {
+            templates = loadTemplates(current.version() + 1);
+            log.info("프롬프트 템플릿을 다시 읽었습니다. version: {}", current.version() + 1);
+        } catch (RuntimeException e) {
+            log.warn("프롬프트 템플릿을 다시 읽지 못해 기존 템플릿을 사용합니다: {}", e.getMessage());
+        }
+    }
+
+    private Templates loadTemplates(long version) {
+        long chatInitLastModified = lastModified(chatInitResource);
+        long chatFinalLastModified = lastModified(chatFinalResource);
+        PromptTemplate chatInit = validateVariableOrder(PromptTemplate.parse(read(chatInitResource)));
+        String chatFinal = PromptTemplate.parse(read(chatFinalResource)).render(Map.of());
+        return new Templates(version, chatInit, chatFinal, chatInitLastModified, chatFinalLastModified);
+    }
+
+    /**
+     * 채팅 시작 템플릿의 변수가 바뀌지 않는 것부터 요청마다 달라지는 것 순서로 나오는지 확인합니다.
+     *
+     * @throws IllegalArgumentException 알 수 없는 변수가 있거나 순서가 다르면 예외 처리
+     */
+    private PromptTemplate validateVariableOrder(PromptTemplate promptTemplate) {
+        int previousRank = 0;
+        for (String variable : promptTemplate.getVariables()) {
+            int rank = 0;
+            while (rank < CHAT_INIT_VARIABLE_ORDER.size() && !CHAT_INIT_VARIABLE_ORDER.get(rank).contains(variable))
+                rank++;
+            if (rank == CHAT_INIT_VARIABLE_ORDER.size())
+                throw new IllegalArgumentException("알 수 없는 템플릿 변수입니다. variable: " + variable);
+            if (rank < previousRank)
+                throw new IllegalArgumentException("템플릿 변수는 동화 -> 등장인물 -> 사용자 정보 순서여야 합니다. variable: " + variable);
+            previousRank = rank;
+        }
+        return promptTemplate;
+    }
+
+    private String read(Resource resource) {
+        try {
+            return resource.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("프롬프트 템플릿을 읽지 못했습니다. " + resource.getDescription(), e);
+        }
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private record Templates(long version, PromptTemplate chatInit, String chatFinal,
+                             long chatInitLastModified, long chatFinalLastModified) {
+    }
+}
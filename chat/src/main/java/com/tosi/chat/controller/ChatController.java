@@ -2,43 +2,62 @@ package com.tosi.chat.controller;
 
 import com.tosi.chat.dto.ChatInitRequestDto;
 import com.tosi.chat.dto.ChatRequestDto;
+import com.tosi.chat.dto.ChatResponseDto;
 import com.tosi.chat.service.ChatService;
-import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RequiredArgsConstructor
 @RequestMapping("/api/chat")
 @RestController
+@ConditionalOnProperty(name = "chat.engine", havingValue = "servlet", matchIfMissing = true)
 public class ChatController {
     private final ChatService chatService;
 
     @Operation(summary = "사용자가 선택한 등장인물과 채팅 시작")
     @PostMapping("/init")
-    public ResponseEntity<List<MultiChatMessage>> sendInitChat(@RequestHeader("Authorization") String accessToken, @RequestBody ChatInitRequestDto chatInitRequestDto) {
-        Long userId = chatService.findUserAuthorization(accessToken);
-        List<MultiChatMessage> multiChatMessageList = chatService.sendInitChat(chatInitRequestDto);
+    public ResponseEntity<ChatResponseDto> sendInitChat(@RequestHeader("Authorization") String accessToken, @RequestBody ChatInitRequestDto chatInitRequestDto) {
+        ChatResponseDto chatResponseDto = chatService.sendInitChat(accessToken, chatInitRequestDto);
         return ResponseEntity.ok()
-                .body(multiChatMessageList);
+                .body(chatResponseDto);
     }
 
     @Operation(summary = "사용자가 선택한 등장인물과 이어서 채팅하기")
     @PostMapping
-    public ResponseEntity<List<MultiChatMessage>> sendChat(@RequestBody ChatRequestDto chatRequestDto) {
-        List<MultiChatMessage> multiChatMessageList = chatService.sendChat(chatRequestDto);
+    public ResponseEntity<ChatResponseDto> sendChat(@RequestBody ChatRequestDto chatRequestDto) {
+        ChatResponseDto chatResponseDto = chatService.sendChat(chatRequestDto);
         return ResponseEntity.ok()
-                .body(multiChatMessageList);
+                .body(chatResponseDto);
     }
 
     @Operation(summary = "7번의 질문이 끝나고 마지막 인사로 응답")
     @PostMapping("/final")
-    public ResponseEntity<List<MultiChatMessage>> sendFinalChat(@RequestBody ChatRequestDto chatRequestDto) {
-        List<MultiChatMessage> multiChatMessageList = chatService.sendFinalChat(chatRequestDto);
+    public ResponseEntity<ChatResponseDto> sendFinalChat(@RequestBody ChatRequestDto chatRequestDto) {
+        ChatResponseDto chatResponseDto = chatService.sendFinalChat(chatRequestDto);
         return ResponseEntity.ok()
-                .body(multiChatMessageList);
+                .body(chatResponseDto);
+    }
+
+    @Operation(summary = "사용자가 선택한 등장인물과 채팅 시작(SSE 스트리밍)")
+    @PostMapping(value = "/stream/init", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter sendInitChatStream(@RequestHeader("Authorization") String accessToken, @RequestBody ChatInitRequestDto chatInitRequestDto) {
+        return chatService.sendInitChatStream(accessToken, chatInitRequestDto);
+    }
+
+    @Operation(summary = "사용자가 선택한 등장인물과 이어서 채팅하기(SSE 스트리밍)")
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter sendChatStream(@RequestBody ChatRequestDto chatRequestDto) {
+        return chatService.sendChatStream(chatRequestDto);
+    }
+
+    @Operation(summary = "7번의 질문이 끝나고 마지막 인사로 응답(SSE 스트리밍)")
+    @PostMapping(value = "/stream/final", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter sendFinalChatStream(@RequestBody ChatRequestDto chatRequestDto) {
+        return chatService.sendFinalChatStream(chatRequestDto);
     }
 }
@@ -0,0 +1,69 @@
+package com.tosi.chat.controller;
+
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.ChatRequestDto;
+import com.tosi.chat.dto.ChatResponseDto;
+import com.tosi.chat.service.ReactiveChatService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * chat.engine=reactive일 때 ChatController 대신 등록되는 컨트롤러
+ * Mono, Flux를 반환하면 응답을 기다리는 동안 요청 스레드를 반납합니다.
+ */
+@RequiredArgsConstructor
+@RequestMapping("/api/chat")
+@RestController
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+public class ReactiveChatController {
+    private final ReactiveChatService reactiveChatService;
+
+    @Operation(summary = "사용자가 선택한 등장인물과 채팅 시작")
+    @PostMapping("/init")
+    public Mono<ResponseEntity<ChatResponseDto>> sendInitChat(@RequestHeader("Authorization") String accessToken, @RequestBody ChatInitRequestDto chatInitRequestDto) {
+        return reactiveChatService.sendInitChat(accessToken, chatInitRequestDto)
+                .map(chatResponseDto -> ResponseEntity.ok()
+                        .body(chatResponseDto));
+    }
+
+    @Operation(summary = "사용자가 선택한 등장인물과 이어서 채팅하기")
+    @PostMapping
+    public Mono<ResponseEntity<ChatResponseDto>> sendChat(@RequestBody ChatRequestDto chatRequestDto) {
+        return reactiveChatService.sendChat(chatRequestDto)
+                .map(chatResponseDto -> ResponseEntity.ok()
+                        .body(chatResponseDto));
+    }
+
+    @Operation(summary = "7번의 질문이 끝나고 마지막 인사로 응답")
+    @PostMapping("/final")
+    public Mono<ResponseEntity<ChatResponseDto>> sendFinalChat(@RequestBody ChatRequestDto chatRequestDto) {
+        return reactiveChatService.sendFinalChat(chatRequestDto)
+                .map(chatResponseDto -> ResponseEntity.ok()
+                        .body(chatResponseDto));
+    }
+
+    @Operation(summary = "사용자가 선택한 등장인물과 채팅 시작(SSE 스트리밍)")
+    @PostMapping(value = "/stream/init", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> sendInitChatStream(@RequestHeader("Authorization") String accessToken, @RequestBody ChatInitRequestDto chatInitRequestDto) {
+        return reactiveChatService.sendInitChatStream(accessToken, chatInitRequestDto);
+    }
+
+    @Operation(summary = "사용자가 선택한 등장인물과 이어서 채팅하기(SSE 스트리밍)")
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> sendChatStream(@RequestBody ChatRequestDto chatRequestDto) {
+        return reactiveChatService.sendChatStream(chatRequestDto);
+    }
+
+    @Operation(summary = "7번의 질문이 끝나고 마지막 인사로 응답(SSE 스트리밍)")
+    @PostMapping(value = "/stream/final", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> sendFinalChatStream(@RequestBody ChatRequestDto chatRequestDto) {
+        return reactiveChatService.sendFinalChatStream(chatRequestDto);
+    }
+}
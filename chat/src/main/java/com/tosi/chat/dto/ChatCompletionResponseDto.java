@@ -0,0 +1,52 @@
+package com.tosi.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * OpenAI API의 채팅 응답 객체
+ * 응답 메시지(n개를 요청하면 choices마다 하나씩)와 함께 프롬프트 캐시 적중 토큰 수가 담긴 usage를 읽습니다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChatCompletionResponseDto {
+    private List<Choice> choices;
+    private ChatUsageDto usage;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Choice {
+        private Message message;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Message {
+        private String content;
+    }
+
+    public String getContent() {
+        if (choices == null || choices.isEmpty() || choices.get(0).getMessage() == null)
+            return null;
+        return choices.get(0).getMessage().getContent();
+    }
+
+    /**
+     * n개의 응답을 요청했을 때 모든 응답 메시지를 반환합니다.
+     */
+    public List<String> getContents() {
+        if (choices == null)
+            return List.of();
+        return choices.stream()
+                .filter(choice -> choice.getMessage() != null && choice.getMessage().getContent() != null)
+                .map(choice -> choice.getMessage().getContent())
+                .toList();
+    }
+}
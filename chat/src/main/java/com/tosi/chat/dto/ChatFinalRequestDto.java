@@ -1,12 +0,0 @@
-package com.tosi.chat.dto;
-
-
-public class ChatFinalRequestDto {
-    public static String finalPrompt = """
-            이제 대화를 마무리할 시간이야. 
-            상대방에게 따뜻하고 친근하게 작별 인사를 건내줘.
-            응원의 말과 함께 공감과 위로를 표현해줘.                 
-            """;
-
-}
-
@@ -0,0 +1,26 @@
+package com.tosi.chat.dto;
+
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChatResponseDto {
+    private String sessionId;
+    private List<MultiChatMessage> multiChatMessageList;
+
+    /**
+     * 이번 채팅에서 새로 추가된 메시지만 담아 반환하는 객체
+     * 이전 대화 내용은 서버의 채팅 세션에 저장되어 있으므로 다음 요청에는 sessionId와 새 메시지만 보내면 됩니다.
+     */
+    @Builder
+    public ChatResponseDto(String sessionId, List<MultiChatMessage> multiChatMessageList) {
+        this.sessionId = sessionId;
+        this.multiChatMessageList = multiChatMessageList;
+    }
+}
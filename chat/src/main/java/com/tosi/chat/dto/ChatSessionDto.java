@@ -0,0 +1,41 @@
+package com.tosi.chat.dto;
+
+import lombok.*;
+
+/**
+ * Redis의 chatSession::{sessionId}에 저장하는 채팅 시작 정보와 채팅을 시작한 회원 번호
+ * 채팅 시작 정보와 같은 필드를 그대로 펼쳐 저장하므로, 회원 번호 없이 저장된 이전 세션도 그대로 읽을 수 있습니다(회원 번호는 null).
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChatSessionDto {
+    private Long userId;
+    private String childName;
+    private String characterName;
+    private Long taleId;
+
+    @Builder
+    public ChatSessionDto(Long userId, String childName, String characterName, Long taleId) {
+        this.userId = userId;
+        this.childName = childName;
+        this.characterName = characterName;
+        this.taleId = taleId;
+    }
+
+    public static ChatSessionDto of(Long userId, ChatInitRequestDto chatInitRequestDto) {
+        return ChatSessionDto.builder()
+                .userId(userId)
+                .childName(chatInitRequestDto.getChildName())
+                .characterName(chatInitRequestDto.getCharacterName())
+                .taleId(chatInitRequestDto.getTaleId())
+                .build();
+    }
+
+    public ChatInitRequestDto toChatInitRequestDto() {
+        return ChatInitRequestDto.builder()
+                .childName(childName)
+                .characterName(characterName)
+                .taleId(taleId)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.tosi.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * stream 모드로 요청했을 때 OpenAI API가 SSE data 라인마다 보내는 청크 객체
+ * 새로 생성된 토큰은 choices[0].delta.content에 담겨 있고,
+ * stream_options.include_usage를 요청하면 마지막 청크에 choices 없이 usage가 담겨 옵니다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChatStreamChunkDto {
+    private List<Choice> choices;
+    private ChatUsageDto usage;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Choice {
+        private Delta delta;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Delta {
+        private String content;
+    }
+
+    public String getDeltaContent() {
+        if (choices == null || choices.isEmpty() || choices.get(0).getDelta() == null)
+            return null;
+        return choices.get(0).getDelta().getContent();
+    }
+}
@@ -0,0 +1,53 @@
+package com.tosi.chat.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * MySQL에 저장할 채팅 한 번의 질문, 응답과 토큰 사용량
+ * 채팅 시작이면 세션 정보(회원 번호, 동화, 등장인물)도 함께 담습니다.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChatTranscriptDto {
+    private String sessionId;
+    private int turn; // 채팅 시작은 0, 이후 질문은 1부터
+    private Long userId; // 채팅 시작일 때만 존재
+    private Long taleId;
+    private String childName;
+    private String characterName;
+    private String question; // 채팅 시작이면 null
+    private String answer;
+    private boolean isFinal;
+    private int promptTokens;
+    private int cachedTokens;
+    private int completionTokens;
+    private Instant createdAt;
+
+    @Builder
+    public ChatTranscriptDto(String sessionId, int turn, Long userId, Long taleId, String childName, String characterName,
+                             String question, String answer, boolean isFinal,
+                             int promptTokens, int cachedTokens, int completionTokens, Instant createdAt) {
+        this.sessionId = sessionId;
+        this.turn = turn;
+        this.userId = userId;
+        this.taleId = taleId;
+        this.childName = childName;
+        this.characterName = characterName;
+        this.question = question;
+        this.answer = answer;
+        this.isFinal = isFinal;
+        this.promptTokens = promptTokens;
+        this.cachedTokens = cachedTokens;
+        this.completionTokens = completionTokens;
+        this.createdAt = createdAt;
+    }
+
+    public boolean isInit() {
+        return turn == 0;
+    }
+}
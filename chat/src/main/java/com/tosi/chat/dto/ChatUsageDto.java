@@ -0,0 +1,37 @@
+package com.tosi.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * OpenAI API 응답의 usage 객체
+ * prompt_tokens_details.cached_tokens는 프롬프트 앞부분이 OpenAI 프롬프트 캐시에 적중하여 재사용된 토큰 수입니다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChatUsageDto {
+    @JsonProperty("prompt_tokens")
+    private int promptTokens;
+    @JsonProperty("completion_tokens")
+    private int completionTokens;
+    @JsonProperty("total_tokens")
+    private int totalTokens;
+    @JsonProperty("prompt_tokens_details")
+    private PromptTokensDetails promptTokensDetails;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class PromptTokensDetails {
+        @JsonProperty("cached_tokens")
+        private int cachedTokens;
+    }
+
+    public int getCachedTokens() {
+        return promptTokensDetails == null ? 0 : promptTokensDetails.getCachedTokens();
+    }
+}
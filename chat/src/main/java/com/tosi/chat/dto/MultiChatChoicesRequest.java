@@ -0,0 +1,17 @@
+package com.tosi.chat.dto;
+
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatRequest;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class MultiChatChoicesRequest extends MultiChatRequest {
+    private final int n; // 같은 메시지로 생성할 응답 수; 프롬프트 토큰은 한 번만 과금
+
+    public MultiChatChoicesRequest(String model, List<MultiChatMessage> messages, Integer maxTokens, Double temperature, Double topP, int n) {
+        super(model, messages, maxTokens, temperature, topP);
+        this.n = n;
+    }
+}
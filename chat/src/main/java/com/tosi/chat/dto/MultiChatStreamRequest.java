@@ -0,0 +1,22 @@
+package com.tosi.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatRequest;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class MultiChatStreamRequest extends MultiChatRequest {
+    private final boolean stream = true; // 응답을 SSE 청크로 나눠서 받음
+    @JsonProperty("stream_options")
+    private final StreamOptions streamOptions = new StreamOptions(true); // 마지막 청크로 usage를 받음
+
+    public MultiChatStreamRequest(String model, List<MultiChatMessage> messages, Integer maxTokens, Double temperature, Double topP) {
+        super(model, messages, maxTokens, temperature, topP);
+    }
+
+    public record StreamOptions(@JsonProperty("include_usage") boolean includeUsage) {
+    }
+}
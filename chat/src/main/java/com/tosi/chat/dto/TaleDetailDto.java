@@ -4,17 +4,16 @@ import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.redis.core.RedisHash;
 
 import java.util.List;
 
-@RedisHash("TaleDetailDto")
+/**
+ * Redis에는 TaleDetailDtoCodec의 바이너리 형식으로 저장합니다(TaleDetailDtoRedisRepository).
+ */
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class TaleDetailDto {
 
-    @Id // Redis 고유 식별자
     private long taleId;
     private String title;
     private String content;
@@ -0,0 +1,148 @@
+package com.tosi.chat.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.ChatSessionDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+
+/**
+ * 채팅 세션을 Redis에 저장합니다.
+ * chatSession::{sessionId}에는 프롬프트를 다시 만들 때 필요한 채팅 시작 정보와 채팅을 시작한 회원 번호를,
+ * chatSession::{sessionId}::messages에는 사용자와 시스템 간의 메시지를 append-only 리스트로 저장합니다.
+ * 시스템 프롬프트는 저장하지 않고 요청마다 채팅 시작 정보로 다시 만들기 때문에 클라이언트가 조작할 수 없습니다.
+ */
+@Repository
+public class ChatSessionRedisRepository {
+    static final String SESSION_PREFIX = "chatSession::";
+    static final String MESSAGES_SUFFIX = "::messages";
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer writeTimer;
+    private final Timer readTimer;
+    @Value("${chat.session.ttl}")
+    private Duration sessionTtl;
+
+    public ChatSessionRedisRepository(StringRedisTemplate stringRedisTemplate,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.writeTimer = Timer.builder("chat.session.serialization")
+                .description("세션 메시지 하나를 JSON으로 변환하는 시간")
+                .tag("operation", "write")
+                .register(meterRegistry);
+        this.readTimer = Timer.builder("chat.session.serialization")
+                .description("세션 메시지 하나를 JSON으로 변환하는 시간")
+                .tag("operation", "read")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 채팅을 시작한 회원 번호, 채팅 시작 정보와 첫 메시지들을 저장하고 세션 만료 시간을 설정합니다.
+     *
+     * @param sessionId            채팅 세션 번호
+     * @param userId               채팅을 시작한 회원 번호
+     * @param chatInitRequestDto   채팅 시작 정보가 담긴 ChatInitRequestDto 객체
+     * @param multiChatMessageList 세션에 추가할 메시지 리스트
+     */
+    public void saveSession(String sessionId, Long userId, ChatInitRequestDto chatInitRequestDto, List<MultiChatMessage> multiChatMessageList) {
+        String session = writeValue(ChatSessionDto.of(userId, chatInitRequestDto));
+        String[] messages = writeValues(multiChatMessageList);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringRedisConnection = (StringRedisConnection) connection;
+            stringRedisConnection.setEx(SESSION_PREFIX + sessionId, sessionTtl.toSeconds(), session);
+            stringRedisConnection.rPush(SESSION_PREFIX + sessionId + MESSAGES_SUFFIX, messages);
+            stringRedisConnection.expire(SESSION_PREFIX + sessionId + MESSAGES_SUFFIX, sessionTtl.toSeconds());
+            return null;
+        });
+    }
+
+    /**
+     * 세션의 메시지 리스트 끝에 새로운 메시지들을 추가하고 세션 만료 시간을 연장합니다.
+     *
+     * @param sessionId            채팅 세션 번호
+     * @param multiChatMessageList 세션에 추가할 메시지 리스트
+     */
+    public void appendMessages(String sessionId, List<MultiChatMessage> multiChatMessageList) {
+        String[] messages = writeValues(multiChatMessageList);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringRedisConnection = (StringRedisConnection) connection;
+            stringRedisConnection.rPush(SESSION_PREFIX + sessionId + MESSAGES_SUFFIX, messages);
+            stringRedisConnection.expire(SESSION_PREFIX + sessionId + MESSAGES_SUFFIX, sessionTtl.toSeconds());
+            stringRedisConnection.expire(SESSION_PREFIX + sessionId, sessionTtl.toSeconds());
+            return null;
+        });
+    }
+
+    /**
+     * 세션의 채팅 시작 정보와 채팅을 시작한 회원 번호를 조회합니다.
+     *
+     * @param sessionId 채팅 세션 번호
+     * @return 채팅 시작 정보와 회원 번호가 담긴 ChatSessionDto 객체; 세션이 없거나 만료되면 빈 Optional
+     */
+    public Optional<ChatSessionDto> findSession(String sessionId) {
+        String session = stringRedisTemplate.opsForValue().get(SESSION_PREFIX + sessionId);
+        if (session == null)
+            return Optional.empty();
+        return Optional.of(readValue(session, ChatSessionDto.class));
+    }
+
+    /**
+     * 세션에 저장된 메시지 리스트를 순서대로 조회합니다.
+     *
+     * @param sessionId 채팅 세션 번호
+     * @return 사용자와 시스템 간의 MultiChatMessage 객체 리스트
+     */
+    public List<MultiChatMessage> findMessages(String sessionId) {
+        List<String> messages = stringRedisTemplate.opsForList().range(SESSION_PREFIX + sessionId + MESSAGES_SUFFIX, 0, -1);
+        List<MultiChatMessage> multiChatMessageList = new ArrayList<>(messages == null ? 0 : messages.size());
+        if (messages != null) {
+            for (String message : messages)
+                multiChatMessageList.add(readValue(message, MultiChatMessage.class));
+        }
+        return multiChatMessageList;
+    }
+
+    private String[] writeValues(List<MultiChatMessage> multiChatMessageList) {
+        String[] values = new String[multiChatMessageList.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = writeValue(multiChatMessageList.get(i));
+        return values;
+    }
+
+    private String writeValue(Object value) {
+        long startTime = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            writeTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T readValue(String value, Class<T> type) {
+        long startTime = System.nanoTime();
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            readTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.tosi.chat.repository;
+
+import com.tosi.chat.dto.ChatTranscriptDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * 채팅 기록을 JDBC batch insert로 MySQL에 저장합니다.
+ * 세션 정보는 chat_session, 질문과 응답, 토큰 사용량은 chat_turn 테이블에 저장합니다(schema.sql).
+ * 여러 행을 한 번에 보내도록 datasource URL에 rewriteBatchedStatements=true를 설정합니다.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.transcript.enabled", havingValue = "true")
+public class ChatTranscriptJdbcRepository {
+    private static final String INSERT_SESSION = """
+            INSERT IGNORE INTO chat_session (session_id, user_id, tale_id, child_name, character_name, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_TURN = """
+            INSERT INTO chat_turn (session_id, turn, question, answer, is_final, prompt_tokens, cached_tokens, completion_tokens, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 채팅 기록을 한 번에 저장합니다.
+     *
+     * @param chatTranscriptDtoList 저장할 채팅 기록 리스트
+     */
+    public void saveAll(List<ChatTranscriptDto> chatTranscriptDtoList) {
+        List<ChatTranscriptDto> sessions = chatTranscriptDtoList.stream()
+                .filter(ChatTranscriptDto::isInit)
+                .toList();
+        if (!sessions.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SESSION, sessions, sessions.size(), (ps, chatTranscriptDto) -> {
+                ps.setString(1, chatTranscriptDto.getSessionId());
+                ps.setObject(2, chatTranscriptDto.getUserId(), Types.BIGINT);
+                ps.setObject(3, chatTranscriptDto.getTaleId(), Types.BIGINT);
+                ps.setString(4, chatTranscriptDto.getChildName());
+                ps.setString(5, chatTranscriptDto.getCharacterName());
+                ps.setTimestamp(6, Timestamp.from(chatTranscriptDto.getCreatedAt()));
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_TURN, chatTranscriptDtoList, chatTranscriptDtoList.size(), (ps, chatTranscriptDto) -> {
+            ps.setString(1, chatTranscriptDto.getSessionId());
+            ps.setInt(2, chatTranscriptDto.getTurn());
+            ps.setString(3, chatTranscriptDto.getQuestion());
+            ps.setString(4, chatTranscriptDto.getAnswer());
+            ps.setBoolean(5, chatTranscriptDto.isFinal());
+            ps.setInt(6, chatTranscriptDto.getPromptTokens());
+            ps.setInt(7, chatTranscriptDto.getCachedTokens());
+            ps.setInt(8, chatTranscriptDto.getCompletionTokens());
+            ps.setTimestamp(9, Timestamp.from(chatTranscriptDto.getCreatedAt()));
+        });
+    }
+}
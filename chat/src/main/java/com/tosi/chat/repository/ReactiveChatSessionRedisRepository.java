@@ -0,0 +1,134 @@
+package com.tosi.chat.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.ChatSessionDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reactive 채팅 엔진에서 사용하는 채팅 세션 저장소
+ * ChatSessionRedisRepository와 같은 키, 같은 형식으로 저장하므로 두 엔진이 세션을 공유할 수 있습니다.
+ */
+@Repository
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+public class ReactiveChatSessionRedisRepository {
+    private static final String SESSION_PREFIX = ChatSessionRedisRepository.SESSION_PREFIX;
+    private static final String MESSAGES_SUFFIX = ChatSessionRedisRepository.MESSAGES_SUFFIX;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer writeTimer;
+    private final Timer readTimer;
+    @Value("${chat.session.ttl}")
+    private Duration sessionTtl;
+
+    public ReactiveChatSessionRedisRepository(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                               ObjectMapper objectMapper,
+                                               MeterRegistry meterRegistry) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.writeTimer = Timer.builder("chat.session.serialization")
+                .description("세션 메시지 하나를 JSON으로 변환하는 시간")
+                .tag("operation", "write")
+                .register(meterRegistry);
+        this.readTimer = Timer.builder("chat.session.serialization")
+                .description("세션 메시지 하나를 JSON으로 변환하는 시간")
+                .tag("operation", "read")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 채팅을 시작한 회원 번호, 채팅 시작 정보와 첫 메시지들을 저장하고 세션 만료 시간을 설정합니다.
+     *
+     * @param sessionId            채팅 세션 번호
+     * @param userId               채팅을 시작한 회원 번호
+     * @param chatInitRequestDto   채팅 시작 정보가 담긴 ChatInitRequestDto 객체
+     * @param multiChatMessageList 세션에 추가할 메시지 리스트
+     * @return 저장이 끝나면 완료되는 Mono
+     */
+    public Mono<Void> saveSession(String sessionId, Long userId, ChatInitRequestDto chatInitRequestDto, List<MultiChatMessage> multiChatMessageList) {
+        String messagesKey = SESSION_PREFIX + sessionId + MESSAGES_SUFFIX;
+        return Mono.when(
+                reactiveStringRedisTemplate.opsForValue().set(SESSION_PREFIX + sessionId, writeValue(ChatSessionDto.of(userId, chatInitRequestDto)), sessionTtl),
+                reactiveStringRedisTemplate.opsForList().rightPushAll(messagesKey, writeValues(multiChatMessageList))
+                        .then(reactiveStringRedisTemplate.expire(messagesKey, sessionTtl)));
+    }
+
+    /**
+     * 세션의 메시지 리스트 끝에 새로운 메시지들을 추가하고 세션 만료 시간을 연장합니다.
+     *
+     * @param sessionId            채팅 세션 번호
+     * @param multiChatMessageList 세션에 추가할 메시지 리스트
+     * @return 저장이 끝나면 완료되는 Mono
+     */
+    public Mono<Void> appendMessages(String sessionId, List<MultiChatMessage> multiChatMessageList) {
+        String messagesKey = SESSION_PREFIX + sessionId + MESSAGES_SUFFIX;
+        return Mono.when(
+                reactiveStringRedisTemplate.opsForList().rightPushAll(messagesKey, writeValues(multiChatMessageList))
+                        .then(reactiveStringRedisTemplate.expire(messagesKey, sessionTtl)),
+                reactiveStringRedisTemplate.expire(SESSION_PREFIX + sessionId, sessionTtl));
+    }
+
+    /**
+     * 세션의 채팅 시작 정보와 채팅을 시작한 회원 번호를 조회합니다.
+     *
+     * @param sessionId 채팅 세션 번호
+     * @return 채팅 시작 정보와 회원 번호가 담긴 ChatSessionDto를 발행하는 Mono; 세션이 없거나 만료되면 비어 있음
+     */
+    public Mono<ChatSessionDto> findSession(String sessionId) {
+        return reactiveStringRedisTemplate.opsForValue().get(SESSION_PREFIX + sessionId)
+                .map(session -> readValue(session, ChatSessionDto.class));
+    }
+
+    /**
+     * 세션에 저장된 메시지 리스트를 순서대로 조회합니다.
+     *
+     * @param sessionId 채팅 세션 번호
+     * @return 사용자와 시스템 간의 MultiChatMessage 객체 리스트를 발행하는 Mono
+     */
+    public Mono<List<MultiChatMessage>> findMessages(String sessionId) {
+        return reactiveStringRedisTemplate.opsForList().range(SESSION_PREFIX + sessionId + MESSAGES_SUFFIX, 0, -1)
+                .map(message -> readValue(message, MultiChatMessage.class))
+                .collectList();
+    }
+
+    private String[] writeValues(List<MultiChatMessage> multiChatMessageList) {
+        String[] values = new String[multiChatMessageList.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = writeValue(multiChatMessageList.get(i));
+        return values;
+    }
+
+    private String writeValue(Object value) {
+        long startTime = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            writeTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T readValue(String value, Class<T> type) {
+        long startTime = System.nanoTime();
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            readTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tosi.chat.repository;
+
+import com.tosi.chat.dto.TaleDetailDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.tosi.chat.repository.TaleDetailDtoRedisRepository.*;
+
+/**
+ * TaleDetailDtoRedisRepository의 reactive 버전입니다. 같은 키와 형식을 사용하며, 읽을 수 없는 값도 같은 방식으로 삭제합니다.
+ * Redis 명령 실패는 그대로 발행하여 ReactiveTaleServiceImpl이 한 곳에서 처리합니다.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+public class ReactiveTaleDetailDtoRedisRepository {
+    private final ReactiveRedisTemplate<String, byte[]> reactiveBinaryRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final TaleDetailDtoCodec taleDetailDtoCodec;
+    private final boolean readLegacy;
+
+    public ReactiveTaleDetailDtoRedisRepository(@Qualifier("reactiveBinaryRedisTemplate") ReactiveRedisTemplate<String, byte[]> reactiveBinaryRedisTemplate,
+                                                ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                                TaleDetailDtoCodec taleDetailDtoCodec,
+                                                @Value("${cache.tale.codec.read-legacy}") boolean readLegacy) {
+        this.reactiveBinaryRedisTemplate = reactiveBinaryRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.taleDetailDtoCodec = taleDetailDtoCodec;
+        this.readLegacy = readLegacy;
+    }
+
+    /**
+     * 동화 정보를 조회합니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보를 발행하는 Mono; 없으면 빈 Mono
+     */
+    public Mono<TaleDetailDto> findById(Long taleId) {
+        Mono<TaleDetailDto> taleDetail = reactiveBinaryRedisTemplate.opsForValue().get(KEY_PREFIX + taleId)
+                .flatMap(value -> decodeOrDelete(taleId, value));
+        if (!readLegacy)
+            return taleDetail;
+        return taleDetail.switchIfEmpty(Mono.defer(() -> findLegacy(taleId)
+                .flatMap(taleDetailDto -> save(taleDetailDto).thenReturn(taleDetailDto))));
+    }
+
+    /**
+     * 동화 정보를 저장하고 만료 시간을 설정합니다.
+     *
+     * @param taleDetailDto 동화 정보가 담긴 TaleDetailDto 객체
+     * @return 저장이 끝나면 완료되는 Mono
+     */
+    public Mono<Void> save(TaleDetailDto taleDetailDto) {
+        return Mono.defer(() -> reactiveBinaryRedisTemplate.opsForValue()
+                .set(KEY_PREFIX + taleDetailDto.getTaleId(), taleDetailDtoCodec.encode(taleDetailDto), TTL)
+                .then());
+    }
+
+    /**
+     * 새 키의 값을 읽고, 읽을 수 없으면 키를 삭제합니다.
+     *
+     * @return 동화 정보를 발행하는 Mono; 읽을 수 없으면 키를 삭제한 후 빈 Mono
+     */
+    private Mono<TaleDetailDto> decodeOrDelete(Long taleId, byte[] value) {
+        try {
+            return Mono.just(taleDetailDtoCodec.decode(value));
+        } catch (RuntimeException e) {
+            log.warn("동화 정보를 읽지 못해 삭제합니다. taleId: {}, {}", taleId, e.getMessage());
+            return reactiveBinaryRedisTemplate.delete(KEY_PREFIX + taleId).then(Mono.empty());
+        }
+    }
+
+    /**
+     * 이전 형식의 키에서 동화 정보를 찾습니다. 읽을 수 없으면 없는 것으로 취급합니다.
+     */
+    private Mono<TaleDetailDto> findLegacy(Long taleId) {
+        Mono<TaleDetailDto> legacyHash = reactiveStringRedisTemplate.<String, String>opsForHash().entries(LEGACY_HASH_PREFIX + taleId)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(hash -> hash.isEmpty() ? Mono.empty() : decodeLegacy(taleId, () -> taleDetailDtoCodec.decodeHash(hash)));
+        return reactiveBinaryRedisTemplate.opsForValue().get(LEGACY_JSON_PREFIX + taleId)
+                .flatMap(json -> decodeLegacy(taleId, () -> taleDetailDtoCodec.decode(json)))
+                .switchIfEmpty(legacyHash);
+    }
+
+    /**
+     * 이전 형식의 값을 읽습니다.
+     *
+     * @return 동화 정보를 발행하는 Mono; 읽을 수 없으면 빈 Mono
+     */
+    private Mono<TaleDetailDto> decodeLegacy(Long taleId, Supplier<TaleDetailDto> decoder) {
+        try {
+            return Mono.just(decoder.get());
+        } catch (RuntimeException e) {
+            log.warn("이전 형식의 동화 정보를 읽지 못했습니다. taleId: {}, {}", taleId, e.getMessage());
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tosi.chat.repository;
+
+/**
+ * Redis에 저장하는 값과 바이트 배열을 서로 변환합니다.
+ * 저장 형식을 바꿀 때는 새 버전 번호로 쓰고, 이전 버전으로 저장된 값도 읽을 수 있어야 합니다.
+ *
+ * @param <T> 저장할 값의 타입
+ */
+public interface RedisValueCodec<T> {
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+}
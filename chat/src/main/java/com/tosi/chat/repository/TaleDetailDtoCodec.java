@@ -0,0 +1,260 @@
+package com.tosi.chat.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 동화 정보를 Redis에 저장할 바이너리 형식으로 변환합니다.
+ * 첫 바이트는 형식 버전이며, 버전 1은 필드를 정해진 순서로 길이와 함께 쓰고 동화 내용(content)이 compressionThreshold 바이트 이상이면 LZ4로 압축합니다.
+ * 이전 형식인 Jackson JSON('{'로 시작)과 @RedisHash로 저장된 hash도 읽을 수 있습니다.
+ * <p>
+ * 버전 1: version(1) | flags(1) | taleId(8) | title | characters | images | content
+ * 문자열은 길이(4, null이면 -1) + UTF-8, 배열은 개수(4, null이면 -1) + 문자열,
+ * 압축한 content는 원래 길이(4) + 압축한 길이(4) + LZ4 블록입니다.
+ */
+@Component
+public class TaleDetailDtoCodec implements RedisValueCodec<TaleDetailDto> {
+    static final byte VERSION_1 = 1;
+    private static final byte JSON_START = '{';
+    private static final byte FLAG_CONTENT_LZ4 = 1;
+    private static final String CHARACTERS = "characters";
+    private static final String IMAGES = "images";
+    private final ObjectMapper objectMapper;
+    private final LZ4Compressor lz4Compressor;
+    private final LZ4FastDecompressor lz4Decompressor;
+    private final boolean compressionEnabled;
+    private final int compressionThreshold;
+    private final DistributionSummary encodedSize;
+
+    public TaleDetailDtoCodec(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${cache.tale.codec.compression}") Compression compression,
+                              @Value("${cache.tale.codec.compression-threshold}") int compressionThreshold) {
+        this.objectMapper = objectMapper;
+        LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+        this.lz4Compressor = lz4Factory.fastCompressor();
+        this.lz4Decompressor = lz4Factory.fastDecompressor();
+        this.compressionEnabled = compression == Compression.LZ4;
+        this.compressionThreshold = compressionThreshold;
+        this.encodedSize = DistributionSummary.builder("chat.tale.redis.value.size")
+                .description("Redis에 저장하는 동화 정보 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 동화 내용 압축 방식
+     */
+    public enum Compression {
+        NONE, LZ4
+    }
+
+    /**
+     * 동화 정보를 최신 형식(버전 1)으로 변환합니다.
+     *
+     * @param taleDetailDto 동화 정보가 담긴 TaleDetailDto 객체
+     * @return Redis에 저장할 바이트 배열
+     */
+    @Override
+    public byte[] encode(TaleDetailDto taleDetailDto) {
+        byte[] title = toBytes(taleDetailDto.getTitle());
+        byte[][] characters = toBytes(taleDetailDto.getCharacters() == null ? null : Arrays.asList(taleDetailDto.getCharacters()));
+        byte[][] images = toBytes(taleDetailDto.getImages());
+        byte[] content = toBytes(taleDetailDto.getContent());
+        byte[] compressedContent = compress(content);
+
+        int size = 2 + Long.BYTES + sizeOf(title) + sizeOf(characters) + sizeOf(images)
+                + (compressedContent != null ? Integer.BYTES + sizeOf(compressedContent) : sizeOf(content));
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION_1);
+        buffer.put(compressedContent != null ? FLAG_CONTENT_LZ4 : 0);
+        buffer.putLong(taleDetailDto.getTaleId());
+        putBytes(buffer, title);
+        putBytes(buffer, characters);
+        putBytes(buffer, images);
+        if (compressedContent != null) {
+            buffer.putInt(content.length);
+            putBytes(buffer, compressedContent);
+        } else {
+            putBytes(buffer, content);
+        }
+        encodedSize.record(size);
+        return buffer.array();
+    }
+
+    /**
+     * 첫 바이트로 형식을 구분하여 동화 정보로 변환합니다.
+     *
+     * @param bytes Redis에서 읽은 바이트 배열
+     * @return 동화 정보가 담긴 TaleDetailDto 객체
+     * @throws IllegalStateException 읽을 수 없는 형식이면 예외 처리
+     */
+    @Override
+    public TaleDetailDto decode(byte[] bytes) {
+        if (bytes.length == 0)
+            throw new IllegalStateException("비어 있는 동화 정보입니다.");
+        try {
+            return switch (bytes[0]) {
+                case VERSION_1 -> decodeVersion1(ByteBuffer.wrap(bytes));
+                case JSON_START -> objectMapper.readValue(bytes, TaleDetailDto.class);
+                default -> throw new IllegalStateException("지원하지 않는 동화 정보 형식입니다. version: " + bytes[0]);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("동화 정보가 손상되었습니다.", e);
+        }
+    }
+
+    /**
+     * @RedisHash(TaleDetailDto)로 저장된 hash를 동화 정보로 변환합니다.
+     * 배열 필드는 characters.[0], characters.[1]처럼 요소마다 하나의 필드로 저장되어 있습니다.
+     *
+     * @param hash hash의 필드와 값
+     * @return 동화 정보가 담긴 TaleDetailDto 객체; taleId 필드가 없으면 null
+     */
+    public TaleDetailDto decodeHash(Map<String, String> hash) {
+        String taleId = hash.get("taleId");
+        if (taleId == null)
+            return null;
+        List<String> characters = indexedValues(hash, CHARACTERS);
+        return TaleDetailDto.builder()
+                .taleId(Long.parseLong(taleId))
+                .title(hash.get("title"))
+                .content(hash.get("content"))
+                .characters(characters == null ? null : characters.toArray(String[]::new))
+                .images(indexedValues(hash, IMAGES))
+                .build();
+    }
+
+    private TaleDetailDto decodeVersion1(ByteBuffer buffer) {
+        buffer.get(); // version
+        byte flags = buffer.get();
+        long taleId = buffer.getLong();
+        String title = getString(buffer);
+        List<String> characters = getStrings(buffer);
+        List<String> images = getStrings(buffer);
+        String content;
+        if ((flags & FLAG_CONTENT_LZ4) != 0) {
+            int contentLength = buffer.getInt();
+            int compressedLength = buffer.getInt();
+            byte[] contentBytes = lz4Decompressor.decompress(buffer.array(), buffer.position(), contentLength);
+            buffer.position(buffer.position() + compressedLength);
+            content = new String(contentBytes, StandardCharsets.UTF_8);
+        } else {
+            content = getString(buffer);
+        }
+        return TaleDetailDto.builder()
+                .taleId(taleId)
+                .title(title)
+                .content(content)
+                .characters(characters == null ? null : characters.toArray(String[]::new))
+                .images(images)
+                .build();
+    }
+
+    /**
+     * 압축을 사용하고 내용이 compressionThreshold 이상이면 LZ4로 압축합니다.
+     *
+     * @return 압축한 바이트 배열; 압축하지 않거나 압축해도 작아지지 않으면 null
+     */
+    private byte[] compress(byte[] content) {
+        if (!compressionEnabled || content == null || content.length < compressionThreshold)
+            return null;
+        byte[] compressedContent = lz4Compressor.compress(content);
+        return compressedContent.length < content.length ? compressedContent : null;
+    }
+
+    private byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[][] toBytes(List<String> values) {
+        if (values == null)
+            return null;
+        byte[][] bytes = new byte[values.size()][];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = toBytes(values.get(i));
+        return bytes;
+    }
+
+    private int sizeOf(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private int sizeOf(byte[][] values) {
+        int size = Integer.BYTES;
+        if (values != null) {
+            for (byte[] value : values)
+                size += sizeOf(value);
+        }
+        return size;
+    }
+
+    private void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private void putBytes(ByteBuffer buffer, byte[][] values) {
+        if (values == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(values.length);
+        for (byte[] value : values)
+            putBytes(buffer, value);
+    }
+
+    /**
+     * 길이만큼 버퍼의 바이트 배열에서 바로 문자열을 만듭니다(복사하지 않음).
+     */
+    private String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        if (length > buffer.remaining())
+            throw new BufferUnderflowException();
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private List<String> getStrings(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0)
+            return null;
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            values.add(getString(buffer));
+        return values;
+    }
+
+    private List<String> indexedValues(Map<String, String> hash, String name) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; hash.containsKey(name + ".[" + i + "]"); i++)
+            values.add(hash.get(name + ".[" + i + "]"));
+        return values.isEmpty() ? null : values;
+    }
+}
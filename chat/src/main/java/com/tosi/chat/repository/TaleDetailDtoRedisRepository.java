@@ -1,9 +1,118 @@
 package com.tosi.chat.repository;
 
 import com.tosi.chat.dto.TaleDetailDto;
-import org.springframework.data.repository.CrudRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 동화 정보를 TaleDetailDtoCodec의 바이너리 형식으로 Redis에 저장합니다(taleDetail::{taleId}).
+ * servlet, reactive 엔진이 같은 키와 형식을 사용하므로 한 엔진이 저장한 동화를 다른 엔진도 읽습니다.
+ * cache.tale.codec.read-legacy가 true면 새 키에 없을 때 이전 형식의 키(servlet: @RedisHash hash, reactive: JSON 문자열)도 찾아보고,
+ * 찾으면 새 형식으로 다시 저장합니다. 이전 형식은 TTL(3시간)이 지나면 모두 사라지므로 그 후에는 끌 수 있습니다.
+ * 새 키의 값을 읽을 수 없으면(손상, 지원하지 않는 버전) 키를 삭제하고 없는 것으로 취급하여, 동화 서비스에서 다시 조회해 저장하게 합니다.
+ * 여기서는 값을 읽지 못한 경우만 처리하고, Redis 명령 실패(DataAccessException)는 그대로 던져 TaleServiceImpl이 한 곳에서 처리합니다.
+ */
+@Slf4j
 @Repository
-public interface TaleDetailDtoRedisRepository extends CrudRepository<TaleDetailDto, String> {
+public class TaleDetailDtoRedisRepository {
+    static final String KEY_PREFIX = "taleDetail::";
+    static final String LEGACY_HASH_PREFIX = "TaleDetailDto:";
+    static final String LEGACY_JSON_PREFIX = "TaleDetailDto:json:";
+    static final Duration TTL = Duration.ofHours(3);
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TaleDetailDtoCodec taleDetailDtoCodec;
+    private final boolean readLegacy;
+
+    public TaleDetailDtoRedisRepository(@Qualifier("binaryRedisTemplate") RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                        StringRedisTemplate stringRedisTemplate,
+                                        TaleDetailDtoCodec taleDetailDtoCodec,
+                                        @Value("${cache.tale.codec.read-legacy}") boolean readLegacy) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.taleDetailDtoCodec = taleDetailDtoCodec;
+        this.readLegacy = readLegacy;
+    }
+
+    /**
+     * 동화 정보를 조회합니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보가 담긴 TaleDetailDto 객체; 없으면 빈 Optional
+     */
+    public Optional<TaleDetailDto> findById(String taleId) {
+        byte[] value = binaryRedisTemplate.opsForValue().get(KEY_PREFIX + taleId);
+        if (value != null) {
+            TaleDetailDto taleDetailDto = decodeOrDelete(taleId, value);
+            if (taleDetailDto != null)
+                return Optional.of(taleDetailDto);
+        }
+        if (!readLegacy)
+            return Optional.empty();
+
+        TaleDetailDto taleDetailDto = findLegacy(taleId);
+        if (taleDetailDto != null)
+            save(taleDetailDto);
+        return Optional.ofNullable(taleDetailDto);
+    }
+
+    /**
+     * 동화 정보를 저장하고 만료 시간을 설정합니다.
+     *
+     * @param taleDetailDto 동화 정보가 담긴 TaleDetailDto 객체
+     */
+    public void save(TaleDetailDto taleDetailDto) {
+        binaryRedisTemplate.opsForValue().set(KEY_PREFIX + taleDetailDto.getTaleId(), taleDetailDtoCodec.encode(taleDetailDto), TTL);
+    }
+
+    /**
+     * 새 키의 값을 읽고, 읽을 수 없으면 키를 삭제합니다.
+     *
+     * @return 동화 정보가 담긴 TaleDetailDto 객체; 읽을 수 없으면 null
+     */
+    private TaleDetailDto decodeOrDelete(String taleId, byte[] value) {
+        try {
+            return taleDetailDtoCodec.decode(value);
+        } catch (RuntimeException e) {
+            log.warn("동화 정보를 읽지 못해 삭제합니다. taleId: {}, {}", taleId, e.getMessage());
+            binaryRedisTemplate.delete(KEY_PREFIX + taleId);
+            return null;
+        }
+    }
+
+    /**
+     * 이전 형식의 키에서 동화 정보를 찾습니다. 읽을 수 없으면 없는 것으로 취급합니다.
+     */
+    private TaleDetailDto findLegacy(String taleId) {
+        byte[] json = binaryRedisTemplate.opsForValue().get(LEGACY_JSON_PREFIX + taleId);
+        if (json != null)
+            return decodeLegacy(taleId, () -> taleDetailDtoCodec.decode(json));
+        Map<String, String> hash = new HashMap<>();
+        stringRedisTemplate.<String, String>opsForHash().entries(LEGACY_HASH_PREFIX + taleId).forEach(hash::put);
+        return hash.isEmpty() ? null : decodeLegacy(taleId, () -> taleDetailDtoCodec.decodeHash(hash));
+    }
+
+    /**
+     * 이전 형식의 값을 읽습니다.
+     *
+     * @return 동화 정보가 담긴 TaleDetailDto 객체; 읽을 수 없으면 null
+     */
+    private TaleDetailDto decodeLegacy(String taleId, Supplier<TaleDetailDto> decoder) {
+        try {
+            return decoder.get();
+        } catch (RuntimeException e) {
+            log.warn("이전 형식의 동화 정보를 읽지 못했습니다. taleId: {}, {}", taleId, e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 엔진(servlet, reactive)이 공통으로 사용하는 OpenAI API 요청 메시지 리스트를 만듭니다.
+ * 프롬프트는 ChatPromptRenderer로 템플릿에서 만들고, 요청 메시지는 ChatTokenBudgeter로 토큰 예산 안에 맞춥니다.
+ */
+@Component
+public class ChatMessageAssembler {
+    private static final String ROLE_USER = "user";
+    private static final String ROLE_SYSTEM = "system";
+    private final ChatTokenBudgeter chatTokenBudgeter;
+    private final ChatPromptRenderer chatPromptRenderer;
+    private final Timer initPromptTimer;
+    private final Timer chatPromptTimer;
+
+    public ChatMessageAssembler(ChatTokenBudgeter chatTokenBudgeter,
+                                ChatPromptRenderer chatPromptRenderer,
+                                MeterRegistry meterRegistry) {
+        this.chatTokenBudgeter = chatTokenBudgeter;
+        this.chatPromptRenderer = chatPromptRenderer;
+        this.initPromptTimer = Timer.builder("chat.prompt.build")
+                .description("프롬프트 렌더링과 토큰 예산 계산을 포함해 요청 메시지 리스트를 만드는 시간")
+                .tag("type", "init")
+                .register(meterRegistry);
+        this.chatPromptTimer = Timer.builder("chat.prompt.build")
+                .description("프롬프트 렌더링과 토큰 예산 계산을 포함해 요청 메시지 리스트를 만드는 시간")
+                .tag("type", "chat")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 새로운 세션 번호를 발급하고, 시작 프롬프트만 담긴 요청 메시지 리스트를 만듭니다.
+     *
+     * @param userId             인증된 회원 번호
+     * @param chatInitRequestDto 채팅을 시작할 때 필요한 학습 정보가 담긴 ChatInitInfoDto 객체
+     * @param taleDetailDto      동화 정보가 담긴 TaleDetailDto 객체
+     * @return 채팅 시작 요청 정보가 담긴 ChatTurn 객체
+     */
+    public ChatTurn makeInitChatTurn(Long userId, ChatInitRequestDto chatInitRequestDto, TaleDetailDto taleDetailDto) {
+        long startTime = System.nanoTime();
+        List<MultiChatMessage> requestMessageList = new ArrayList<>(1);
+        requestMessageList.add(new MultiChatMessage(ROLE_SYSTEM,
+                makeChatInitPrompt(chatInitRequestDto, taleDetailDto)));
+        initPromptTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        return new ChatTurn(UUID.randomUUID().toString(), userId, chatInitRequestDto, requestMessageList, new ArrayList<>(1), null,
+                new ChatTurnUsage());
+    }
+
+    /**
+     * 세션의 채팅 시작 정보로 시작 프롬프트를 다시 만들고, 세션에 저장된 메시지와 사용자가 보낸 새로운 메시지를 이어 붙여 요청 메시지 리스트를 만듭니다.
+     * 마지막 인사라면 마지막 인사 프롬프트를 추가하되, 세션에는 저장하지 않습니다.
+     * 토큰 예산을 넘으면 동화 내용은 등장인물과 관련 있는 문단만 남기고, 이전 대화는 오래된 것부터 요청에서 제외합니다(세션에는 그대로 남음).
+     * 시작 프롬프트, 마지막 인사 프롬프트의 토큰 수는 캐시된 값을 사용합니다.
+     *
+     * @param sessionId          채팅 세션 번호
+     * @param userId             세션에 저장된 채팅을 시작한 회원 번호
+     * @param chatInitRequestDto 세션에 저장된 채팅 시작 정보
+     * @param taleDetailDto      동화 정보가 담긴 TaleDetailDto 객체
+     * @param sessionMessageList 세션에 저장된 이전 채팅 메시지 리스트
+     * @param multiChatMessage   사용자가 보낸 새로운 메시지
+     * @param isFinal            마지막 인사 여부
+     * @return 채팅 요청 정보가 담긴 ChatTurn 객체
+     */
+    public ChatTurn makeChatTurn(String sessionId, Long userId, ChatInitRequestDto chatInitRequestDto, TaleDetailDto taleDetailDto,
+                                 List<MultiChatMessage> sessionMessageList, String multiChatMessage, boolean isFinal) {
+        long startTime = System.nanoTime();
+        long templateVersion = chatPromptRenderer.getTemplateVersion();
+        String taleContent = selectTaleContent(chatInitRequestDto, taleDetailDto);
+        String chatInitPrompt = chatPromptRenderer.renderChatInitPrompt(chatInitRequestDto, taleDetailDto, taleContent);
+        ChatTokenBudgeter.PromptKey initPromptKey = new ChatTokenBudgeter.PromptKey(chatInitRequestDto.getTaleId(),
+                chatInitRequestDto.getCharacterName(), chatInitRequestDto.getChildName(), templateVersion);
+        int fixedTokens = chatTokenBudgeter.countPromptTokens(initPromptKey, chatInitPrompt) + chatTokenBudgeter.countMessageTokens(multiChatMessage);
+        String finalPrompt = isFinal ? chatPromptRenderer.getChatFinalPrompt() : null;
+        if (isFinal)
+            fixedTokens += chatTokenBudgeter.countPromptTokens(ChatTokenBudgeter.PromptKey.ofFinal(templateVersion), finalPrompt);
+        int historyStart = chatTokenBudgeter.findHistoryStart(sessionMessageList, fixedTokens);
+
+        List<MultiChatMessage> requestMessageList = new ArrayList<>(sessionMessageList.size() - historyStart + 3);
+        requestMessageList.add(new MultiChatMessage(ROLE_SYSTEM, chatInitPrompt));
+        requestMessageList.addAll(sessionMessageList.subList(historyStart, sessionMessageList.size()));
+        MultiChatMessage userMessage = new MultiChatMessage(ROLE_USER, multiChatMessage);
+        requestMessageList.add(userMessage);
+        if (isFinal)
+            requestMessageList.add(new MultiChatMessage(ROLE_SYSTEM, finalPrompt));
+
+        List<MultiChatMessage> newMessageList = new ArrayList<>(2);
+        newMessageList.add(userMessage);
+        ChatResponseCacheKey responseCacheKey = new ChatResponseCacheKey(chatInitRequestDto.getTaleId(), chatInitRequestDto.getCharacterName(),
+                chatPromptRenderer.hashChatPrompt(chatInitRequestDto, taleDetailDto, taleContent, isFinal),
+                chatInitRequestDto.getChildName(), multiChatMessage, countUserMessages(sessionMessageList), isFinal);
+        chatPromptTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        return new ChatTurn(sessionId, userId, null, requestMessageList, newMessageList, responseCacheKey, new ChatTurnUsage());
+    }
+
+    /**
+     * OpenAI API가 응답한 메시지를 이번 채팅의 새 메시지 리스트에 추가합니다.
+     *
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @param content  OpenAI API가 생성한 응답 메시지
+     * @return 세션에 추가할 새 메시지 리스트
+     */
+    public List<MultiChatMessage> addResponseMessage(ChatTurn chatTurn, String content) {
+        chatTurn.newMessageList().add(new MultiChatMessage(ROLE_SYSTEM, content));
+        return chatTurn.newMessageList();
+    }
+
+    /**
+     * 동화 정보를 바탕으로 채팅에 사용할 초기 프롬프트를 생성합니다.
+     * 동화 내용은 토큰 예산 안에서 등장인물과 관련 있는 문단만 사용합니다.
+     * 문단은 대화 내용이 아닌 등장인물로만 고르므로 같은 동화, 등장인물이면 매 요청 같은 프롬프트가 만들어져 OpenAI 프롬프트 캐시에 적중합니다.
+     *
+     * @param chatInitRequestDto 사용자, 동화 정보가 담긴 ChatInitRequest 객체
+     * @param taleDetailDto      동화 정보가 담긴 TaleDetailDto 객체
+     * @return 채팅 시작용 프롬프트
+     */
+    private String makeChatInitPrompt(ChatInitRequestDto chatInitRequestDto, TaleDetailDto taleDetailDto) {
+        return chatPromptRenderer.renderChatInitPrompt(chatInitRequestDto, taleDetailDto, selectTaleContent(chatInitRequestDto, taleDetailDto));
+    }
+
+    private String selectTaleContent(ChatInitRequestDto chatInitRequestDto, TaleDetailDto taleDetailDto) {
+        return chatTokenBudgeter.selectTaleContent(taleDetailDto, Collections.singletonList(chatInitRequestDto.getCharacterName()));
+    }
+
+    private int countUserMessages(List<MultiChatMessage> sessionMessageList) {
+        int count = 0;
+        for (MultiChatMessage message : sessionMessageList) {
+            if (ROLE_USER.equals(message.getRole()))
+                count++;
+        }
+        return count;
+    }
+}
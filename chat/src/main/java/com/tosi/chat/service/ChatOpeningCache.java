@@ -0,0 +1,270 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.client.ChatGptClient;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 채팅 시작 요청이 많은 동화의 등장인물마다 첫 인사를 미리 만들어두고, 채팅 시작 요청에 OpenAI API 호출 없이 바로 응답합니다.
+ * 이름 뒤의 조사(아/야 등)가 이름마다 달라 이름만 바꿔 넣을 수 없으므로, 채팅 상대 이름을 부르지 않는 첫 인사만 만들어 그대로 응답합니다.
+ * 애플리케이션이 시작될 때와 refreshInterval마다 다음을 진행합니다.
+ * 1. 파드마다 센 동화별 채팅 시작 요청 수를 Redis 순위에 더하고, 요청이 많은 동화 topTales개와 taleIds를 고릅니다.
+ * 2. 고른 동화를 조회하여 동화 캐시(로컬, Redis)를 채웁니다.
+ * 3. 동화의 등장인물마다 Redis에 저장된 첫 인사를 가져오고, 없으면 OpenAI API에 n개를 한 번에 요청해 만든 후 Redis에 저장합니다.
+ * Redis 키에는 시작 프롬프트의 해시가 들어가므로, 동화 내용이나 프롬프트 템플릿이 바뀌면 첫 인사를 새로 만듭니다.
+ * chat.opening.enabled가 true일 때만 동작하며, 미리 만들지 못한 (동화, 등장인물)은 기존처럼 OpenAI API로 응답합니다.
+ */
+@Slf4j
+@Component
+public class ChatOpeningCache {
+    private static final String KEY_PREFIX = "chatOpening::";
+    private static final String RANKING_KEY = KEY_PREFIX + "taleRanking";
+    private static final Duration RANKING_TTL = Duration.ofDays(7); // 마지막 갱신 후 순위 유지 시간
+    private static final Duration LOCK_TTL = Duration.ofMinutes(5); // 여러 파드가 같은 첫 인사를 동시에 만들지 않도록 잡는 잠금 시간
+    private static final String SAMPLE_CHILD_NAME = "민지"; // 첫 인사를 만들 때 사용하는 예시 이름; 이 이름이 들어간 첫 인사는 버림
+    private static final String ANONYMOUS_OPENING_PROMPT = "채팅 상대의 이름을 부르지 말고 첫 인사를 해줘.";
+    // 첫 인사 리스트가 없을 때만 저장하고 만료 시간(ms)을 설정; 잠금이 만료된 사이 다른 파드가 저장했다면 저장하지 않고 0
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                return 0
+            end
+            redis.call('RPUSH', KEYS[1], unpack(ARGV, 2))
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+    // 잠금 값이 이 파드가 잡을 때 넣은 값일 때만 잠금을 풀어, 만료 후 다른 파드가 잡은 잠금을 풀지 않음
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+    private final ChatGptClient chatGptClient;
+    private final ChatMessageAssembler chatMessageAssembler;
+    private final TaleService taleService;
+    private final ObjectProvider<ReactiveTaleService> reactiveTaleService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final int topTales;
+    private final List<Long> taleIds;
+    private final int poolSize;
+    private final Duration ttl;
+    private final Map<Long, LongAdder> initCounts = new ConcurrentHashMap<>();
+    private volatile Map<String, List<String>> openingPools = Map.of();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public ChatOpeningCache(ChatGptClient chatGptClient,
+                            ChatMessageAssembler chatMessageAssembler,
+                            TaleService taleService,
+                            ObjectProvider<ReactiveTaleService> reactiveTaleService,
+                            StringRedisTemplate stringRedisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${chat.opening.enabled}") boolean enabled,
+                            @Value("${chat.opening.top-tales}") int topTales,
+                            @Value("${chat.opening.tale-ids}") List<Long> taleIds,
+                            @Value("${chat.opening.pool-size}") int poolSize,
+                            @Value("${chat.opening.ttl}") Duration ttl) {
+        this.chatGptClient = chatGptClient;
+        this.chatMessageAssembler = chatMessageAssembler;
+        this.taleService = taleService;
+        this.reactiveTaleService = reactiveTaleService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.topTales = topTales;
+        this.taleIds = taleIds;
+        this.poolSize = poolSize;
+        this.ttl = ttl;
+
+        FunctionCounter.builder("chat.opening.requests", hitCount, LongAdder::sum)
+                .description("미리 만든 첫 인사 조회 결과")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.opening.requests", missCount, LongAdder::sum)
+                .description("미리 만든 첫 인사 조회 결과")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("chat.opening.pools", this, chatOpeningCache -> chatOpeningCache.openingPools.size())
+                .description("첫 인사를 미리 만들어둔 (동화, 등장인물) 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 미리 만든 첫 인사 중 하나를 고릅니다.
+     * 로컬 메모리에서만 찾으므로 reactive 엔진의 이벤트 루프에서도 호출할 수 있습니다.
+     *
+     * @param chatInitRequestDto 동화, 등장인물 정보가 담긴 ChatInitRequestDto 객체
+     * @return 채팅 상대 이름이 들어 있지 않은 첫 인사; 없으면 빈 Optional
+     */
+    public Optional<String> find(ChatInitRequestDto chatInitRequestDto) {
+        if (!enabled)
+            return Optional.empty();
+        initCounts.computeIfAbsent(chatInitRequestDto.getTaleId(), taleId -> new LongAdder()).increment();
+
+        List<String> openingPool = openingPools.get(poolKey(chatInitRequestDto.getTaleId(), chatInitRequestDto.getCharacterName()));
+        if (openingPool == null || openingPool.isEmpty()) {
+            missCount.increment();
+            return Optional.empty();
+        }
+        hitCount.increment();
+        return Optional.of(openingPool.get(ThreadLocalRandom.current().nextInt(openingPool.size())));
+    }
+
+    /**
+     * 요청이 많은 동화를 고르고, 동화 캐시와 등장인물별 첫 인사를 준비합니다.
+     * OpenAI API 요청이 오래 걸릴 수 있어 다른 예약 작업을 막지 않도록 spring.task.scheduling.pool.size를 2 이상으로 설정합니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.opening.refresh-interval}")
+    public void refresh() {
+        if (!enabled)
+            return;
+        Map<String, List<String>> refreshedPools = new HashMap<>();
+        for (Long taleId : selectTales()) {
+            TaleDetailDto taleDetailDto;
+            try {
+                taleDetailDto = loadTaleDetail(taleId);
+            } catch (RuntimeException e) {
+                log.warn("첫 인사를 준비할 동화 조회 실패: taleId {}, {}", taleId, e.getMessage());
+                continue;
+            }
+            if (taleDetailDto == null || taleDetailDto.getCharacters() == null)
+                continue;
+            for (String characterName : taleDetailDto.getCharacters()) {
+                try {
+                    List<String> openingPool = loadOpeningPool(taleDetailDto, characterName);
+                    if (!openingPool.isEmpty())
+                        refreshedPools.put(poolKey(taleId, characterName), openingPool);
+                } catch (RuntimeException e) {
+                    log.warn("첫 인사 준비 실패: taleId {}, {} {}", taleId, characterName, e.getMessage());
+                }
+            }
+        }
+        openingPools = Map.copyOf(refreshedPools);
+        log.info("첫 인사 준비 완료: (동화, 등장인물) {}개", refreshedPools.size());
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 이 파드에서 센 채팅 시작 요청 수를 Redis 순위에 더하고, 요청이 많은 동화 topTales개와 taleIds를 반환합니다.
+     * Redis에 연결할 수 없으면 taleIds만 반환합니다.
+     */
+    private Set<Long> selectTales() {
+        Set<Long> selectedTaleIds = new LinkedHashSet<>(taleIds);
+        try {
+            initCounts.forEach((taleId, count) -> {
+                long sum = count.sumThenReset();
+                if (sum > 0)
+                    stringRedisTemplate.opsForZSet().incrementScore(RANKING_KEY, String.valueOf(taleId), sum);
+            });
+            stringRedisTemplate.expire(RANKING_KEY, RANKING_TTL);
+            Set<String> rankedTaleIds = stringRedisTemplate.opsForZSet().reverseRange(RANKING_KEY, 0, topTales - 1);
+            if (rankedTaleIds != null)
+                rankedTaleIds.forEach(taleId -> selectedTaleIds.add(Long.valueOf(taleId)));
+        } catch (RuntimeException e) {
+            log.warn("동화 순위 조회 실패: {}", e.getMessage());
+        }
+        return selectedTaleIds;
+    }
+
+    /**
+     * 채팅 엔진이 사용하는 동화 캐시로 동화를 조회합니다.
+     */
+    private TaleDetailDto loadTaleDetail(Long taleId) {
+        ReactiveTaleService taleServiceReactive = reactiveTaleService.getIfAvailable();
+        if (taleServiceReactive != null)
+            return taleServiceReactive.findTaleDetail(taleId).block();
+        return taleService.findTaleDetail(taleId);
+    }
+
+    /**
+     * Redis에 저장된 첫 인사를 가져오고, 없으면 OpenAI API로 poolSize개를 만들어 저장합니다.
+     * 시작 프롬프트에 이름을 부르지 말라는 지시를 덧붙여 요청하고, 그래도 예시 이름이 들어간 첫 인사는 버립니다.
+     * 다른 파드가 만들고 있으면 이번에는 건너뛰고 다음 갱신 때 가져옵니다.
+     * 잠금을 잡은 사이 다른 파드가 저장을 마쳤을 수 있으므로 잠금을 잡은 후 다시 조회하고, 저장은 리스트가 없을 때만 합니다.
+     */
+    private List<String> loadOpeningPool(TaleDetailDto taleDetailDto, String characterName) {
+        ChatInitRequestDto chatInitRequestDto = ChatInitRequestDto.builder()
+                .taleId(taleDetailDto.getTaleId())
+                .characterName(characterName)
+                .childName(SAMPLE_CHILD_NAME)
+                .build();
+        ChatTurn chatTurn = chatMessageAssembler.makeInitChatTurn(null, chatInitRequestDto, taleDetailDto);
+        List<MultiChatMessage> requestMessageList = new ArrayList<>(chatTurn.requestMessageList());
+        requestMessageList.add(new MultiChatMessage("system", ANONYMOUS_OPENING_PROMPT));
+        String redisKey = KEY_PREFIX + taleDetailDto.getTaleId() + "::" + hash(requestMessageList);
+
+        List<String> openingPool = stringRedisTemplate.opsForList().range(redisKey, 0, -1);
+        if (openingPool != null && !openingPool.isEmpty())
+            return openingPool;
+        String lockKey = redisKey + "::lock";
+        String lockToken = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(lockKey, lockToken, LOCK_TTL)))
+            return List.of();
+
+        try {
+            openingPool = stringRedisTemplate.opsForList().range(redisKey, 0, -1);
+            if (openingPool != null && !openingPool.isEmpty())
+                return openingPool;
+
+            openingPool = chatGptClient.requestChoices(requestMessageList, ChatGptProperties.Tier.STANDARD, poolSize).stream()
+                    .filter(opening -> !opening.isBlank() && !opening.contains(SAMPLE_CHILD_NAME))
+                    .toList();
+            if (openingPool.isEmpty())
+                return openingPool;
+            List<String> storeArgs = new ArrayList<>(openingPool.size() + 1);
+            storeArgs.add(String.valueOf(ttl.toMillis()));
+            storeArgs.addAll(openingPool);
+            Long stored = stringRedisTemplate.execute(STORE_SCRIPT, List.of(redisKey), storeArgs.toArray());
+            if (Long.valueOf(1).equals(stored))
+                return openingPool;
+            List<String> storedPool = stringRedisTemplate.opsForList().range(redisKey, 0, -1);
+            return storedPool == null || storedPool.isEmpty() ? openingPool : storedPool;
+        } finally {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), lockToken);
+        }
+    }
+
+    private String poolKey(Long taleId, String characterName) {
+        return taleId + "::" + characterName;
+    }
+
+    private String hash(List<MultiChatMessage> requestMessageList) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (MultiChatMessage message : requestMessageList)
+                messageDigest.update((message.getContent() + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.tosi.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tosi.chat.common.prompt.PromptTemplate;
+import com.tosi.chat.common.prompt.PromptTemplateRegistry;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.TaleDetailDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * 프롬프트 템플릿으로 채팅 시작 프롬프트와 마지막 인사 프롬프트를 만듭니다.
+ * 동화 제목과 내용을 채운 템플릿을 (동화 번호, 동화 내용, 템플릿 버전)마다 캐시해두고, 요청마다 등장인물과 사용자 이름만 채웁니다.
+ */
+@Component
+public class ChatPromptRenderer {
+    private static final String TALE_TITLE = "taleTitle";
+    private static final String TALE_CONTENT = "taleContent";
+    private static final String CHARACTER_NAME = "characterName";
+    private static final String CHILD_NAME = "childName";
+    private static final String CHILD_NAME_PLACEHOLDER = "{{childName}}";
+    private final PromptTemplateRegistry promptTemplateRegistry;
+    private final Cache<Long, TalePromptTemplate> talePromptTemplateCache;
+    private final Cache<PromptHashKey, PromptHash> promptHashCache;
+
+    public ChatPromptRenderer(PromptTemplateRegistry promptTemplateRegistry,
+                              @Value("${cache.tale.local.maximum-size}") long maximumSize) {
+        this.promptTemplateRegistry = promptTemplateRegistry;
+        this.talePromptTemplateCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.promptHashCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * 채팅 시작 프롬프트를 만듭니다.
+     * 토큰 예산 때문에 동화 내용 일부만 사용하는 요청은 동화 내용이 요청마다 달라지므로 캐시하지 않고 바로 렌더링합니다.
+     *
+     * @param chatInitRequestDto 사용자, 등장인물 정보가 담긴 ChatInitRequestDto 객체
+     * @param taleDetailDto      동화 정보가 담긴 TaleDetailDto 객체
+     * @param taleContent        프롬프트에 넣을 동화 내용
+     * @return 채팅 시작 프롬프트
+     */
+    public String renderChatInitPrompt(ChatInitRequestDto chatInitRequestDto, TaleDetailDto taleDetailDto, String taleContent) {
+        Map<String, String> childValues = childValues(chatInitRequestDto);
+        if (!taleContent.equals(taleDetailDto.getContent())) {
+            return promptTemplateRegistry.getChatInitTemplate()
+                    .bind(Map.of(TALE_TITLE, nullToEmpty(taleDetailDto.getTitle()), TALE_CONTENT, taleContent))
+                    .render(childValues);
+        }
+        return findTalePromptTemplate(taleDetailDto).render(childValues);
+    }
+
+    /**
+     * 사용자 이름을 자리표시자로 둔 채팅 프롬프트(마지막 인사면 마지막 인사 프롬프트 포함)의 SHA-256 해시를 반환합니다.
+     * 템플릿이나 동화 내용이 바뀌면 해시도 바뀌므로, 프롬프트로 만든 응답을 캐시할 때 키에 포함하여 이전 프롬프트의 응답을 사용하지 않도록 합니다.
+     * 해시는 (동화, 등장인물, 템플릿 버전, 마지막 인사 여부)마다 한 번만 계산합니다.
+     *
+     * @param chatInitRequestDto 등장인물 정보가 담긴 ChatInitRequestDto 객체
+     * @param taleDetailDto      동화 정보가 담긴 TaleDetailDto 객체
+     * @param taleContent        프롬프트에 넣을 동화 내용
+     * @param isFinal            마지막 인사 여부
+     * @return 프롬프트 해시(16진수)
+     */
+    public String hashChatPrompt(ChatInitRequestDto chatInitRequestDto, TaleDetailDto taleDetailDto, String taleContent, boolean isFinal) {
+        PromptHashKey promptHashKey = new PromptHashKey(taleDetailDto.getTaleId(), chatInitRequestDto.getCharacterName(),
+                promptTemplateRegistry.getVersion(), isFinal);
+        PromptHash promptHash = promptHashCache.getIfPresent(promptHashKey);
+        if (promptHash == null || !promptHash.taleContent().equals(taleContent)) {
+            ChatInitRequestDto anonymousRequestDto = ChatInitRequestDto.builder()
+                    .taleId(chatInitRequestDto.getTaleId())
+                    .characterName(chatInitRequestDto.getCharacterName())
+                    .childName(CHILD_NAME_PLACEHOLDER)
+                    .build();
+            String prompt = renderChatInitPrompt(anonymousRequestDto, taleDetailDto, taleContent);
+            if (isFinal)
+                prompt += "\n" + getChatFinalPrompt();
+            promptHash = new PromptHash(taleContent, sha256(prompt));
+            promptHashCache.put(promptHashKey, promptHash);
+        }
+        return promptHash.hash();
+    }
+
+    /**
+     * 마지막 인사 프롬프트를 반환합니다.
+     */
+    public String getChatFinalPrompt() {
+        return promptTemplateRegistry.getChatFinalPrompt();
+    }
+
+    /**
+     * 프롬프트 템플릿의 현재 버전을 반환합니다.
+     */
+    public long getTemplateVersion() {
+        return promptTemplateRegistry.getVersion();
+    }
+
+    /**
+     * 동화 제목과 내용을 채운 템플릿을 캐시에서 찾고, 없거나 동화 내용, 템플릿이 바뀌었으면 새로 만듭니다.
+     */
+    private PromptTemplate findTalePromptTemplate(TaleDetailDto taleDetailDto) {
+        long templateVersion = promptTemplateRegistry.getVersion();
+        TalePromptTemplate talePromptTemplate = talePromptTemplateCache.getIfPresent(taleDetailDto.getTaleId());
+        if (talePromptTemplate == null
+                || talePromptTemplate.templateVersion() != templateVersion
+                || !talePromptTemplate.content().equals(taleDetailDto.getContent())) {
+            PromptTemplate promptTemplate = promptTemplateRegistry.getChatInitTemplate().bind(Map.of(
+                    TALE_TITLE, nullToEmpty(taleDetailDto.getTitle()),
+                    TALE_CONTENT, taleDetailDto.getContent()));
+            talePromptTemplate = new TalePromptTemplate(templateVersion, taleDetailDto.getContent(), promptTemplate);
+            talePromptTemplateCache.put(taleDetailDto.getTaleId(), talePromptTemplate);
+        }
+        return talePromptTemplate.promptTemplate();
+    }
+
+    private Map<String, String> childValues(ChatInitRequestDto chatInitRequestDto) {
+        return Map.of(CHARACTER_NAME, nullToEmpty(chatInitRequestDto.getCharacterName()),
+                CHILD_NAME, nullToEmpty(chatInitRequestDto.getChildName()));
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private String sha256(String prompt) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record TalePromptTemplate(long templateVersion, String content, PromptTemplate promptTemplate) {
+    }
+
+    private record PromptHashKey(Long taleId, String characterName, long templateVersion, boolean isFinal) {
+    }
+
+    private record PromptHash(String taleContent, String hash) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.tosi.chat.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 같은 등장인물에게 반복되는 질문의 응답을 저장해두고 OpenAI API 호출 없이 바로 응답합니다.
+ * (동화, 등장인물, 프롬프트 해시, 질문 순서, 마지막 인사 여부)가 같은 요청 중에서
+ * 로컬 유사도 계층(ChatResponseVectorIndex)에서 비슷한 질문을 먼저 찾고, 없으면 Redis에서 정규화된 질문이 정확히 같은 응답을 찾습니다.
+ * 채팅 상대 이름이 들어간 응답은 다른 사용자에게 줄 수 없으므로 저장하지 않습니다.
+ * 이름 뒤의 조사(아/야, 이/가 등)가 이름마다 달라 이름만 바꿔 넣으면 문장이 어색해지기 때문입니다.
+ * chat.response-cache.enabled가 true일 때만 동작하며, 캐시 조회, 저장에 실패해도 채팅은 OpenAI API로 계속 진행됩니다.
+ */
+@Slf4j
+@Component
+public class ChatResponseCache {
+    private static final String KEY_PREFIX = "chatResponse::";
+    private static final int MAX_MESSAGE_LENGTH = 100; // 이보다 긴 질문은 반복될 가능성이 낮아 캐시하지 않음
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final ChatResponseVectorIndex chatResponseVectorIndex;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final LongAdder similarHitCount = new LongAdder();
+    private final LongAdder exactHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public ChatResponseCache(StringRedisTemplate stringRedisTemplate,
+                             ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                             @Value("${chat.response-cache.enabled}") boolean enabled,
+                             @Value("${chat.response-cache.ttl}") Duration ttl,
+                             @Value("${chat.response-cache.local.maximum-buckets}") long maximumBuckets,
+                             @Value("${chat.response-cache.local.bucket-size}") int bucketSize,
+                             @Value("${chat.response-cache.local.similarity-threshold}") double similarityThreshold,
+                             @Value("${chat.response-cache.local.expire-after-access}") Duration expireAfterAccess) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.chatResponseVectorIndex = new ChatResponseVectorIndex(maximumBuckets, bucketSize, similarityThreshold, expireAfterAccess);
+    }
+
+    /**
+     * 캐시된 응답을 로컬 유사도 계층 -> Redis 순서로 찾습니다.
+     *
+     * @param responseCacheKey 응답 캐시 조회 키; null이면 조회하지 않음
+     * @return 캐시된 응답 메시지; 없으면 빈 Optional
+     */
+    public Optional<String> find(ChatResponseCacheKey responseCacheKey) {
+        String message = normalize(responseCacheKey);
+        if (message == null)
+            return Optional.empty();
+
+        String bucketKey = bucketKey(responseCacheKey);
+        String response = chatResponseVectorIndex.find(bucketKey, message);
+        if (response != null) {
+            similarHitCount.increment();
+            return Optional.of(response);
+        }
+        try {
+            response = stringRedisTemplate.opsForValue().get(redisKey(bucketKey, message));
+        } catch (RuntimeException e) {
+            log.warn("응답 캐시 조회 실패: {}", e.getMessage());
+        }
+        return Optional.ofNullable(onRedisResult(bucketKey, message, response));
+    }
+
+    /**
+     * find의 reactive 버전입니다.
+     *
+     * @param responseCacheKey 응답 캐시 조회 키; null이면 조회하지 않음
+     * @return 캐시된 응답 메시지를 발행하는 Mono; 없으면 빈 Mono
+     */
+    public Mono<String> findReactive(ChatResponseCacheKey responseCacheKey) {
+        return Mono.defer(() -> {
+            String message = normalize(responseCacheKey);
+            if (message == null)
+                return Mono.empty();
+
+            String bucketKey = bucketKey(responseCacheKey);
+            String response = chatResponseVectorIndex.find(bucketKey, message);
+            if (response != null) {
+                similarHitCount.increment();
+                return Mono.just(response);
+            }
+            return reactiveStringRedisTemplate.opsForValue().get(redisKey(bucketKey, message))
+                    .onErrorResume(e -> {
+                        log.warn("응답 캐시 조회 실패: {}", e.getMessage());
+                        return Mono.empty();
+                    })
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .mapNotNull(cached -> onRedisResult(bucketKey, message, cached.orElse(null)));
+        });
+    }
+
+    /**
+     * 응답을 Redis와 로컬 유사도 계층에 저장합니다. 채팅 상대 이름이 들어간 응답은 저장하지 않습니다.
+     *
+     * @param responseCacheKey 응답 캐시 조회 키; null이면 저장하지 않음
+     * @param response         OpenAI API가 생성한 응답 메시지
+     */
+    public void save(ChatResponseCacheKey responseCacheKey, String response) {
+        String message = normalize(responseCacheKey);
+        if (message == null || !isCacheable(response, responseCacheKey))
+            return;
+
+        String bucketKey = bucketKey(responseCacheKey);
+        chatResponseVectorIndex.put(bucketKey, message, response);
+        try {
+            stringRedisTemplate.opsForValue().set(redisKey(bucketKey, message), response, ttl);
+        } catch (RuntimeException e) {
+            log.warn("응답 캐시 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * save의 reactive 버전입니다.
+     *
+     * @param responseCacheKey 응답 캐시 조회 키; null이면 저장하지 않음
+     * @param response         OpenAI API가 생성한 응답 메시지
+     * @return 저장이 끝나면 완료되는 Mono
+     */
+    public Mono<Void> saveReactive(ChatResponseCacheKey responseCacheKey, String response) {
+        return Mono.defer(() -> {
+            String message = normalize(responseCacheKey);
+            if (message == null || !isCacheable(response, responseCacheKey))
+                return Mono.empty();
+
+            String bucketKey = bucketKey(responseCacheKey);
+            chatResponseVectorIndex.put(bucketKey, message, response);
+            return reactiveStringRedisTemplate.opsForValue().set(redisKey(bucketKey, message), response, ttl)
+                    .onErrorResume(e -> {
+                        log.warn("응답 캐시 저장 실패: {}", e.getMessage());
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    public long getSimilarHitCount() {
+        return similarHitCount.sum();
+    }
+
+    public long getExactHitCount() {
+        return exactHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 조회한 요청 중 캐시에서 응답한 비율을 반환합니다.
+     */
+    public double getHitRate() {
+        long hitCount = similarHitCount.sum() + exactHitCount.sum();
+        long requestCount = hitCount + missCount.sum();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Redis 조회 결과를 기록하고, 적중하면 다음 조회부터 로컬에서 찾도록 로컬 유사도 계층에도 저장합니다.
+     */
+    private String onRedisResult(String bucketKey, String message, String response) {
+        if (response == null) {
+            missCount.increment();
+            return null;
+        }
+        exactHitCount.increment();
+        chatResponseVectorIndex.put(bucketKey, message, response);
+        return response;
+    }
+
+    /**
+     * 질문을 NFC로 정규화하고 소문자로 바꾼 후 글자와 숫자만 남깁니다.
+     * 띄어쓰기, 문장 부호, 이모지만 다른 질문은 같은 질문으로 취급합니다.
+     *
+     * @return 정규화된 질문; 캐시를 사용하지 않는 요청이면 null
+     */
+    private String normalize(ChatResponseCacheKey responseCacheKey) {
+        if (!enabled || responseCacheKey == null || responseCacheKey.message() == null)
+            return null;
+        String message = Normalizer.normalize(responseCacheKey.message(), Normalizer.Form.NFC);
+        StringBuilder normalized = new StringBuilder(message.length());
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (Character.isLetterOrDigit(c))
+                normalized.append(Character.toLowerCase(c));
+        }
+        if (normalized.isEmpty() || normalized.length() > MAX_MESSAGE_LENGTH)
+            return null;
+        return normalized.toString();
+    }
+
+    private String bucketKey(ChatResponseCacheKey responseCacheKey) {
+        return responseCacheKey.taleId() + "::" + responseCacheKey.characterName() + "::" + responseCacheKey.promptHash()
+                + "::" + responseCacheKey.turn() + (responseCacheKey.isFinal() ? "::final" : "");
+    }
+
+    private String redisKey(String bucketKey, String message) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return KEY_PREFIX + HexFormat.of().formatHex(messageDigest.digest((bucketKey + "::" + message).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 비어 있지 않고 채팅 상대 이름이 들어 있지 않은 응답만 저장합니다.
+     */
+    private boolean isCacheable(String response, ChatResponseCacheKey responseCacheKey) {
+        if (response == null || response.isBlank())
+            return false;
+        String childName = responseCacheKey.childName();
+        return childName == null || childName.isBlank() || !response.contains(childName);
+    }
+}
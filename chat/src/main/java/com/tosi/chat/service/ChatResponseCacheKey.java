@@ -0,0 +1,21 @@
+package com.tosi.chat.service;
+
+/**
+ * 응답 캐시에서 같은 질문을 찾을 때 사용하는 정보
+ *
+ * @param taleId        동화 번호
+ * @param characterName 채팅 중인 등장인물
+ * @param promptHash    사용자 이름을 뺀 프롬프트의 해시; 템플릿이나 동화 내용이 바뀌면 이전 응답을 사용하지 않음
+ * @param childName     채팅 상대 이름; 이름이 들어간 응답은 다른 사용자에게 줄 수 없어 저장하지 않음
+ * @param message       사용자가 보낸 새로운 메시지
+ * @param turn          세션에서 이번 메시지가 몇 번째 질문인지(0부터 시작)
+ * @param isFinal       마지막 인사 여부
+ */
+public record ChatResponseCacheKey(Long taleId,
+                                   String characterName,
+                                   String promptHash,
+                                   String childName,
+                                   String message,
+                                   int turn,
+                                   boolean isFinal) {
+}
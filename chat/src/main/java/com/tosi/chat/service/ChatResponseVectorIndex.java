@@ -0,0 +1,157 @@
+package com.tosi.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * 응답 캐시의 로컬 유사도 계층
+ * 정규화된 질문을 글자 2-gram, 3-gram 해시 벡터(feature hashing)로 바꿔 같은 버킷(동화, 등장인물, 질문 순서) 안에서 코사인 유사도로 비교합니다.
+ * 버킷마다 최근에 저장, 적중한 항목만 정해진 수만큼 남기고(LRU), 오래 조회되지 않은 버킷은 통째로 제거합니다.
+ */
+public class ChatResponseVectorIndex {
+    private static final int DIMENSION = 128; // 2의 거듭제곱
+    private final Cache<String, Bucket> buckets;
+    private final int bucketSize;
+    private final double similarityThreshold;
+
+    public ChatResponseVectorIndex(long maximumBuckets, int bucketSize, double similarityThreshold, Duration expireAfterAccess) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        this.bucketSize = bucketSize;
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    /**
+     * 버킷에서 질문과 유사도가 기준 이상인 항목 중 가장 유사한 항목의 응답을 찾습니다.
+     *
+     * @param bucketKey 동화, 등장인물, 질문 순서로 만든 버킷 키
+     * @param message   정규화된 질문
+     * @return 캐시된 응답; 없으면 null
+     */
+    public String find(String bucketKey, String message) {
+        Bucket bucket = buckets.getIfPresent(bucketKey);
+        if (bucket == null)
+            return null;
+        return bucket.find(toVector(message), similarityThreshold);
+    }
+
+    /**
+     * 버킷에 질문과 응답을 저장합니다. 버킷이 가득 차면 가장 오래 사용되지 않은 항목을 제거합니다.
+     *
+     * @param bucketKey 동화, 등장인물, 질문 순서로 만든 버킷 키
+     * @param message   정규화된 질문
+     * @param response  캐시할 응답
+     */
+    public void put(String bucketKey, String message, String response) {
+        buckets.get(bucketKey, key -> new Bucket(bucketSize)).put(message, toVector(message), response);
+    }
+
+    /**
+     * 두 질문의 코사인 유사도를 계산합니다.
+     */
+    public static double similarity(String message, String otherMessage) {
+        return dot(toVector(message), toVector(otherMessage));
+    }
+
+    /**
+     * 글자 2-gram과 3-gram을 해시하여 고정 길이 벡터에 더하고 길이를 1로 정규화합니다.
+     * 해시 충돌로 생기는 편향을 줄이기 위해 해시의 최상위 비트로 부호를 정합니다.
+     */
+    private static float[] toVector(String message) {
+        float[] vector = new float[DIMENSION];
+        if (message.length() < 2) {
+            for (int i = 0; i < message.length(); i++)
+                addFeature(vector, message.charAt(i));
+        }
+        for (int i = 1; i < message.length(); i++) {
+            int bigram = message.charAt(i - 1) * 31 + message.charAt(i);
+            addFeature(vector, bigram);
+            if (i >= 2)
+                addFeature(vector, message.charAt(i - 2) * 961 + bigram + 0x9E3779B9);
+        }
+
+        double norm = 0;
+        for (float value : vector)
+            norm += value * value;
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < DIMENSION; i++)
+                vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static void addFeature(float[] vector, int feature) {
+        int hash = mix(feature);
+        vector[hash & (DIMENSION - 1)] += hash < 0 ? -1 : 1;
+    }
+
+    /**
+     * murmur3 fmix32로 비트를 고르게 섞습니다.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static double dot(float[] vector, float[] otherVector) {
+        double dot = 0;
+        for (int i = 0; i < DIMENSION; i++)
+            dot += vector[i] * otherVector[i];
+        return dot;
+    }
+
+    private record Entry(String message, float[] vector, String response) {
+    }
+
+    /**
+     * 최근에 사용한 항목이 뒤에 오도록 유지하는 고정 크기 버킷
+     */
+    private static class Bucket {
+        private final ArrayDeque<Entry> entries;
+        private final int capacity;
+
+        private Bucket(int capacity) {
+            this.entries = new ArrayDeque<>(capacity);
+            this.capacity = capacity;
+        }
+
+        private synchronized String find(float[] vector, double similarityThreshold) {
+            Entry bestEntry = null;
+            double bestSimilarity = similarityThreshold;
+            for (Entry entry : entries) {
+                double similarity = dot(vector, entry.vector());
+                if (similarity >= bestSimilarity) {
+                    bestEntry = entry;
+                    bestSimilarity = similarity;
+                }
+            }
+            if (bestEntry == null)
+                return null;
+            entries.remove(bestEntry);
+            entries.addLast(bestEntry);
+            return bestEntry.response();
+        }
+
+        private synchronized void put(String message, float[] vector, String response) {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().message().equals(message))
+                    iterator.remove();
+            }
+            if (entries.size() >= capacity)
+                entries.pollFirst();
+            entries.addLast(new Entry(message, vector, response));
+        }
+    }
+}
@@ -2,17 +2,22 @@ package com.tosi.chat.service;
 
 import com.tosi.chat.dto.ChatInitRequestDto;
 import com.tosi.chat.dto.ChatRequestDto;
-import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
-
-import java.util.List;
+import com.tosi.chat.dto.ChatResponseDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface ChatService {
 
-    List<MultiChatMessage> sendInitChat(ChatInitRequestDto chatInitRequestDto);
+    ChatResponseDto sendInitChat(String accessToken, ChatInitRequestDto chatInitRequestDto);
+
+    ChatResponseDto sendChat(ChatRequestDto chatRequestDto);
+
+    ChatResponseDto sendFinalChat(ChatRequestDto chatRequestDto);
+
+    SseEmitter sendInitChatStream(String accessToken, ChatInitRequestDto chatInitRequestDto);
 
-    List<MultiChatMessage> sendChat(ChatRequestDto chatRequestDto);
+    SseEmitter sendChatStream(ChatRequestDto chatRequestDto);
 
-    List<MultiChatMessage> sendFinalChat(ChatRequestDto chatRequestDto);
+    SseEmitter sendFinalChatStream(ChatRequestDto chatRequestDto);
 
     Long findUserAuthorization(String accessToken);
 }
@@ -1,178 +1,347 @@
 package com.tosi.chat.service;
 
-import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.client.ChatGptClient;
 import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ErrorResponse;
 import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.common.metrics.ChatMetrics;
 import com.tosi.chat.dto.*;
-import com.tosi.chat.repository.TaleDetailDtoRedisRepository;
+import com.tosi.chat.repository.ChatSessionRedisRepository;
 import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
-import io.github.flashvayne.chatgpt.dto.chat.MultiChatRequest;
-import io.github.flashvayne.chatgpt.dto.chat.MultiChatResponse;
+import io.micrometer.core.instrument.LongTaskTimer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
+@ConditionalOnProperty(name = "chat.engine", havingValue = "servlet", matchIfMissing = true)
 public class ChatServiceImpl implements ChatService {
-    private static final String ROLE_USER = "user";
-    private static final String ROLE_SYSTEM = "system";
-    private static final String TALE_CACHE_PREFIX = "taleCache::";
-    private final ChatGptProperties chatGptProperties;
+    private static final String EVENT_DELTA = "delta";
+    private static final String EVENT_MESSAGES = "messages";
+    private static final String EVENT_ERROR = "error";
+    private final ChatGptClient chatGptClient;
+    @Qualifier("userRestTemplate")
     private final RestTemplate restTemplate;
-    private final TaleDetailDtoRedisRepository taleDetailDtoRedisRepository;
-    @Value("${openai.api-key}")
-    private String apiKey;
-    @Value("${service.tale.url}")
-    private String taleURL;
+    private final TaleService taleService;
+    private final ChatSessionRedisRepository chatSessionRedisRepository;
+    private final ChatMessageAssembler chatMessageAssembler;
+    private final UserAuthorizationCache userAuthorizationCache;
+    private final ChatResponseCache chatResponseCache;
+    private final ChatOpeningCache chatOpeningCache;
+    private final ChatMetrics chatMetrics;
+    private final ChatTranscriptRecorder chatTranscriptRecorder;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    @Value("${chat.stream.timeout}")
+    private long streamTimeout;
     @Value("${service.user.url}")
     private String userURL;
 
     /**
-     * 동화 제목, 동화 내용, 사용자, 선택한 등장인물 정보로 채팅을 시작합니다.
-     * OpenAI API에 요청한 메시지와 응답받은 메시지를 담은 리스트를 반환합니다.
+     * 동화 제목, 동화 내용, 사용자, 선택한 등장인물 정보로 새로운 채팅 세션을 시작합니다.
+     * 회원 인증과 동화 조회를 동시에 진행하고, OpenAI API가 응답한 첫 메시지를 세션에 저장하고 세션 번호와 함께 반환합니다.
      *
+     * @param accessToken        로그인한 회원의 토큰
      * @param chatInitRequestDto 채팅을 시작할 때 필요한 학습 정보가 담긴 ChatInitInfoDto 객체
-     * @return 사용자와 시스템 간의 채팅 메시지를 담은 MultiChatMessage 객체 리스트
+     * @return 세션 번호와 시스템의 첫 메시지가 담긴 ChatResponseDto 객체
      */
     @Override
-    public List<MultiChatMessage> sendInitChat(ChatInitRequestDto chatInitRequestDto) {
-        List<MultiChatMessage> multiChatMessageList = new ArrayList<>();
-        // 프롬프트 생성 및 사용자 메시지 추가
-        String initPrompt = this.makeChatInitPrompt(chatInitRequestDto);
-        multiChatMessageList.add(new MultiChatMessage(ROLE_SYSTEM, initPrompt));
-        return processChatRequest(multiChatMessageList);
+    public ChatResponseDto sendInitChat(String accessToken, ChatInitRequestDto chatInitRequestDto) {
+        ChatTurn chatTurn = makeInitChatTurn(accessToken, chatInitRequestDto);
+        return completeChatTurn(chatTurn, requestChat(chatTurn));
     }
 
     /**
-     * 채팅 메시지 리스트에 기존 채팅 메시지와 사용자가 보낸 새로운 메시지를 추가하고 OpenAI API에 메시지를 요청합니다.
-     * 응답 메시지를 받아 사용자와 시스템 간의 새로운 메시지 리스트를 반환합니다.
+     * 세션에 저장된 이전 채팅 메시지에 사용자가 보낸 새로운 메시지를 추가하고 OpenAI API에 메시지를 요청합니다.
+     * 사용자 메시지와 응답 메시지를 세션에 추가하고 반환합니다.
      *
-     * @param chatRequestDto 이전 채팅 메시지 리스트와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
-     * @return 사용자가 보낸 메시지와 OpenAI 응답 메시지를 포함한 MultiChatMessage 객체 리스트
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @return 사용자가 보낸 메시지와 OpenAI 응답 메시지가 담긴 ChatResponseDto 객체
      */
     @Override
-    public List<MultiChatMessage> sendChat(ChatRequestDto chatRequestDto) {
-        // 이전 채팅 메시지를 사용하여 리스트 초기화 및 새로운 사용자 메시지 추가
-        List<MultiChatMessage> updatedMultiChatMessageList = new ArrayList<>(chatRequestDto.getPreMultiChatMessageList());
-        updatedMultiChatMessageList.add(new MultiChatMessage(ROLE_USER, chatRequestDto.getMultiChatMessage()));
-        return processChatRequest(updatedMultiChatMessageList);
+    public ChatResponseDto sendChat(ChatRequestDto chatRequestDto) {
+        ChatTurn chatTurn = makeChatTurn(chatRequestDto, false);
+        return completeChatTurn(chatTurn, requestChat(chatTurn));
     }
 
     /**
-     * 채팅 메시지 리스트에 기존 채팅 메시지와 사용자가 보낸 새로운 메시지, 마지막 인사 프롬프트를 추가하고 OpenAI API에 메시지를 요청합니다.
-     * 응답 메시지를 받아 사용자와 시스템 간의 새로운 메시지 리스트를 반환합니다.
+     * 세션에 저장된 이전 채팅 메시지에 사용자가 보낸 새로운 메시지, 마지막 인사 프롬프트를 추가하고 OpenAI API에 메시지를 요청합니다.
+     * 사용자 메시지와 응답 메시지를 세션에 추가하고 반환합니다.
      *
-     * @param chatRequestDto 이전 채팅 메시지 리스트와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
-     * @return 사용자가 보낸 메시지와 OpenAI 응답 메시지를 포함한 MultiChatMessage 객체 리스트
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @return 사용자가 보낸 메시지와 OpenAI 응답 메시지가 담긴 ChatResponseDto 객체
      */
     @Override
-    public List<MultiChatMessage> sendFinalChat(ChatRequestDto chatRequestDto) {
-        // 이전 채팅 메시지를 사용하여 새 채팅 메시지 리스트 초기화
-        List<MultiChatMessage> updatedMultiChatMessageList = new ArrayList<>(chatRequestDto.getPreMultiChatMessageList());
-        // 새로운 사용자 메시지와 마지막 인사 프롬프트 추가
-        updatedMultiChatMessageList.add(new MultiChatMessage(ROLE_USER, chatRequestDto.getMultiChatMessage()));
-        updatedMultiChatMessageList.add(new MultiChatMessage(ROLE_SYSTEM, ChatFinalRequestDto.finalPrompt));
-        return processChatRequest(updatedMultiChatMessageList);
+    public ChatResponseDto sendFinalChat(ChatRequestDto chatRequestDto) {
+        ChatTurn chatTurn = makeChatTurn(chatRequestDto, true);
+        return completeChatTurn(chatTurn, requestChat(chatTurn));
     }
 
     /**
-     * Redis에서 동화 정보 캐시를 먼저 확인하고, 없으면 Tale 서비스에서 동화 정보를 가져옵니다.
-     * 가져온 동화 정보를 바탕으로 채팅에 사용할 초기 프롬프트를 생성합니다.
+     * 채팅 시작 메시지를 OpenAI API에 stream 모드로 요청하고, 생성되는 토큰 조각을 SSE로 바로 전달합니다.
+     * 스트림이 끝나면 세션 번호와 응답 메시지를 마지막 이벤트로 전달합니다.
      *
-     * @param chatInitRequestDto 사용자, 동화 정보가 담긴 ChatInitRequest 객체
-     * @return 채팅 시작용 프롬프트
+     * @param accessToken        로그인한 회원의 토큰
+     * @param chatInitRequestDto 채팅을 시작할 때 필요한 학습 정보가 담긴 ChatInitInfoDto 객체
+     * @return 토큰 조각(delta)과 ChatResponseDto(messages) 이벤트를 보내는 SseEmitter 객체
      */
-    private String makeChatInitPrompt(ChatInitRequestDto chatInitRequestDto) {
-        Long taleId = chatInitRequestDto.getTaleId();
-        TaleDetailDto taleDetailDto = taleDetailDtoRedisRepository.findById(TALE_CACHE_PREFIX + taleId)
-                .orElse(restTemplate.getForObject(taleURL + "/content/" + taleId, TaleDetailDto.class));
+    @Override
+    public SseEmitter sendInitChatStream(String accessToken, ChatInitRequestDto chatInitRequestDto) {
+        return processChatStreamRequest(makeInitChatTurn(accessToken, chatInitRequestDto));
+    }
 
-        return chatInitRequestDto.getChatInitRequestDto(taleDetailDto.getTitle(), taleDetailDto.getContent());
+    /**
+     * 세션에 저장된 이전 채팅 메시지와 사용자가 보낸 새로운 메시지를 OpenAI API에 stream 모드로 요청합니다.
+     *
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @return 토큰 조각(delta)과 ChatResponseDto(messages) 이벤트를 보내는 SseEmitter 객체
+     */
+    @Override
+    public SseEmitter sendChatStream(ChatRequestDto chatRequestDto) {
+        return processChatStreamRequest(makeChatTurn(chatRequestDto, false));
     }
 
     /**
-     * MultiChatRequest 객체를 생성하고 이를 감싼 HttpEntity 객체로 OpenAI API에 요청을 보냅니다.
-     * 응답받은 시스템 메시지를 기존 채팅 메시지 리스트에 추가한 후 업데이트된 리스트를 반환합니다.
+     * 세션에 저장된 이전 채팅 메시지와 사용자가 보낸 새로운 메시지, 마지막 인사 프롬프트를 OpenAI API에 stream 모드로 요청합니다.
      *
-     * @param multiChatMessageList 사용자와 시스템 간의 기존 채팅 메시지 리스트
-     * @return OpenAI API 응답을 반영한 업데이트된 채팅 메시지 리스트
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @return 토큰 조각(delta)과 ChatResponseDto(messages) 이벤트를 보내는 SseEmitter 객체
      */
-    private List<MultiChatMessage> processChatRequest(List<MultiChatMessage> multiChatMessageList) {
-        // MultiChatRequest 객체 생성
-        MultiChatRequest multiChatRequest = makeMultiChatRequest(multiChatMessageList);
-
-        // OpenAI API에 요청 보내고 받은 응답을 추가
-        MultiChatResponse multiChatResponse = restTemplate.postForEntity(
-                        chatGptProperties.getApiURL(),
-                        buildHttpEntity(multiChatRequest),
-                        MultiChatResponse.class)
-                .getBody();
-        multiChatMessageList.add(new MultiChatMessage(ROLE_SYSTEM, multiChatResponse.getChoices().get(0).getMessage().getContent()));
-
-        return multiChatMessageList;
+    @Override
+    public SseEmitter sendFinalChatStream(ChatRequestDto chatRequestDto) {
+        return processChatStreamRequest(makeChatTurn(chatRequestDto, true));
     }
 
+    /**
+     * 미리 만든 첫 인사나 응답 캐시에서 응답을 찾고, 없으면 OpenAI API에 메시지를 요청한 후 응답을 캐시에 저장합니다.
+     *
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @return 응답 메시지
+     */
+    private String requestChat(ChatTurn chatTurn) {
+        return findCachedResponse(chatTurn)
+                .orElseGet(() -> {
+                    String content = chatGptClient.requestChat(chatTurn.requestMessageList(), chatTurn.tier(), chatTurn.usage()::add);
+                    chatResponseCache.save(chatTurn.responseCacheKey(), content);
+                    return content;
+                });
+    }
 
     /**
-     * OpenAI API 설정 정보, 채팅 메시지 리스트를 담은 MultiChatRequest 객체를 생성합니다.
+     * 채팅 시작이면 미리 만든 첫 인사를, 아니면 응답 캐시에서 같거나 비슷한 질문의 응답을 찾습니다.
      *
-     * @param multiChatMessageList 사용자와 시스템 간의 채팅 메시지 리스트
-     * @return OpenAI API 요청을 위한 MultiChatRequest 객체
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @return 캐시된 응답 메시지; 없으면 빈 Optional
      */
-    private MultiChatRequest makeMultiChatRequest(List<MultiChatMessage> multiChatMessageList) {
-        return new MultiChatRequest(
-                chatGptProperties.getModel(),
-                multiChatMessageList,
-                chatGptProperties.getMaxTokens(),
-                chatGptProperties.getTemperature(),
-                chatGptProperties.getTopP()
-        );
+    private Optional<String> findCachedResponse(ChatTurn chatTurn) {
+        if (chatTurn.isInit())
+            return chatOpeningCache.find(chatTurn.chatInitRequestDto());
+        return chatResponseCache.find(chatTurn.responseCacheKey());
     }
 
     /**
-     * MultiChatRequest 객체와 헤더를 포함한 HttpEntity 객체를 생성합니다.
+     * 회원 인증과 동화 정보 조회를 동시에 진행하여 채팅 시작 요청 메시지 리스트를 만듭니다.
+     * 동화 정보는 캐시(로컬 -> Redis -> Tale 서비스 순서)에서 가져오고, 그동안 현재 스레드에서 회원을 인증합니다.
+     * 로컬 캐시에 있으면 바로 사용하고, 없을 때만 동화 조회 전용 스레드 풀에서 Redis, Tale 서비스를 조회합니다.
+     * 인증에 실패하면 아직 시작하지 않은 동화 조회를 취소하고 예외를 던지므로 OpenAI API는 호출하지 않습니다.
+     * 이미 시작된 동화 조회는 같은 동화를 기다리는 다른 요청과 공유될 수 있어 중단하지 않고 캐시에 저장되도록 둡니다.
      *
-     * @param multiChatRequest OpenAI API 설정 정보, 채팅 메시지 리스트를 담은 MultiChatRequest 객체
-     * @return OpenAI API에 보낼 HttpEntity 객체
+     * @param accessToken        로그인한 회원의 토큰
+     * @param chatInitRequestDto 채팅을 시작할 때 필요한 학습 정보가 담긴 ChatInitInfoDto 객체
+     * @return 채팅 시작 요청 정보가 담긴 ChatTurn 객체
+     * @throws CustomException 토큰이 유효하지 않거나 존재하지 않는 동화이면 예외 처리
      */
-    private HttpEntity<?> buildHttpEntity(MultiChatRequest multiChatRequest) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("application/json; charset=UTF-8"));
-        headers.add("Authorization", "Bearer " + apiKey);
-        return new HttpEntity<>(multiChatRequest, headers);
+    private ChatTurn makeInitChatTurn(String accessToken, ChatInitRequestDto chatInitRequestDto) {
+        Future<TaleDetailDto> taleDetailFuture = taleService.findTaleDetailAsync(chatInitRequestDto.getTaleId());
+        Long userId;
+        try {
+            userId = findUserAuthorization(accessToken);
+        } catch (RuntimeException e) {
+            taleDetailFuture.cancel(false);
+            throw e;
+        }
+
+        TaleDetailDto taleDetailDto;
+        try {
+            taleDetailDto = taleDetailFuture.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            taleDetailFuture.cancel(false);
+            throw new IllegalStateException(e);
+        }
+        return chatMessageAssembler.makeInitChatTurn(userId, chatInitRequestDto, taleDetailDto);
     }
 
     /**
-     * 회원 서비스로 토큰을 보내고 인증이 완료되면 회원 번호를 반환합니다.
+     * 세션에 저장된 채팅 시작 정보, 회원 번호와 이전 채팅 메시지를 가져와 요청 메시지 리스트를 만듭니다.
+     *
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @param isFinal        마지막 인사 여부
+     * @return 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @throws CustomException 세션이 없거나 만료되면 예외 처리
+     */
+    private ChatTurn makeChatTurn(ChatRequestDto chatRequestDto, boolean isFinal) {
+        String sessionId = chatRequestDto.getSessionId();
+        ChatSessionDto chatSessionDto = chatSessionRedisRepository.findSession(sessionId)
+                .orElseThrow(() -> new CustomException(ExceptionCode.CHAT_SESSION_NOT_FOUND));
+        List<MultiChatMessage> sessionMessageList = chatSessionRedisRepository.findMessages(sessionId);
+        TaleDetailDto taleDetailDto = taleService.findTaleDetail(chatSessionDto.getTaleId());
+
+        return chatMessageAssembler.makeChatTurn(sessionId, chatSessionDto.getUserId(), chatSessionDto.toChatInitRequestDto(), taleDetailDto,
+                sessionMessageList, chatRequestDto.getMultiChatMessage(), isFinal);
+    }
+
+    /**
+     * OpenAI API가 응답한 메시지를 이번 채팅의 새 메시지에 추가하고 세션에 저장합니다.
+     * 채팅 시작이라면 채팅 시작 정보, 회원 번호와 함께 세션을 새로 만듭니다.
+     * 채팅 기록은 저장 큐에 넣기만 하고 MySQL 저장을 기다리지 않습니다.
+     *
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @param content  OpenAI API가 생성한 응답 메시지
+     * @return 세션 번호와 이번 채팅의 새 메시지가 담긴 ChatResponseDto 객체
+     */
+    private ChatResponseDto completeChatTurn(ChatTurn chatTurn, String content) {
+        List<MultiChatMessage> newMessageList = chatMessageAssembler.addResponseMessage(chatTurn, content);
+        if (chatTurn.isInit())
+            chatSessionRedisRepository.saveSession(chatTurn.sessionId(), chatTurn.userId(), chatTurn.chatInitRequestDto(), newMessageList);
+        else
+            chatSessionRedisRepository.appendMessages(chatTurn.sessionId(), newMessageList);
+        chatTranscriptRecorder.record(chatTurn, content);
+
+        return ChatResponseDto.builder()
+                .sessionId(chatTurn.sessionId())
+                .multiChatMessageList(newMessageList)
+                .build();
+    }
+
+    /**
+     * 별도 스레드에서 OpenAI API에 stream 모드로 요청을 보내고, 토큰 조각이 도착할 때마다 delta 이벤트로 전달합니다.
+     * 응답 캐시에 있는 질문이면 OpenAI API를 호출하지 않고 캐시된 응답을 하나의 delta 이벤트로 전달합니다.
+     * 스트림이 끝나면 완성된 응답 메시지를 세션에 저장하고 ChatResponseDto를 messages 이벤트로 보낸 후 연결을 종료합니다.
+     * 클라이언트 연결이 끊기면 전송 예외가 스트림 수신을 중단시켜 불필요한 토큰 생성을 막습니다.
+     * SseEmitter가 타임아웃 등으로 먼저 끝나면 다음 토큰 조각을 기다리지 않고 OpenAI API 요청을 취소합니다.
+     *
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @return 응답을 전달할 SseEmitter 객체
+     */
+    private SseEmitter processChatStreamRequest(ChatTurn chatTurn) {
+        SseEmitter sseEmitter = new SseEmitter(streamTimeout);
+        AtomicBoolean responseClosed = new AtomicBoolean();
+        sseEmitter.onCompletion(() -> responseClosed.set(true));
+        sseEmitter.onTimeout(() -> responseClosed.set(true));
+        sseEmitter.onError(e -> responseClosed.set(true));
+        applicationTaskExecutor.execute(() -> {
+            LongTaskTimer.Sample streamSample = chatMetrics.startStream();
+            try {
+                String content = findCachedResponse(chatTurn).orElse(null);
+                if (content != null) {
+                    sendEvent(sseEmitter, EVENT_DELTA, content, MediaType.TEXT_PLAIN);
+                } else {
+                    content = chatGptClient.streamChat(chatTurn.requestMessageList(), chatTurn.tier(), chatTurn.usage()::add,
+                            delta -> sendEvent(sseEmitter, EVENT_DELTA, delta, MediaType.TEXT_PLAIN), responseClosed::get);
+                    chatResponseCache.save(chatTurn.responseCacheKey(), content);
+                }
+                sendEvent(sseEmitter, EVENT_MESSAGES, completeChatTurn(chatTurn, content), MediaType.APPLICATION_JSON);
+                sseEmitter.complete();
+            } catch (UncheckedIOException e) {
+                // 클라이언트 연결이 끊긴 경우
+                sseEmitter.completeWithError(e);
+            } catch (CancellationException e) {
+                // SseEmitter가 먼저 끝나 스트림 수신을 중단한 경우; 보낼 곳이 없음
+            } catch (Exception e) {
+                try {
+                    sendEvent(sseEmitter, EVENT_ERROR, ErrorResponse.of(e), MediaType.APPLICATION_JSON);
+                    sseEmitter.complete();
+                } catch (UncheckedIOException ue) {
+                    sseEmitter.completeWithError(ue);
+                }
+            } finally {
+                streamSample.stop();
+            }
+        });
+        return sseEmitter;
+    }
+
+    /**
+     * SseEmitter로 이름이 지정된 이벤트를 전송합니다.
+     *
+     * @param sseEmitter 이벤트를 보낼 SseEmitter 객체
+     * @param name       이벤트 이름
+     * @param data       이벤트 데이터
+     * @param mediaType  이벤트 데이터 형식
+     * @throws UncheckedIOException 클라이언트 연결이 끊겨 전송에 실패하면 예외 처리
+     */
+    private void sendEvent(SseEmitter sseEmitter, String name, Object data, MediaType mediaType) {
+        try {
+            sseEmitter.send(SseEmitter.event()
+                    .name(name)
+                    .data(data, mediaType));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 인증 캐시에서 토큰의 회원 번호를 찾고, 없으면 회원 서비스로 토큰을 보내 인증합니다.
      *
      * @param accessToken 로그인한 회원의 토큰
      * @return 회원 번호
-     * @throws CustomException 인증에 성공하지 못하면 예외 처리
+     * @throws CustomException 토큰이 유효하지 않거나 회원 서비스에 연결할 수 없으면 예외 처리
      */
     @Override
     public Long findUserAuthorization(String accessToken) {
+        return userAuthorizationCache.getUserId(accessToken, this::requestUserAuthorization);
+    }
+
+    /**
+     * 회원 서비스로 토큰을 보내고 인증이 완료되면 회원 번호를 반환합니다.
+     * 회원 서비스가 4xx로 응답하면 토큰이 유효하지 않은 것이고, 연결 실패나 5xx 응답은 회원 서비스 장애로 구분합니다.
+     *
+     * @param accessToken 로그인한 회원의 토큰
+     * @return 회원 번호
+     * @throws CustomException 토큰이 유효하지 않거나 회원 서비스에 연결할 수 없으면 예외 처리
+     */
+    private Long requestUserAuthorization(String accessToken) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", accessToken);
         HttpEntity<String> httpEntity = new HttpEntity<>(headers);
         try {
             Long userId = restTemplate.exchange(userURL + "/auth",
                     HttpMethod.GET, httpEntity, Long.class).getBody();
+            if (userId == null)
+                throw new CustomException(ExceptionCode.INVALID_TOKEN);
             return userId;
-        } catch (Exception e) {
+        } catch (HttpClientErrorException e) {
             throw new CustomException(ExceptionCode.INVALID_TOKEN);
+        } catch (RestClientException e) {
+            log.warn("회원 서비스 인증 요청 실패: {}", e.getMessage());
+            throw new CustomException(ExceptionCode.USER_SERVICE_UNAVAILABLE);
         }
     }
-
-
 }
@@ -0,0 +1,294 @@
+package com.tosi.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OpenAI API에 보낼 요청 메시지의 토큰 수를 로컬 토크나이저로 계산하고, 설정된 토큰 예산 안으로 줄입니다.
+ * 동화 내용은 문단 단위로 나눠 질의(등장인물)와 관련 있는 문단만 남기고, 이전 대화는 오래된 것부터 잘라냅니다.
+ * 캐릭터 설정 프롬프트, 사용자가 보낸 새로운 메시지, 마지막 인사 프롬프트는 줄이지 않습니다.
+ * 동화 문단과 문단별 토큰 수는 동화마다, 프롬프트 토큰 수는 (동화, 등장인물, 사용자, 템플릿 버전)마다 한 번만 계산해두므로
+ * 요청마다 새로 계산하는 토큰은 대화 메시지뿐입니다.
+ */
+@Component
+public class ChatTokenBudgeter {
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4; // 메시지마다 붙는 role, 구분자 토큰
+    private static final int REPLY_PRIMING_TOKENS = 3; // 응답 시작을 위해 붙는 토큰
+    private static final String ROLE_USER = "user";
+    private final Encoding encoding;
+    private final int maxTokens;
+    private final int taleMaxTokens;
+    private final int passageMaxTokens;
+    private final Cache<Long, TalePassages> talePassagesCache;
+    private final Cache<PromptKey, PromptTokens> promptTokensCache;
+    private final Cache<String, Integer> countedPromptCache;
+
+    public ChatTokenBudgeter(ChatGptProperties chatGptProperties,
+                             @Value("${chat.prompt.max-tokens}") int maxTokens,
+                             @Value("${chat.prompt.tale-max-tokens}") int taleMaxTokens,
+                             @Value("${chat.prompt.passage-max-tokens}") int passageMaxTokens,
+                             @Value("${cache.tale.local.maximum-size}") long maximumSize,
+                             @Value("${chat.prompt.token-cache.maximum-size}") long promptTokenCacheSize) {
+        this.encoding = Encodings.newLazyEncodingRegistry()
+                .getEncodingForModel(chatGptProperties.getModel())
+                .orElseGet(() -> Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.O200K_BASE));
+        this.maxTokens = maxTokens;
+        this.taleMaxTokens = taleMaxTokens;
+        this.passageMaxTokens = passageMaxTokens;
+        this.talePassagesCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.promptTokensCache = Caffeine.newBuilder()
+                .maximumSize(promptTokenCacheSize)
+                .build();
+        // 같은 요청에서 다시 계산하지 않도록 프롬프트 문자열 객체(동일성 비교)로 토큰 수를 찾음
+        this.countedPromptCache = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(promptTokenCacheSize)
+                .build();
+    }
+
+    /**
+     * 메시지 하나가 요청에서 차지하는 토큰 수를 계산합니다.
+     *
+     * @param content 메시지 내용
+     * @return 메시지 내용과 메시지 구분 토큰을 합한 토큰 수
+     */
+    public int countMessageTokens(String content) {
+        if (content == null)
+            return MESSAGE_OVERHEAD_TOKENS;
+        return MESSAGE_OVERHEAD_TOKENS + encoding.countTokensOrdinary(content);
+    }
+
+    /**
+     * 프롬프트 메시지의 토큰 수를 캐시에서 찾고, 없거나 프롬프트가 바뀌었으면(동화 내용 수정 등) 다시 계산합니다.
+     * 같은 세션의 채팅 시작 프롬프트, 마지막 인사 프롬프트는 매 요청 같으므로 대화가 이어져도 다시 토큰화하지 않습니다.
+     *
+     * @param promptKey 프롬프트를 만든 동화, 등장인물, 사용자, 템플릿 버전
+     * @param prompt    프롬프트 내용
+     * @return 프롬프트 내용과 메시지 구분 토큰을 합한 토큰 수
+     */
+    public int countPromptTokens(PromptKey promptKey, String prompt) {
+        PromptTokens promptTokens = promptTokensCache.getIfPresent(promptKey);
+        if (promptTokens == null || !promptTokens.prompt().equals(prompt)) {
+            promptTokens = new PromptTokens(prompt, countMessageTokens(prompt));
+            promptTokensCache.put(promptKey, promptTokens);
+        }
+        countedPromptCache.put(prompt, promptTokens.tokens());
+        return promptTokens.tokens();
+    }
+
+    /**
+     * 요청 메시지 리스트 전체가 차지하는 프롬프트 토큰 수를 계산합니다.
+     * countPromptTokens로 이미 계산한 프롬프트는 다시 토큰화하지 않습니다.
+     *
+     * @param multiChatMessageList OpenAI API에 보낼 채팅 메시지 리스트
+     * @return 메시지별 토큰 수와 응답 시작 토큰을 합한 토큰 수
+     */
+    public int countRequestTokens(List<MultiChatMessage> multiChatMessageList) {
+        int tokens = REPLY_PRIMING_TOKENS;
+        for (MultiChatMessage multiChatMessage : multiChatMessageList) {
+            String content = multiChatMessage.getContent();
+            Integer promptTokens = content == null ? null : countedPromptCache.getIfPresent(content);
+            tokens += promptTokens != null ? promptTokens : countMessageTokens(content);
+        }
+        return tokens;
+    }
+
+    /**
+     * 동화 내용이 동화 토큰 예산보다 길면, 첫 문단과 질의(등장인물)와 관련 있는 문단만 원래 순서대로 남깁니다.
+     * 관련도는 질의와 문단이 공유하는 글자 2-gram 수로 계산하여 조사가 붙는 한국어에서도 같은 단어를 찾습니다.
+     *
+     * @param taleDetailDto 동화 정보가 담긴 TaleDetailDto 객체
+     * @param queries       관련 문단을 찾을 때 사용할 문장 리스트
+     * @return 토큰 예산 안으로 줄인 동화 내용
+     */
+    public String selectTaleContent(TaleDetailDto taleDetailDto, List<String> queries) {
+        String content = taleDetailDto.getContent();
+        if (content == null || content.isEmpty())
+            return "";
+        TalePassages talePassages = findTalePassages(taleDetailDto.getTaleId(), content);
+        if (talePassages.totalTokens() <= taleMaxTokens)
+            return content;
+
+        int passageCount = talePassages.passages().length;
+        int[] queryBigrams = toBigrams(queries);
+        long[] rankedPassages = new long[passageCount];
+        for (int i = 0; i < passageCount; i++) {
+            int score = i == 0 ? Integer.MAX_VALUE : countSharedBigrams(queryBigrams, talePassages.bigrams()[i]);
+            // 점수가 높은 순서, 점수가 같으면 앞 문단 순서로 정렬되도록 하나의 long 값으로 합침
+            rankedPassages[i] = ((long) (Integer.MAX_VALUE - score) << 32) | i;
+        }
+        Arrays.sort(rankedPassages);
+
+        boolean[] selected = new boolean[passageCount];
+        int selectedTokens = 0;
+        for (long rankedPassage : rankedPassages) {
+            int index = (int) rankedPassage;
+            int passageTokens = talePassages.tokens()[index];
+            if (selectedTokens + passageTokens > taleMaxTokens)
+                continue;
+            selected[index] = true;
+            selectedTokens += passageTokens;
+        }
+
+        StringBuilder selectedContent = new StringBuilder(content.length());
+        for (int i = 0; i < passageCount; i++) {
+            if (!selected[i])
+                continue;
+            if (!selectedContent.isEmpty())
+                selectedContent.append('\n');
+            selectedContent.append(talePassages.passages()[i]);
+        }
+        return selectedContent.toString();
+    }
+
+    /**
+     * 고정 메시지(시스템 프롬프트, 새로운 메시지 등)의 토큰 수를 제외한 남은 예산 안에 들어가도록 이전 대화의 시작 위치를 찾습니다.
+     * 최신 메시지부터 거꾸로 더해가다가 예산을 넘으면 멈추고, 질문 없이 응답만 남지 않도록 사용자 메시지에서 시작합니다.
+     *
+     * @param sessionMessageList 세션에 저장된 이전 채팅 메시지 리스트
+     * @param fixedTokens        줄일 수 없는 메시지들의 토큰 수
+     * @return 요청에 포함할 이전 채팅 메시지의 시작 위치; 모두 포함하면 0
+     */
+    public int findHistoryStart(List<MultiChatMessage> sessionMessageList, int fixedTokens) {
+        int remainingTokens = maxTokens - REPLY_PRIMING_TOKENS - fixedTokens;
+        int start = sessionMessageList.size();
+        while (start > 0) {
+            int messageTokens = countMessageTokens(sessionMessageList.get(start - 1).getContent());
+            if (messageTokens > remainingTokens)
+                break;
+            remainingTokens -= messageTokens;
+            start--;
+        }
+        if (start == 0)
+            return 0;
+        while (start < sessionMessageList.size() && !ROLE_USER.equals(sessionMessageList.get(start).getRole()))
+            start++;
+        return start;
+    }
+
+    /**
+     * 동화를 문단으로 나눈 결과를 캐시에서 찾고, 없거나 동화 내용이 바뀌었으면 다시 나눕니다.
+     */
+    private TalePassages findTalePassages(long taleId, String content) {
+        TalePassages talePassages = talePassagesCache.getIfPresent(taleId);
+        if (talePassages == null || !talePassages.content().equals(content)) {
+            talePassages = splitPassages(content);
+            talePassagesCache.put(taleId, talePassages);
+        }
+        return talePassages;
+    }
+
+    /**
+     * 동화 내용을 줄 단위 문단으로 나누고, 문단 토큰 예산보다 긴 문단은 문장 단위로 다시 묶습니다.
+     */
+    private TalePassages splitPassages(String content) {
+        List<String> passages = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            String passage = line.strip();
+            if (passage.isEmpty())
+                continue;
+            if (encoding.countTokensOrdinary(passage) <= passageMaxTokens) {
+                passages.add(passage);
+                continue;
+            }
+
+            StringBuilder chunk = new StringBuilder();
+            int chunkTokens = 0;
+            for (String sentence : passage.split("(?<=[.!?。…])\\s*")) {
+                int sentenceTokens = encoding.countTokensOrdinary(sentence);
+                if (!chunk.isEmpty() && chunkTokens + sentenceTokens > passageMaxTokens) {
+                    passages.add(chunk.toString());
+                    chunk.setLength(0);
+                    chunkTokens = 0;
+                }
+                if (!chunk.isEmpty())
+                    chunk.append(' ');
+                chunk.append(sentence);
+                chunkTokens += sentenceTokens;
+            }
+            if (!chunk.isEmpty())
+                passages.add(chunk.toString());
+        }
+
+        String[] passageArray = passages.toArray(new String[0]);
+        int[] tokens = new int[passageArray.length];
+        int[][] bigrams = new int[passageArray.length][];
+        int totalTokens = 0;
+        for (int i = 0; i < passageArray.length; i++) {
+            tokens[i] = encoding.countTokensOrdinary(passageArray[i]) + 1; // 문단 구분 줄바꿈
+            bigrams[i] = toBigrams(List.of(passageArray[i]));
+            totalTokens += tokens[i];
+        }
+        return new TalePassages(content, passageArray, tokens, bigrams, totalTokens);
+    }
+
+    /**
+     * 문장들에서 공백, 문장 부호를 제외한 연속된 두 글자를 정렬된 중복 없는 int 배열로 만듭니다.
+     */
+    private int[] toBigrams(List<String> texts) {
+        int length = 0;
+        for (String text : texts)
+            length += text == null ? 0 : text.length();
+        int[] bigrams = new int[length];
+        int size = 0;
+        for (String text : texts) {
+            if (text == null)
+                continue;
+            for (int i = 1; i < text.length(); i++) {
+                char first = text.charAt(i - 1);
+                char second = text.charAt(i);
+                if (Character.isLetterOrDigit(first) && Character.isLetterOrDigit(second))
+                    bigrams[size++] = (first << 16) | second;
+            }
+        }
+        Arrays.sort(bigrams, 0, size);
+
+        int distinctSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinctSize == 0 || bigrams[distinctSize - 1] != bigrams[i])
+                bigrams[distinctSize++] = bigrams[i];
+        }
+        return Arrays.copyOf(bigrams, distinctSize);
+    }
+
+    private int countSharedBigrams(int[] queryBigrams, int[] passageBigrams) {
+        int count = 0;
+        for (int queryBigram : queryBigrams) {
+            if (Arrays.binarySearch(passageBigrams, queryBigram) >= 0)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * 프롬프트 토큰 수 캐시의 키; 마지막 인사 프롬프트는 템플릿 버전만 사용합니다.
+     */
+    public record PromptKey(Long taleId, String characterName, String childName, long templateVersion) {
+        public static PromptKey ofFinal(long templateVersion) {
+            return new PromptKey(null, null, null, templateVersion);
+        }
+    }
+
+    private record PromptTokens(String prompt, int tokens) {
+    }
+
+    /**
+     * 동화를 나눈 문단과 문단별 토큰 수, 관련도 계산에 사용할 글자 2-gram
+     */
+    private record TalePassages(String content, String[] passages, int[] tokens, int[][] bigrams, int totalTokens) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.ChatTranscriptDto;
+import com.tosi.chat.repository.ChatTranscriptJdbcRepository;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 채팅 기록을 크기가 정해진 메모리 큐에 넣고, 백그라운드 스레드가 batchSize개씩 모아 MySQL에 저장합니다.
+ * 채팅 응답은 저장을 기다리지 않으며, 큐가 가득 차면 servlet 엔진 요청은 offerTimeout까지 기다리고 reactive 엔진 요청은 기다리지 않고 버립니다.
+ * 애플리케이션이 종료되면 웹 서버가 요청을 더 받지 않게 된 후 큐에 남은 기록을 모두 저장하고 멈춥니다(최대 shutdownTimeout).
+ */
+@Slf4j
+@Component
+public class ChatTranscriptRecorder implements SmartLifecycle {
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096; // 웹 서버(DEFAULT_PHASE - 2048)보다 늦게 멈춤
+    private final ChatTranscriptJdbcRepository chatTranscriptJdbcRepository;
+    private final BlockingQueue<ChatTranscriptDto> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration shutdownTimeout;
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ChatTranscriptRecorder(ObjectProvider<ChatTranscriptJdbcRepository> chatTranscriptJdbcRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${chat.transcript.queue-capacity}") int queueCapacity,
+                                  @Value("${chat.transcript.batch-size}") int batchSize,
+                                  @Value("${chat.transcript.flush-interval}") Duration flushInterval,
+                                  @Value("${chat.transcript.offer-timeout}") Duration offerTimeout,
+                                  @Value("${chat.transcript.shutdown-timeout}") Duration shutdownTimeout) {
+        this.chatTranscriptJdbcRepository = chatTranscriptJdbcRepository.getIfAvailable(); // chat.transcript.enabled가 false면 null
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("chat.transcript.queue.size", queue, BlockingQueue::size)
+                .description("저장을 기다리는 채팅 기록 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.transcript.records", writtenCount, LongAdder::sum)
+                .description("채팅 기록 저장 결과")
+                .tag("result", "written")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.transcript.records", droppedCount, LongAdder::sum)
+                .description("채팅 기록 저장 결과")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.transcript.records", failedCount, LongAdder::sum)
+                .description("채팅 기록 저장 결과")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 채팅 기록을 저장 큐에 넣습니다. 큐가 가득 차면 offerTimeout까지 기다리고, 그래도 자리가 없으면 버립니다.
+     *
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @param content  OpenAI API가 생성한 응답 메시지
+     */
+    public void record(ChatTurn chatTurn, String content) {
+        if (chatTranscriptJdbcRepository == null)
+            return;
+        try {
+            if (!queue.offer(toChatTranscriptDto(chatTurn, content), offerTimeout.toNanos(), TimeUnit.NANOSECONDS))
+                drop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop();
+        }
+    }
+
+    /**
+     * record와 같지만 큐가 가득 차면 기다리지 않고 바로 버립니다. 이벤트 루프 스레드에서 호출합니다.
+     *
+     * @param chatTurn 채팅 요청 정보가 담긴 ChatTurn 객체
+     * @param content  OpenAI API가 생성한 응답 메시지
+     */
+    public void tryRecord(ChatTurn chatTurn, String content) {
+        if (chatTranscriptJdbcRepository == null)
+            return;
+        if (!queue.offer(toChatTranscriptDto(chatTurn, content)))
+            drop();
+    }
+
+    @Override
+    public void start() {
+        if (chatTranscriptJdbcRepository == null)
+            return;
+        running = true;
+        writerThread = new Thread(this::writeLoop, "chat-transcript-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 새 기록을 받지 않고, 큐에 남은 기록을 모두 저장할 때까지 기다립니다.
+     * JDBC 요청 도중 연결이 끊기지 않도록 쓰기 스레드를 interrupt하지 않습니다.
+     */
+    @Override
+    public void stop() {
+        if (writerThread == null)
+            return;
+        running = false;
+        try {
+            writerThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive())
+            log.warn("채팅 기록 {}개를 저장하지 못하고 종료합니다.", queue.size());
+        writerThread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 기록이 들어오면 flushInterval 동안 더 모으지 않고 큐에 있는 만큼(최대 batchSize개) 바로 저장합니다.
+     * 부하가 높을수록 한 번에 저장하는 행이 많아지고, 부하가 낮으면 지연 없이 한 행씩 저장합니다.
+     * 멈추라는 요청을 받으면 큐가 빌 때까지 저장한 후 끝냅니다.
+     */
+    private void writeLoop() {
+        List<ChatTranscriptDto> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatTranscriptDto first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ChatTranscriptDto> batch) {
+        try {
+            chatTranscriptJdbcRepository.saveAll(batch);
+            writtenCount.add(batch.size());
+        } catch (RuntimeException e) {
+            failedCount.add(batch.size());
+            log.warn("채팅 기록 {}개 저장 실패: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void drop() {
+        droppedCount.increment();
+    }
+
+    private ChatTranscriptDto toChatTranscriptDto(ChatTurn chatTurn, String content) {
+        List<MultiChatMessage> newMessageList = chatTurn.newMessageList();
+        ChatInitRequestDto chatInitRequestDto = chatTurn.chatInitRequestDto();
+        ChatTurnUsage usage = chatTurn.usage();
+        ChatTranscriptDto.ChatTranscriptDtoBuilder builder = ChatTranscriptDto.builder()
+                .sessionId(chatTurn.sessionId())
+                .turn(chatTurn.turn())
+                .answer(content)
+                .isFinal(chatTurn.tier() == ChatGptProperties.Tier.FINAL)
+                .promptTokens(usage.getPromptTokens())
+                .cachedTokens(usage.getCachedTokens())
+                .completionTokens(usage.getCompletionTokens())
+                .createdAt(Instant.now());
+        if (chatTurn.isInit()) {
+            builder.userId(chatTurn.userId())
+                    .taleId(chatInitRequestDto.getTaleId())
+                    .childName(chatInitRequestDto.getChildName())
+                    .characterName(chatInitRequestDto.getCharacterName());
+        } else {
+            builder.question(newMessageList.get(0).getContent());
+        }
+        return builder.build();
+    }
+}
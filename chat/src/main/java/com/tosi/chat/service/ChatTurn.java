@@ -0,0 +1,45 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+
+import java.util.List;
+
+/**
+ * 한 번의 채팅 요청을 처리하는 동안 필요한 정보
+ *
+ * @param sessionId          채팅 세션 번호
+ * @param userId             채팅을 시작한 회원 번호; 미리 만드는 첫 인사나 회원 번호 없이 저장된 이전 세션이면 null
+ * @param chatInitRequestDto 채팅 시작 정보; 채팅 시작 요청일 때만 존재
+ * @param requestMessageList OpenAI API에 보낼 메시지 리스트
+ * @param newMessageList     이번 채팅에서 세션에 추가할 메시지 리스트
+ * @param responseCacheKey   응답 캐시 조회 키; 채팅 시작 요청이면 null
+ * @param usage              이번 채팅에서 OpenAI API가 사용한 토큰 수
+ */
+public record ChatTurn(String sessionId,
+                       Long userId,
+                       ChatInitRequestDto chatInitRequestDto,
+                       List<MultiChatMessage> requestMessageList,
+                       List<MultiChatMessage> newMessageList,
+                       ChatResponseCacheKey responseCacheKey,
+                       ChatTurnUsage usage) {
+
+    public boolean isInit() {
+        return chatInitRequestDto != null;
+    }
+
+    /**
+     * 세션에서 몇 번째 채팅인지 반환합니다. 채팅 시작은 0, 이후 질문은 1부터 셉니다.
+     */
+    public int turn() {
+        return responseCacheKey == null ? 0 : responseCacheKey.turn() + 1;
+    }
+
+    /**
+     * 마지막 인사는 FINAL, 나머지 요청은 STANDARD 등급으로 OpenAI API에 요청합니다.
+     */
+    public ChatGptProperties.Tier tier() {
+        return responseCacheKey != null && responseCacheKey.isFinal() ? ChatGptProperties.Tier.FINAL : ChatGptProperties.Tier.STANDARD;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.dto.ChatUsageDto;
+
+/**
+ * 한 번의 채팅 요청에서 OpenAI API가 사용한 토큰 수
+ * 재시도, 헤지, 다른 백엔드로 다시 보낸 요청의 usage도 모두 더합니다. 응답 캐시에서 응답하면 0입니다.
+ */
+public class ChatTurnUsage {
+    private int promptTokens;
+    private int cachedTokens;
+    private int completionTokens;
+
+    /**
+     * OpenAI API 응답 하나의 usage를 더합니다.
+     *
+     * @param chatUsageDto OpenAI API 응답의 usage; 없으면 더하지 않음
+     */
+    public synchronized void add(ChatUsageDto chatUsageDto) {
+        if (chatUsageDto == null)
+            return;
+        promptTokens += chatUsageDto.getPromptTokens();
+        cachedTokens += chatUsageDto.getCachedTokens();
+        completionTokens += chatUsageDto.getCompletionTokens();
+    }
+
+    public synchronized int getPromptTokens() {
+        return promptTokens;
+    }
+
+    public synchronized int getCachedTokens() {
+        return cachedTokens;
+    }
+
+    public synchronized int getCompletionTokens() {
+        return completionTokens;
+    }
+}
@@ -0,0 +1,25 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.ChatRequestDto;
+import com.tosi.chat.dto.ChatResponseDto;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveChatService {
+
+    Mono<ChatResponseDto> sendInitChat(String accessToken, ChatInitRequestDto chatInitRequestDto);
+
+    Mono<ChatResponseDto> sendChat(ChatRequestDto chatRequestDto);
+
+    Mono<ChatResponseDto> sendFinalChat(ChatRequestDto chatRequestDto);
+
+    Flux<ServerSentEvent<Object>> sendInitChatStream(String accessToken, ChatInitRequestDto chatInitRequestDto);
+
+    Flux<ServerSentEvent<Object>> sendChatStream(ChatRequestDto chatRequestDto);
+
+    Flux<ServerSentEvent<Object>> sendFinalChatStream(ChatRequestDto chatRequestDto);
+
+    Mono<Long> findUserAuthorization(String accessToken);
+}
@@ -0,0 +1,240 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.client.ReactiveChatGptClient;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ErrorResponse;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.common.metrics.ChatMetrics;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.ChatRequestDto;
+import com.tosi.chat.dto.ChatResponseDto;
+import com.tosi.chat.dto.ChatSessionDto;
+import com.tosi.chat.repository.ReactiveChatSessionRedisRepository;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.LongTaskTimer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebClient와 reactive Redis로 구현한 non-blocking 채팅 엔진
+ * 회원 인증, 동화 조회, OpenAI API 요청, 세션 저장이 하나의 reactive 체인으로 이어지며,
+ * 외부 응답을 기다리는 동안 스레드를 점유하지 않아 적은 수의 이벤트 루프 스레드로 많은 채팅을 동시에 처리합니다.
+ */
+@RequiredArgsConstructor
+@Service
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+public class ReactiveChatServiceImpl implements ReactiveChatService {
+    private static final String EVENT_DELTA = "delta";
+    private static final String EVENT_MESSAGES = "messages";
+    private static final String EVENT_ERROR = "error";
+    private final ReactiveChatGptClient reactiveChatGptClient;
+    private final ReactiveTaleService reactiveTaleService;
+    private final ReactiveChatSessionRedisRepository reactiveChatSessionRedisRepository;
+    private final ChatMessageAssembler chatMessageAssembler;
+    private final UserAuthorizationCache userAuthorizationCache;
+    private final ChatResponseCache chatResponseCache;
+    private final ChatOpeningCache chatOpeningCache;
+    private final ChatMetrics chatMetrics;
+    private final ChatTranscriptRecorder chatTranscriptRecorder;
+    @Qualifier("userWebClient")
+    private final WebClient webClient;
+    @Value("${service.user.url}")
+    private String userURL;
+
+    /**
+     * 회원 인증과 동화 조회를 동시에 시작하고, 둘 다 끝나면 OpenAI API에 채팅 시작 메시지를 요청합니다.
+     * 인증에 실패하면 진행 중인 동화 조회를 취소하고 OpenAI API는 호출하지 않습니다.
+     *
+     * @param accessToken        로그인한 회원의 토큰
+     * @param chatInitRequestDto 채팅을 시작할 때 필요한 학습 정보가 담긴 ChatInitInfoDto 객체
+     * @return 세션 번호와 시스템의 첫 메시지가 담긴 ChatResponseDto 객체를 발행하는 Mono
+     */
+    @Override
+    public Mono<ChatResponseDto> sendInitChat(String accessToken, ChatInitRequestDto chatInitRequestDto) {
+        return makeInitChatTurn(accessToken, chatInitRequestDto)
+                .flatMap(chatTurn -> requestChat(chatTurn)
+                        .flatMap(content -> completeChatTurn(chatTurn, content)));
+    }
+
+    /**
+     * 세션에 저장된 이전 채팅 메시지에 사용자가 보낸 새로운 메시지를 추가하고 OpenAI API에 메시지를 요청합니다.
+     *
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @return 사용자가 보낸 메시지와 OpenAI 응답 메시지가 담긴 ChatResponseDto 객체를 발행하는 Mono
+     */
+    @Override
+    public Mono<ChatResponseDto> sendChat(ChatRequestDto chatRequestDto) {
+        return makeChatTurn(chatRequestDto, false)
+                .flatMap(chatTurn -> requestChat(chatTurn)
+                        .flatMap(content -> completeChatTurn(chatTurn, content)));
+    }
+
+    /**
+     * 세션에 저장된 이전 채팅 메시지에 사용자가 보낸 새로운 메시지, 마지막 인사 프롬프트를 추가하고 OpenAI API에 메시지를 요청합니다.
+     *
+     * @param chatRequestDto 세션 번호와 사용자가 보낸 새로운 메시지가 담긴 ChatRequestDto 객체
+     * @return 사용자가 보낸 메시지와 OpenAI 응답 메시지가 담긴 ChatResponseDto 객체를 발행하는 Mono
+     */
+    @Override
+    public Mono<ChatResponseDto> sendFinalChat(ChatRequestDto chatRequestDto) {
+        return makeChatTurn(chatRequestDto, true)
+                .flatMap(chatTurn -> requestChat(chatTurn)
+                        .flatMap(content -> completeChatTurn(chatTurn, content)));
+    }
+
+    @Override
+    public Flux<ServerSentEvent<Object>> sendInitChatStream(String accessToken, ChatInitRequestDto chatInitRequestDto) {
+        return processChatStreamRequest(makeInitChatTurn(accessToken, chatInitRequestDto));
+    }
+
+    @Override
+    public Flux<ServerSentEvent<Object>> sendChatStream(ChatRequestDto chatRequestDto) {
+        return processChatStreamRequest(makeChatTurn(chatRequestDto, false));
+    }
+
+    @Override
+    public Flux<ServerSentEvent<Object>> sendFinalChatStream(ChatRequestDto chatRequestDto) {
+        return processChatStreamRequest(makeChatTurn(chatRequestDto, true));
+    }
+
+    /**
+     * 회원 인증과 동화 조회를 동시에 진행하고 채팅 시작 요청 메시지 리스트를 만듭니다.
+     * 둘 중 하나가 실패하면 다른 하나는 취소됩니다.
+     */
+    private Mono<ChatTurn> makeInitChatTurn(String accessToken, ChatInitRequestDto chatInitRequestDto) {
+        return Mono.zip(findUserAuthorization(accessToken), reactiveTaleService.findTaleDetail(chatInitRequestDto.getTaleId()))
+                .map(tuple -> chatMessageAssembler.makeInitChatTurn(tuple.getT1(), chatInitRequestDto, tuple.getT2()));
+    }
+
+    /**
+     * 세션에 저장된 채팅 시작 정보, 회원 번호와 이전 채팅 메시지를 동시에 가져온 후, 동화 정보를 조회하여 요청 메시지 리스트를 만듭니다.
+     *
+     * @throws CustomException 세션이 없거나 만료되면 예외 처리
+     */
+    private Mono<ChatTurn> makeChatTurn(ChatRequestDto chatRequestDto, boolean isFinal) {
+        String sessionId = chatRequestDto.getSessionId();
+        Mono<ChatSessionDto> session = reactiveChatSessionRedisRepository.findSession(sessionId)
+                .switchIfEmpty(Mono.error(() -> new CustomException(ExceptionCode.CHAT_SESSION_NOT_FOUND)));
+
+        return Mono.zip(session, reactiveChatSessionRedisRepository.findMessages(sessionId))
+                .flatMap(tuple -> reactiveTaleService.findTaleDetail(tuple.getT1().getTaleId())
+                        .map(taleDetailDto -> chatMessageAssembler.makeChatTurn(sessionId, tuple.getT1().getUserId(),
+                                tuple.getT1().toChatInitRequestDto(), taleDetailDto,
+                                tuple.getT2(), chatRequestDto.getMultiChatMessage(), isFinal)));
+    }
+
+    /**
+     * OpenAI API가 응답한 메시지를 이번 채팅의 새 메시지에 추가하고 세션에 저장합니다.
+     * 채팅 기록은 저장 큐가 가득 차 있으면 이벤트 루프를 막지 않도록 기다리지 않고 버립니다.
+     */
+    private Mono<ChatResponseDto> completeChatTurn(ChatTurn chatTurn, String content) {
+        List<MultiChatMessage> newMessageList = chatMessageAssembler.addResponseMessage(chatTurn, content);
+        Mono<Void> save = chatTurn.isInit()
+                ? reactiveChatSessionRedisRepository.saveSession(chatTurn.sessionId(), chatTurn.userId(), chatTurn.chatInitRequestDto(), newMessageList)
+                : reactiveChatSessionRedisRepository.appendMessages(chatTurn.sessionId(), newMessageList);
+
+        return save.doOnSuccess(ignored -> chatTranscriptRecorder.tryRecord(chatTurn, content))
+                .thenReturn(ChatResponseDto.builder()
+                        .sessionId(chatTurn.sessionId())
+                        .multiChatMessageList(newMessageList)
+                        .build());
+    }
+
+    /**
+     * OpenAI API의 토큰 조각을 delta 이벤트로 흘려보내고, 스트림이 끝나면 응답 메시지를 세션에 저장한 후 messages 이벤트를 보냅니다.
+     * 응답 캐시에 있는 질문이면 OpenAI API를 호출하지 않고 캐시된 응답을 하나의 delta 이벤트로 보냅니다.
+     * 클라이언트 연결이 끊기면 구독이 취소되어 OpenAI API 연결도 함께 끊깁니다.
+     *
+     * @param chatTurnMono 채팅 요청 정보를 발행하는 Mono
+     * @return delta, messages, error 이벤트를 발행하는 Flux
+     */
+    private Flux<ServerSentEvent<Object>> processChatStreamRequest(Mono<ChatTurn> chatTurnMono) {
+        return Flux.using(chatMetrics::startStream, streamSample -> chatTurnMono
+                        .flatMapMany(chatTurn -> findCachedResponse(chatTurn)
+                                .map(content -> Flux.just(event(EVENT_DELTA, content))
+                                        .concatWith(completeChatTurn(chatTurn, content).map(chatResponseDto -> event(EVENT_MESSAGES, chatResponseDto))))
+                                .defaultIfEmpty(Flux.defer(() -> streamChat(chatTurn)))
+                                .flatMapMany(events -> events))
+                        .onErrorResume(e -> Mono.just(event(EVENT_ERROR, ErrorResponse.of(e)))),
+                LongTaskTimer.Sample::stop);
+    }
+
+    /**
+     * OpenAI API에 stream 모드로 요청하여 토큰 조각을 delta 이벤트로 보내고, 스트림이 끝나면 응답을 캐시와 세션에 저장한 후 messages 이벤트를 보냅니다.
+     */
+    private Flux<ServerSentEvent<Object>> streamChat(ChatTurn chatTurn) {
+        StringBuilder content = new StringBuilder();
+        Flux<ServerSentEvent<Object>> deltaEvents = reactiveChatGptClient.streamChat(chatTurn.requestMessageList(), chatTurn.tier(), chatTurn.usage()::add)
+                .doOnNext(content::append)
+                .map(delta -> event(EVENT_DELTA, delta));
+        Mono<ServerSentEvent<Object>> messagesEvent = Mono.defer(() -> chatResponseCache.saveReactive(chatTurn.responseCacheKey(), content.toString())
+                        .then(completeChatTurn(chatTurn, content.toString())))
+                .map(chatResponseDto -> event(EVENT_MESSAGES, chatResponseDto));
+        return deltaEvents.concatWith(messagesEvent);
+    }
+
+    /**
+     * 미리 만든 첫 인사나 응답 캐시에서 응답을 찾고, 없으면 OpenAI API에 메시지를 요청한 후 응답을 캐시에 저장합니다.
+     */
+    private Mono<String> requestChat(ChatTurn chatTurn) {
+        return findCachedResponse(chatTurn)
+                .switchIfEmpty(Mono.defer(() -> reactiveChatGptClient.requestChat(chatTurn.requestMessageList(), chatTurn.tier(), chatTurn.usage()::add)
+                        .flatMap(content -> chatResponseCache.saveReactive(chatTurn.responseCacheKey(), content).thenReturn(content))));
+    }
+
+    /**
+     * 채팅 시작이면 미리 만든 첫 인사를, 아니면 응답 캐시에서 같거나 비슷한 질문의 응답을 찾습니다.
+     */
+    private Mono<String> findCachedResponse(ChatTurn chatTurn) {
+        if (chatTurn.isInit())
+            return Mono.justOrEmpty(chatOpeningCache.find(chatTurn.chatInitRequestDto()));
+        return chatResponseCache.findReactive(chatTurn.responseCacheKey());
+    }
+
+    private ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data)
+                .event(name)
+                .build();
+    }
+
+    /**
+     * 인증 캐시에서 토큰의 회원 번호를 찾고, 없으면 회원 서비스로 토큰을 보내 인증합니다.
+     *
+     * @param accessToken 로그인한 회원의 토큰
+     * @return 회원 번호를 발행하는 Mono
+     * @throws CustomException 토큰이 유효하지 않거나 회원 서비스에 연결할 수 없으면 예외 처리
+     */
+    @Override
+    public Mono<Long> findUserAuthorization(String accessToken) {
+        return userAuthorizationCache.getUserIdReactive(accessToken, this::requestUserAuthorization);
+    }
+
+    /**
+     * 회원 서비스로 토큰을 보내고 인증이 완료되면 회원 번호를 발행합니다.
+     * 회원 서비스가 4xx로 응답하면 토큰이 유효하지 않은 것이고, 연결 실패나 5xx 응답은 회원 서비스 장애로 구분합니다.
+     */
+    private Mono<Long> requestUserAuthorization(String accessToken) {
+        return webClient.get()
+                .uri(userURL + "/auth")
+                .header(HttpHeaders.AUTHORIZATION, accessToken)
+                .retrieve()
+                .bodyToMono(Long.class)
+                .switchIfEmpty(Mono.error(() -> new CustomException(ExceptionCode.INVALID_TOKEN)))
+                .onErrorMap(e -> !(e instanceof CustomException), e -> {
+                    if (e instanceof WebClientResponseException responseException && responseException.getStatusCode().is4xxClientError())
+                        return new CustomException(ExceptionCode.INVALID_TOKEN);
+                    return new CustomException(ExceptionCode.USER_SERVICE_UNAVAILABLE);
+                });
+    }
+}
@@ -0,0 +1,9 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.dto.TaleDetailDto;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTaleService {
+
+    Mono<TaleDetailDto> findTaleDetail(Long taleId);
+}
@@ -0,0 +1,142 @@
+package com.tosi.chat.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.common.health.TaleServiceHealthIndicator;
+import com.tosi.chat.dto.TaleDetailDto;
+import com.tosi.chat.repository.ReactiveTaleDetailDtoRedisRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "chat.engine", havingValue = "reactive")
+public class ReactiveTaleServiceImpl implements ReactiveTaleService {
+    private final WebClient webClient;
+    private final ReactiveTaleDetailDtoRedisRepository reactiveTaleDetailDtoRedisRepository;
+    private final TaleServiceHealthIndicator taleServiceHealthIndicator;
+    private final AsyncCache<Long, TaleDetailDto> taleDetailLocalCache;
+    private final Cache<Long, Boolean> notFoundTaleCache;
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+    private final Counter redisErrorCounter;
+    private final Timer redisLookupTimer;
+    private final Timer serviceLookupTimer;
+    @Value("${service.tale.url}")
+    private String taleURL;
+
+    public ReactiveTaleServiceImpl(@Qualifier("taleWebClient") WebClient webClient,
+                                   ReactiveTaleDetailDtoRedisRepository reactiveTaleDetailDtoRedisRepository,
+                                   TaleServiceHealthIndicator taleServiceHealthIndicator,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cache.tale.local.maximum-size}") long maximumSize,
+                                   @Value("${cache.tale.local.expire-after-write}") Duration expireAfterWrite,
+                                   @Value("${cache.tale.not-found.expire-after-write}") Duration notFoundExpireAfterWrite) {
+        this.webClient = webClient;
+        this.reactiveTaleDetailDtoRedisRepository = reactiveTaleDetailDtoRedisRepository;
+        this.taleServiceHealthIndicator = taleServiceHealthIndicator;
+        this.taleDetailLocalCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        this.notFoundTaleCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(notFoundExpireAfterWrite)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, taleDetailLocalCache, "tale", "engine", "reactive");
+        this.redisHitCounter = meterRegistry.counter("chat.tale.redis.requests", "engine", "reactive", "result", "hit");
+        this.redisMissCounter = meterRegistry.counter("chat.tale.redis.requests", "engine", "reactive", "result", "miss");
+        this.redisErrorCounter = meterRegistry.counter("chat.tale.redis.requests", "engine", "reactive", "result", "error");
+        this.redisLookupTimer = Timer.builder("chat.tale.lookup")
+                .description("로컬 캐시에 없는 동화 정보를 단계별로 조회하는 시간")
+                .tags("engine", "reactive", "tier", "redis")
+                .register(meterRegistry);
+        this.serviceLookupTimer = Timer.builder("chat.tale.lookup")
+                .description("로컬 캐시에 없는 동화 정보를 단계별로 조회하는 시간")
+                .tags("engine", "reactive", "tier", "service")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 동화 정보를 로컬 캐시 -> Redis -> Tale 서비스 순서로 조회합니다.
+     * 같은 동화를 동시에 요청하면 하나의 조회 결과(Future)를 함께 기다리며, 한 요청이 취소되어도 공유 중인 조회는 취소하지 않습니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보를 발행하는 Mono
+     */
+    @Override
+    public Mono<TaleDetailDto> findTaleDetail(Long taleId) {
+        return Mono.defer(() -> {
+            if (notFoundTaleCache.getIfPresent(taleId) != null)
+                return Mono.error(new CustomException(ExceptionCode.TALE_NOT_FOUND));
+            return Mono.fromFuture(taleDetailLocalCache.get(taleId, (key, executor) -> loadTaleDetail(key).toFuture()), true);
+        });
+    }
+
+    /**
+     * 로컬 캐시에 없는 동화 정보를 Redis에서 찾고, Redis에도 없으면 Tale 서비스에서 가져와 Redis에 저장합니다.
+     * Redis 명령이 실패하면 조회는 없는 것으로 취급하고 저장은 건너뛰므로, Redis 장애 중에도 Tale 서비스에서 동화를 가져옵니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보를 발행하는 Mono
+     */
+    private Mono<TaleDetailDto> loadTaleDetail(Long taleId) {
+        Mono<TaleDetailDto> taleServiceLookup = Mono.defer(() -> {
+            return timed(webClient.get()
+                    .uri(taleURL + "/content/" + taleId)
+                    .retrieve()
+                    .bodyToMono(TaleDetailDto.class), serviceLookupTimer)
+                    .doOnSuccess(taleDetailDto -> taleServiceHealthIndicator.recordSuccess())
+                    .doOnError(e -> {
+                        if (e instanceof WebClientResponseException responseException && responseException.getStatusCode().is4xxClientError())
+                            taleServiceHealthIndicator.recordSuccess();
+                        else
+                            taleServiceHealthIndicator.recordFailure(e);
+                    })
+                    .onErrorMap(WebClientResponseException.NotFound.class, e -> {
+                        notFoundTaleCache.put(taleId, Boolean.TRUE);
+                        return new CustomException(ExceptionCode.TALE_NOT_FOUND);
+                    })
+                    .flatMap(taleDetailDto -> reactiveTaleDetailDtoRedisRepository.save(taleDetailDto)
+                            .onErrorResume(DataAccessException.class, e -> {
+                                log.warn("Redis에 동화 정보를 저장하지 못했습니다. taleId: {}, {}", taleId, e.getMessage());
+                                return Mono.empty();
+                            })
+                            .thenReturn(taleDetailDto));
+        });
+        Mono<TaleDetailDto> redisLookup = timed(reactiveTaleDetailDtoRedisRepository.findById(taleId), redisLookupTimer)
+                .doOnNext(taleDetailDto -> redisHitCounter.increment())
+                .switchIfEmpty(Mono.fromRunnable(redisMissCounter::increment))
+                .onErrorResume(DataAccessException.class, e -> {
+                    redisErrorCounter.increment();
+                    log.warn("Redis에서 동화 정보를 조회하지 못해 Tale 서비스에서 가져옵니다. taleId: {}, {}", taleId, e.getMessage());
+                    return Mono.empty();
+                });
+        return redisLookup.switchIfEmpty(taleServiceLookup);
+    }
+
+    private <T> Mono<T> timed(Mono<T> mono, Timer timer) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return mono.doFinally(signalType -> timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS));
+        });
+    }
+}
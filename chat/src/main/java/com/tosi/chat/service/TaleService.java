@@ -0,0 +1,12 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.dto.TaleDetailDto;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface TaleService {
+
+    TaleDetailDto findTaleDetail(Long taleId);
+
+    CompletableFuture<TaleDetailDto> findTaleDetailAsync(Long taleId);
+}
@@ -0,0 +1,264 @@
+package com.tosi.chat.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.common.health.TaleServiceHealthIndicator;
+import com.tosi.chat.dto.TaleDetailDto;
+import com.tosi.chat.repository.TaleDetailDtoRedisRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Service
+public class TaleServiceImpl implements TaleService, DisposableBean {
+    private final RestTemplate restTemplate;
+    private final TaleDetailDtoRedisRepository taleDetailDtoRedisRepository;
+    private final TaleServiceHealthIndicator taleServiceHealthIndicator;
+    private final AsyncCache<Long, TaleDetailDto> taleDetailLocalCache;
+    private final Cache<Long, Boolean> notFoundTaleCache;
+    private final LongAdder redisHitCount = new LongAdder();
+    private final LongAdder redisMissCount = new LongAdder();
+    private final LongAdder redisErrorCount = new LongAdder();
+    private final Timer redisLookupTimer;
+    private final Timer serviceLookupTimer;
+    private final ExecutorService taleLookupExecutor;
+    @Value("${service.tale.url}")
+    private String taleURL;
+
+    public TaleServiceImpl(@Qualifier("taleRestTemplate") RestTemplate restTemplate,
+                           TaleDetailDtoRedisRepository taleDetailDtoRedisRepository,
+                           TaleServiceHealthIndicator taleServiceHealthIndicator,
+                           MeterRegistry meterRegistry,
+                           @Value("${cache.tale.local.maximum-size}") long maximumSize,
+                           @Value("${cache.tale.local.expire-after-write}") Duration expireAfterWrite,
+                           @Value("${cache.tale.not-found.expire-after-write}") Duration notFoundExpireAfterWrite,
+                           @Value("${cache.tale.lookup.threads}") int lookupThreads,
+                           @Value("${cache.tale.lookup.queue-capacity}") int lookupQueueCapacity,
+                           @Value("${spring.threads.virtual.enabled}") boolean virtualThreadsEnabled) {
+        this.restTemplate = restTemplate;
+        this.taleDetailDtoRedisRepository = taleDetailDtoRedisRepository;
+        this.taleServiceHealthIndicator = taleServiceHealthIndicator;
+        this.taleDetailLocalCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        this.notFoundTaleCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(notFoundExpireAfterWrite)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, taleDetailLocalCache, "tale", "engine", "servlet");
+        FunctionCounter.builder("chat.tale.redis.requests", redisHitCount, LongAdder::sum)
+                .tags("engine", "servlet", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.tale.redis.requests", redisMissCount, LongAdder::sum)
+                .tags("engine", "servlet", "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.tale.redis.requests", redisErrorCount, LongAdder::sum)
+                .tags("engine", "servlet", "result", "error")
+                .register(meterRegistry);
+        this.redisLookupTimer = Timer.builder("chat.tale.lookup")
+                .description("로컬 캐시에 없는 동화 정보를 단계별로 조회하는 시간")
+                .tags("engine", "servlet", "tier", "redis")
+                .register(meterRegistry);
+        this.serviceLookupTimer = Timer.builder("chat.tale.lookup")
+                .description("로컬 캐시에 없는 동화 정보를 단계별로 조회하는 시간")
+                .tags("engine", "servlet", "tier", "service")
+                .register(meterRegistry);
+        this.taleLookupExecutor = virtualThreadsEnabled
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : newTaleLookupExecutor(lookupThreads, lookupQueueCapacity);
+    }
+
+    /**
+     * Redis, Tale 서비스 조회만 처리하는 작은 스레드 풀을 만듭니다.
+     * SSE 스트리밍 풀과 나누어 두어, 스트리밍 응답이 많아도 동화 조회가 그 뒤에서 기다리지 않습니다.
+     * 큐가 가득 차면 작업을 받지 않으며, 요청 스레드가 직접 조회합니다.
+     */
+    private static ExecutorService newTaleLookupExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "tale-lookup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 동화 정보를 로컬 캐시 -> Redis -> Tale 서비스 순서로 조회합니다.
+     * 앞 단계에서 찾으면 뒤 단계는 호출하지 않으며, 뒤 단계에서 가져온 동화 정보는 앞 단계 캐시에 다시 저장합니다.
+     * 자주 조회되는 동화는 로컬 캐시에서 바로 반환되어 네트워크 요청이 발생하지 않습니다.
+     * 같은 동화를 동시에 요청하면 처음 캐시를 놓친 요청 하나만 조회하고, 나머지 요청은 그 결과를 함께 기다립니다.
+     * 동화마다 별도의 Future를 공유하므로 다른 동화 요청은 서로 기다리지 않습니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 제목, 내용, 등장인물, 이미지가 담긴 TaleDetailDto 객체
+     * @throws CustomException 존재하지 않는 동화이면 예외 처리
+     */
+    @Override
+    public TaleDetailDto findTaleDetail(Long taleId) {
+        if (notFoundTaleCache.getIfPresent(taleId) != null)
+            throw new CustomException(ExceptionCode.TALE_NOT_FOUND);
+
+        // 캐시에 Future가 없을 때만 새 Future를 등록하고, 등록에 성공한 요청이 직접 조회
+        CompletableFuture<TaleDetailDto> loadingFuture = new CompletableFuture<>();
+        CompletableFuture<TaleDetailDto> taleDetailFuture = taleDetailLocalCache.get(taleId, (key, executor) -> loadingFuture);
+        if (taleDetailFuture == loadingFuture) {
+            try {
+                loadingFuture.complete(loadTaleDetail(taleId));
+            } catch (Throwable e) {
+                // 실패한 Future는 캐시에서 자동으로 제거되어 다음 요청이 다시 조회
+                loadingFuture.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return taleDetailFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw e;
+        }
+    }
+
+    /**
+     * 로컬 캐시에 조회가 끝난 동화 정보가 있으면 스레드를 옮기지 않고 바로 완료된 Future를 반환합니다.
+     * 없으면 동화 조회 전용 스레드 풀에서 findTaleDetail을 실행하고, 풀이 가득 차면 현재 스레드에서 조회합니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보 조회 결과를 담을 CompletableFuture 객체
+     */
+    @Override
+    public CompletableFuture<TaleDetailDto> findTaleDetailAsync(Long taleId) {
+        // asMap().get은 적중/실패 통계를 기록하지 않으므로 findTaleDetail에서 한 번만 기록됨
+        CompletableFuture<TaleDetailDto> cachedFuture = taleDetailLocalCache.asMap().get(taleId);
+        if (cachedFuture != null && cachedFuture.isDone() && !cachedFuture.isCompletedExceptionally())
+            return CompletableFuture.completedFuture(cachedFuture.join());
+
+        try {
+            return CompletableFuture.supplyAsync(() -> findTaleDetail(taleId), taleLookupExecutor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<TaleDetailDto> taleDetailFuture = new CompletableFuture<>();
+            try {
+                taleDetailFuture.complete(findTaleDetail(taleId));
+            } catch (RuntimeException te) {
+                taleDetailFuture.completeExceptionally(te);
+            }
+            return taleDetailFuture;
+        }
+    }
+
+    /**
+     * 로컬 캐시에 없는 동화 정보를 Redis에서 찾고, Redis에도 없으면 Tale 서비스에서 가져와 Redis에 저장합니다.
+     * Tale 서비스에 존재하지 않는 동화는 잠시 기록해두고 같은 요청이 반복되어도 Tale 서비스를 호출하지 않습니다.
+     * Redis 명령이 실패하면 조회는 없는 것으로 취급하고 저장은 건너뛰므로, Redis 장애 중에도 Tale 서비스에서 동화를 가져옵니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보가 담긴 TaleDetailDto 객체
+     * @throws CustomException 존재하지 않는 동화이면 예외 처리
+     */
+    private TaleDetailDto loadTaleDetail(Long taleId) {
+        TaleDetailDto cachedTaleDetailDto = redisLookupTimer.record(() -> findCachedTaleDetail(taleId));
+        if (cachedTaleDetailDto != null) {
+            redisHitCount.increment();
+            return cachedTaleDetailDto;
+        }
+
+        TaleDetailDto taleDetailDto;
+        try {
+            taleDetailDto = serviceLookupTimer.record(() -> restTemplate.getForObject(taleURL + "/content/" + taleId, TaleDetailDto.class));
+        } catch (HttpClientErrorException.NotFound e) {
+            taleServiceHealthIndicator.recordSuccess();
+            notFoundTaleCache.put(taleId, Boolean.TRUE);
+            throw new CustomException(ExceptionCode.TALE_NOT_FOUND);
+        } catch (RestClientException e) {
+            if (!(e instanceof HttpClientErrorException))
+                taleServiceHealthIndicator.recordFailure(e);
+            throw e;
+        }
+        taleServiceHealthIndicator.recordSuccess();
+        if (taleDetailDto == null)
+            throw new IllegalStateException("동화 정보를 가져오지 못했습니다. taleId: " + taleId);
+        try {
+            taleDetailDtoRedisRepository.save(taleDetailDto);
+        } catch (DataAccessException e) {
+            log.warn("Redis에 동화 정보를 저장하지 못했습니다. taleId: {}, {}", taleId, e.getMessage());
+        }
+        return taleDetailDto;
+    }
+
+    /**
+     * Redis에서 동화 정보를 찾습니다. Redis 명령이 실패하면 실패 횟수를 기록하고 없는 것으로 취급합니다.
+     *
+     * @param taleId 동화 번호
+     * @return 동화 정보가 담긴 TaleDetailDto 객체; 없거나 Redis 명령이 실패하면 null
+     */
+    private TaleDetailDto findCachedTaleDetail(Long taleId) {
+        try {
+            TaleDetailDto taleDetailDto = taleDetailDtoRedisRepository.findById(String.valueOf(taleId)).orElse(null);
+            if (taleDetailDto == null)
+                redisMissCount.increment();
+            return taleDetailDto;
+        } catch (DataAccessException e) {
+            redisErrorCount.increment();
+            log.warn("Redis에서 동화 정보를 조회하지 못해 Tale 서비스에서 가져옵니다. taleId: {}, {}", taleId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 로컬 캐시의 적중/실패 횟수 등 통계를 반환합니다.
+     */
+    public CacheStats getLocalCacheStats() {
+        return taleDetailLocalCache.synchronous().stats();
+    }
+
+    public long getRedisHitCount() {
+        return redisHitCount.sum();
+    }
+
+    public long getRedisMissCount() {
+        return redisMissCount.sum();
+    }
+
+    public long getRedisErrorCount() {
+        return redisErrorCount.sum();
+    }
+
+    @Override
+    public void destroy() {
+        taleLookupExecutor.shutdown();
+    }
+}
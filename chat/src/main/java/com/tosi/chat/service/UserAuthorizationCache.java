@@ -0,0 +1,236 @@
+package com.tosi.chat.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 회원 서비스에서 인증된 토큰의 회원 번호를 저장하는 로컬 캐시
+ * 토큰 원문 대신 SHA-256 해시를 키로 사용하여 메모리에 토큰이 남지 않으며,
+ * 항목마다 설정된 유지 시간과 토큰의 만료 시간(JWT exp) 중 먼저 오는 시점에 만료되어 만료된 토큰으로는 인증되지 않습니다.
+ * 같은 토큰을 동시에 인증하면 회원 서비스는 한 번만 호출하고, 인증에 실패한 결과는 저장하지 않습니다.
+ * servlet, reactive 채팅 엔진이 함께 사용합니다.
+ */
+@Component
+public class UserAuthorizationCache {
+    private static final String BEARER_PREFIX = "Bearer ";
+    private final ObjectMapper objectMapper;
+    private final Duration expireAfterWrite;
+    private final AsyncCache<String, UserAuthorization> userAuthorizationCache;
+    private final Timer lookupTimer;
+
+    public UserAuthorizationCache(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cache.auth.maximum-size}") long maximumSize,
+                                  @Value("${cache.auth.expire-after-write}") Duration expireAfterWrite) {
+        this.objectMapper = objectMapper;
+        this.expireAfterWrite = expireAfterWrite;
+        this.userAuthorizationCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UserAuthorizationExpiry())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, userAuthorizationCache, "auth");
+        this.lookupTimer = Timer.builder("chat.auth.lookup")
+                .description("캐시 조회와 회원 서비스 인증을 포함한 회원 번호 조회 시간")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시에서 토큰의 회원 번호를 찾고, 없으면 현재 스레드에서 authorizer로 인증한 후 저장합니다.
+     * 같은 토큰을 동시에 요청하면 처음 캐시를 놓친 요청 하나만 인증하고, 나머지 요청은 그 결과를 함께 기다립니다.
+     *
+     * @param accessToken 로그인한 회원의 토큰
+     * @param authorizer  회원 서비스로 토큰을 인증하고 회원 번호를 반환하는 함수
+     * @return 회원 번호
+     */
+    public Long getUserId(String accessToken, Function<String, Long> authorizer) {
+        return lookupTimer.record(() -> findUserId(accessToken, authorizer));
+    }
+
+    /**
+     * 캐시에서 토큰의 회원 번호를 찾고, 없으면 authorizer가 발행한 회원 번호를 저장합니다.
+     * 한 요청이 취소되어도 같은 토큰을 기다리는 다른 요청의 인증은 취소하지 않습니다.
+     *
+     * @param accessToken 로그인한 회원의 토큰
+     * @param authorizer  회원 서비스로 토큰을 인증하고 회원 번호를 발행하는 함수
+     * @return 회원 번호를 발행하는 Mono
+     */
+    public Mono<Long> getUserIdReactive(String accessToken, Function<String, Mono<Long>> authorizer) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            String key = hash(accessToken);
+            return Mono.fromFuture(userAuthorizationCache.get(key,
+                            (k, executor) -> authorizer.apply(accessToken)
+                                    .map(userId -> authorize(accessToken, userId))
+                                    .toFuture()), true)
+                    .map(userAuthorization -> evictIfExpired(key, userAuthorization).userId())
+                    .doFinally(signalType -> lookupTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * 요청 수를 제한할 때 토큰을 구분하는 값을 반환합니다. 회원 서비스는 호출하지 않습니다.
+     * 이미 인증된 토큰이면 회원 번호를 사용해 같은 회원의 여러 토큰이 하나의 한도를 나눠 쓰고,
+     * 아직 인증되지 않은 토큰은 토큰 해시를 사용해 다른 회원의 번호를 흉내 내도 그 회원의 한도를 소진하지 못합니다.
+     *
+     * @param accessToken 요청의 Authorization 헤더 값
+     * @return 인증된 토큰이면 user:{회원 번호}, 아니면 token:{토큰 해시}
+     */
+    public String findRateLimitKey(String accessToken) {
+        String key = hash(accessToken);
+        CompletableFuture<UserAuthorization> userAuthorizationFuture = userAuthorizationCache.getIfPresent(key);
+        if (userAuthorizationFuture != null && userAuthorizationFuture.isDone() && !userAuthorizationFuture.isCompletedExceptionally())
+            return userRateLimitKey(userAuthorizationFuture.join().userId());
+        return "token:" + key;
+    }
+
+    /**
+     * 회원 번호로 요청 수를 제한할 때 사용하는 값을 반환합니다.
+     * 토큰 없이 세션 번호로 보낸 요청도 같은 값을 사용해 토큰으로 보낸 요청과 하나의 한도를 나눠 씁니다.
+     *
+     * @param userId 회원 번호
+     * @return user:{회원 번호}
+     */
+    public static String userRateLimitKey(Long userId) {
+        return "user:" + userId;
+    }
+
+    /**
+     * 인증 캐시의 적중/실패 횟수 등 통계를 반환합니다.
+     */
+    public CacheStats getStats() {
+        return userAuthorizationCache.synchronous().stats();
+    }
+
+    /**
+     * 같은 토큰을 동시에 요청하면 처음 캐시를 놓친 요청 하나만 현재 스레드에서 인증하고, 나머지 요청은 그 결과를 함께 기다립니다.
+     */
+    private Long findUserId(String accessToken, Function<String, Long> authorizer) {
+        String key = hash(accessToken);
+        CompletableFuture<UserAuthorization> loadingFuture = new CompletableFuture<>();
+        CompletableFuture<UserAuthorization> userAuthorizationFuture =
+                userAuthorizationCache.get(key, (k, executor) -> loadingFuture);
+        if (userAuthorizationFuture == loadingFuture) {
+            try {
+                loadingFuture.complete(authorize(accessToken, authorizer.apply(accessToken)));
+            } catch (Throwable e) {
+                // 실패한 Future는 캐시에서 자동으로 제거되어 다음 요청이 다시 인증
+                loadingFuture.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return evictIfExpired(key, userAuthorizationFuture.join()).userId();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw e;
+        }
+    }
+
+    /**
+     * 회원 번호와 캐시 유지 시간을 계산합니다.
+     * 토큰이 JWT이면 만료 시간까지 남은 시간과 설정된 유지 시간 중 짧은 시간만 유지합니다.
+     *
+     * @param accessToken 로그인한 회원의 토큰
+     * @param userId      회원 번호
+     * @return 회원 번호와 캐시 유지 시간이 담긴 UserAuthorization 객체
+     */
+    private UserAuthorization authorize(String accessToken, Long userId) {
+        if (userId == null)
+            throw new IllegalStateException("회원 번호를 가져오지 못했습니다.");
+        long expireAfterNanos = expireAfterWrite.toNanos();
+        Long expiresAt = findExpiresAt(accessToken);
+        if (expiresAt != null) {
+            long remainingMillis = expiresAt * 1000 - System.currentTimeMillis();
+            expireAfterNanos = Math.max(0, Math.min(expireAfterNanos, Duration.ofMillis(remainingMillis).toNanos()));
+        }
+        return new UserAuthorization(userId, expireAfterNanos);
+    }
+
+    /**
+     * 이미 만료된 토큰의 인증 결과는 이번 요청에만 사용하고 캐시에서 바로 제거합니다.
+     * 유지 시간이 0인 항목도 같은 시각에 조회되면 남아 있을 수 있기 때문입니다.
+     */
+    private UserAuthorization evictIfExpired(String key, UserAuthorization userAuthorization) {
+        if (userAuthorization.expireAfterNanos() == 0)
+            userAuthorizationCache.synchronous().invalidate(key);
+        return userAuthorization;
+    }
+
+    /**
+     * JWT payload의 exp(초 단위 만료 시각)를 읽습니다.
+     * 서명은 회원 서비스가 검증하므로 여기서는 캐시 유지 시간을 정하는 데만 사용합니다.
+     *
+     * @param accessToken 로그인한 회원의 토큰
+     * @return 만료 시각; JWT가 아니거나 exp가 없으면 null
+     */
+    private Long findExpiresAt(String accessToken) {
+        String token = accessToken.startsWith(BEARER_PREFIX) ? accessToken.substring(BEARER_PREFIX.length()) : accessToken;
+        int payloadStart = token.indexOf('.');
+        int payloadEnd = token.indexOf('.', payloadStart + 1);
+        if (payloadStart < 0 || payloadEnd < 0)
+            return null;
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(payloadStart + 1, payloadEnd));
+            JsonNode exp = objectMapper.readTree(payload).get("exp");
+            return exp != null && exp.canConvertToLong() ? exp.asLong() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String hash(String accessToken) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(accessToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record UserAuthorization(Long userId, long expireAfterNanos) {
+    }
+
+    /**
+     * 항목마다 계산해둔 유지 시간으로 만료 시점을 정합니다.
+     * 인증이 진행 중인 Future는 완료된 후에 만료 시점이 계산됩니다.
+     */
+    private static class UserAuthorizationExpiry implements Expiry<String, UserAuthorization> {
+        @Override
+        public long expireAfterCreate(String key, UserAuthorization value, long currentTime) {
+            return value.expireAfterNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, UserAuthorization value, long currentTime, long currentDuration) {
+            return value.expireAfterNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, UserAuthorization value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
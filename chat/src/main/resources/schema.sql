@@ -0,0 +1,25 @@
+CREATE TABLE IF NOT EXISTS chat_session
+(
+    session_id     CHAR(36)    NOT NULL PRIMARY KEY,
+    user_id        BIGINT      NOT NULL,
+    tale_id        BIGINT      NOT NULL,
+    child_name     VARCHAR(50),
+    character_name VARCHAR(50),
+    created_at     DATETIME(3) NOT NULL,
+    INDEX idx_chat_session_user (user_id, created_at)
+);
+
+CREATE TABLE IF NOT EXISTS chat_turn
+(
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    session_id        CHAR(36)    NOT NULL,
+    turn              INT         NOT NULL,
+    question          TEXT,
+    answer            TEXT        NOT NULL,
+    is_final          BOOLEAN     NOT NULL,
+    prompt_tokens     INT         NOT NULL,
+    cached_tokens     INT         NOT NULL,
+    completion_tokens INT         NOT NULL,
+    created_at        DATETIME(3) NOT NULL,
+    INDEX idx_chat_turn_session (session_id, turn)
+);
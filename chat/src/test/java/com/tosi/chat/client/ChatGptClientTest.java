@@ -0,0 +1,183 @@
+package com.tosi.chat.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.config.OpenAiRateLimitProperties;
+import com.tosi.chat.common.config.OpenAiResilienceProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.service.ChatTokenBudgeter;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ChatGptClientTest {
+    private static final List<String> CHUNKS = List.of(
+            "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n",
+            "data: {\"choices\":[{\"delta\":{\"content\":\"안녕\"}}]}\n\n",
+            "data: {\"choices\":[{\"delta\":{\"content\":\", 나는 \"}}]}\n\n",
+            "data: {\"choices\":[{\"delta\":{\"content\":\"토끼야!\"}}]}\n\n",
+            "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":1200,\"completion_tokens\":8,\"total_tokens\":1208,\"prompt_tokens_details\":{\"cached_tokens\":1024}}}\n\n",
+            "data: [DONE]\n\n");
+
+    private HttpServer stubServer;
+    private ExecutorService stubExecutor;
+    private ChatGptClient chatGptClient;
+    private ChatUsageRecorder chatUsageRecorder;
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+    private final CountDownLatch stallLatch = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 청크 단위로 SSE를 흘려보내는 OpenAI API 스텁
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/v1/chat/completions", exchange -> {
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (String chunk : CHUNKS) {
+                    body.write(chunk.getBytes(StandardCharsets.UTF_8));
+                    body.flush();
+                }
+            }
+        });
+        // 첫 토큰 조각까지 보낸 후 응답을 멈추는 스텁
+        stubServer.createContext("/v1/stalled", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (String chunk : CHUNKS.subList(0, 2)) {
+                    body.write(chunk.getBytes(StandardCharsets.UTF_8));
+                    body.flush();
+                }
+                stallLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // 클라이언트가 요청을 취소한 경우
+            }
+        });
+        // 본문 없이 200으로 응답하는 스텁
+        stubServer.createContext("/v1/empty", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        stubExecutor = Executors.newCachedThreadPool();
+        stubServer.setExecutor(stubExecutor);
+        stubServer.start();
+
+        chatUsageRecorder = new ChatUsageRecorder();
+        chatGptClient = createClient("/v1/chat/completions", new RestTemplate(), Duration.ofSeconds(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stallLatch.countDown();
+        stubServer.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void streamChatRelaysDeltasInOrderAndReturnsFullContent() {
+        List<String> deltas = new ArrayList<>();
+
+        String content = chatGptClient.streamChat(List.of(new MultiChatMessage("user", "안녕?")), ChatGptProperties.Tier.STANDARD, deltas::add);
+
+        assertThat(deltas).containsExactly("안녕", ", 나는 ", "토끼야!");
+        assertThat(content).isEqualTo("안녕, 나는 토끼야!");
+        assertThat(requestBody.get()).contains("\"stream\":true").contains("\"stream_options\":{\"include_usage\":true}");
+        assertThat(chatUsageRecorder.getPromptTokens()).isEqualTo(1200);
+        assertThat(chatUsageRecorder.getCachedPromptTokens()).isEqualTo(1024);
+    }
+
+    @Test
+    void stalledStreamIsCancelledAfterIdleTimeout() {
+        ChatGptClient stalledClient = createClient("/v1/stalled", jdkRestTemplate(), Duration.ofMillis(300));
+        List<String> deltas = new ArrayList<>();
+
+        long startTime = System.nanoTime();
+        assertThatThrownBy(() -> stalledClient.streamChat(List.of(new MultiChatMessage("user", "안녕?")), ChatGptProperties.Tier.STANDARD, deltas::add))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).isLessThan(3000);
+        assertThat(deltas).containsExactly("안녕");
+        stalledClient.destroy();
+    }
+
+    @Test
+    void streamStopsWhenResponseIsClosed() {
+        ChatGptClient stalledClient = createClient("/v1/stalled", jdkRestTemplate(), Duration.ofSeconds(20));
+        AtomicBoolean responseClosed = new AtomicBoolean();
+        List<String> deltas = new ArrayList<>();
+
+        long startTime = System.nanoTime();
+        assertThatThrownBy(() -> stalledClient.streamChat(List.of(new MultiChatMessage("user", "안녕?")), ChatGptProperties.Tier.STANDARD,
+                usage -> {
+                }, delta -> {
+                    deltas.add(delta);
+                    responseClosed.set(true);
+                }, responseClosed::get))
+                .isInstanceOf(CancellationException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).isLessThan(3000);
+        assertThat(deltas).containsExactly("안녕");
+        stalledClient.destroy();
+    }
+
+    @Test
+    void emptyCompletionBodyIsTreatedAsBackendFailure() {
+        ChatGptClient emptyClient = createClient("/v1/empty", new RestTemplate(), Duration.ofSeconds(20));
+
+        assertThatThrownBy(() -> emptyClient.requestChat(List.of(new MultiChatMessage("user", "안녕?")), ChatGptProperties.Tier.STANDARD))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getExceptionCode()).isEqualTo(ExceptionCode.CHAT_API_UNAVAILABLE));
+        emptyClient.destroy();
+    }
+
+    private ChatGptClient createClient(String path, RestTemplate restTemplate, Duration streamIdleTimeout) {
+        ChatGptProperties chatGptProperties = new ChatGptProperties();
+        chatGptProperties.setApiKey("test-key");
+        chatGptProperties.setApiUrl("http://localhost:" + stubServer.getAddress().getPort() + path);
+        chatGptProperties.setStreamIdleTimeout(streamIdleTimeout);
+        CompletionRouter completionRouter = new CompletionRouter(chatGptProperties, new OpenAiResilienceProperties(),
+                new OpenAiRateLimitProperties(), mock(ChatTokenBudgeter.class),
+                mock(StringRedisTemplate.class), mock(ReactiveStringRedisTemplate.class),
+                new SimpleMeterRegistry());
+        return new ChatGptClient(completionRouter, restTemplate, new ObjectMapper(), chatUsageRecorder);
+    }
+
+    private RestTemplate jdkRestTemplate() {
+        // 운영 환경의 openAiRestTemplate과 같은 JDK HttpClient
+        return new RestTemplate(new JdkClientHttpRequestFactory());
+    }
+}
@@ -0,0 +1,155 @@
+package com.tosi.chat.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.config.OpenAiRateLimitProperties;
+import com.tosi.chat.common.config.OpenAiResilienceProperties;
+import com.tosi.chat.service.ChatTokenBudgeter;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CompletionRouterTest {
+    private static final String COMPLETION = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"안녕!\"}}]}";
+    private static final List<MultiChatMessage> MESSAGES = List.of(new MultiChatMessage("user", "안녕?"));
+
+    private HttpServer stubServer;
+    private final Map<String, Integer> backendStatuses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private ChatGptProperties chatGptProperties;
+    private CompletionRouter completionRouter;
+    private ChatGptClient chatGptClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 백엔드(모델)마다 정해둔 상태 코드로 응답하는 OpenAI API 스텁
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/v1/chat/completions", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String model = body.contains("\"gpt-4o-mini\"") ? "gpt-4o-mini" : "gpt-4o";
+            requestCounts.computeIfAbsent(model, key -> new AtomicInteger()).incrementAndGet();
+            int status = backendStatuses.getOrDefault(model, 200);
+            byte[] response = (status == 200 ? COMPLETION : "{\"error\":{}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        });
+        stubServer.start();
+
+        chatGptProperties = new ChatGptProperties();
+        chatGptProperties.setApiKey("test-key");
+        chatGptProperties.setApiUrl("http://localhost:" + stubServer.getAddress().getPort() + "/v1/chat/completions");
+        chatGptProperties.setBackends(List.of(
+                backend("gpt-4o-mini", 0.15, 0.6, ChatGptProperties.Tier.STANDARD),
+                backend("gpt-4o", 2.5, 10, ChatGptProperties.Tier.FINAL)));
+        createClient();
+    }
+
+    private void createClient() {
+        OpenAiResilienceProperties openAiResilienceProperties = new OpenAiResilienceProperties();
+        openAiResilienceProperties.getRetry().setMaxAttempts(1);
+        completionRouter = new CompletionRouter(chatGptProperties, openAiResilienceProperties, new OpenAiRateLimitProperties(),
+                mock(ChatTokenBudgeter.class), mock(StringRedisTemplate.class), mock(ReactiveStringRedisTemplate.class),
+                new SimpleMeterRegistry());
+        chatGptClient = new ChatGptClient(completionRouter, new RestTemplate(), new ObjectMapper(), new ChatUsageRecorder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+    }
+
+    @Test
+    void tierSelectsPreferredBackend() {
+        assertThat(completionRouter.route(ChatGptProperties.Tier.STANDARD))
+                .extracting(CompletionBackend::getName)
+                .containsExactly("gpt-4o-mini", "gpt-4o");
+        assertThat(completionRouter.route(ChatGptProperties.Tier.FINAL))
+                .extracting(CompletionBackend::getName)
+                .containsExactly("gpt-4o", "gpt-4o-mini");
+
+        chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.FINAL);
+        assertThat(requestCounts.get("gpt-4o").get()).isEqualTo(1);
+        assertThat(requestCounts).doesNotContainKey("gpt-4o-mini");
+    }
+
+    @Test
+    void serverErrorFallsBackToNextBackend() {
+        backendStatuses.put("gpt-4o-mini", 503);
+
+        assertThat(chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD)).isEqualTo("안녕!");
+        assertThat(requestCounts.get("gpt-4o-mini").get()).isEqualTo(1);
+        assertThat(requestCounts.get("gpt-4o").get()).isEqualTo(1);
+
+        // 오류 비율이 maxErrorRate를 넘으면 우선 처리하는 등급이어도 뒤로 밀림
+        for (int i = 0; i < 10; i++)
+            chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD);
+        assertThat(completionRouter.route(ChatGptProperties.Tier.STANDARD))
+                .extracting(CompletionBackend::getName)
+                .containsExactly("gpt-4o", "gpt-4o-mini");
+    }
+
+    @Test
+    void degradedBackendRecoversOverTime() throws InterruptedException {
+        chatGptProperties.getRouting().setErrorRateHalfLife(Duration.ofMillis(200));
+        createClient();
+        backendStatuses.put("gpt-4o-mini", 503);
+        for (int i = 0; i < 30 && completionRouter.route(ChatGptProperties.Tier.STANDARD).get(0).getName().equals("gpt-4o-mini"); i++)
+            chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD);
+        assertThat(completionRouter.route(ChatGptProperties.Tier.STANDARD))
+                .extracting(CompletionBackend::getName)
+                .containsExactly("gpt-4o", "gpt-4o-mini");
+
+        // 뒤로 밀려 요청을 받지 못해도 오류 비율이 반감기마다 절반으로 줄어 다시 먼저 시도
+        backendStatuses.remove("gpt-4o-mini");
+        Thread.sleep(500);
+        assertThat(completionRouter.route(ChatGptProperties.Tier.STANDARD))
+                .extracting(CompletionBackend::getName)
+                .containsExactly("gpt-4o-mini", "gpt-4o");
+        int miniRequestCount = requestCounts.get("gpt-4o-mini").get();
+        chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD);
+        assertThat(requestCounts.get("gpt-4o-mini").get()).isEqualTo(miniRequestCount + 1);
+    }
+
+    @Test
+    void clientErrorDoesNotFallBack() {
+        backendStatuses.put("gpt-4o-mini", 400);
+
+        assertThatThrownBy(() -> chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD))
+                .isInstanceOf(HttpClientErrorException.BadRequest.class);
+        assertThat(requestCounts).doesNotContainKey("gpt-4o");
+    }
+
+    private ChatGptProperties.Backend backend(String model, double inputCost, double outputCost, ChatGptProperties.Tier tier) {
+        ChatGptProperties.Backend backend = new ChatGptProperties.Backend();
+        backend.setModel(model);
+        backend.setInputCost(inputCost);
+        backend.setOutputCost(outputCost);
+        backend.setTiers(Set.of(tier));
+        return backend;
+    }
+}
@@ -0,0 +1,83 @@
+package com.tosi.chat.client;
+
+import com.tosi.chat.common.config.OpenAiRateLimitProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.service.ChatTokenBudgeter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class OpenAiRateLimiterTest {
+    private OpenAiRateLimitProperties openAiRateLimitProperties;
+
+    @BeforeEach
+    void setUp() {
+        openAiRateLimitProperties = new OpenAiRateLimitProperties();
+        openAiRateLimitProperties.setTokensPerMinute(12000); // 초당 200 토큰
+        openAiRateLimitProperties.setReplicas(2); // 파드마다 초당 100 토큰
+        openAiRateLimitProperties.setQueueTimeout(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void requestOverLimitWaitsUntilDeadline() {
+        OpenAiRateLimiter openAiRateLimiter = openAiRateLimiter();
+        openAiRateLimiter.acquire(6000);
+
+        long startTime = System.nanoTime();
+        openAiRateLimiter.acquire(30);
+        assertThat(Duration.ofNanos(System.nanoTime() - startTime)).isGreaterThanOrEqualTo(Duration.ofMillis(250));
+
+        assertThatThrownBy(() -> openAiRateLimiter.acquire(200))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getExceptionCode()).isEqualTo(ExceptionCode.CHAT_API_RATE_LIMITED));
+        assertThat(openAiRateLimiter.getDelayedRequestCount()).isEqualTo(1);
+        assertThat(openAiRateLimiter.getRejectedRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptedWaitReturnsReservation() {
+        OpenAiRateLimiter openAiRateLimiter = openAiRateLimiter();
+        openAiRateLimiter.acquire(6000);
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> openAiRateLimiter.acquire(60))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getExceptionCode()).isEqualTo(ExceptionCode.CHAT_API_RATE_LIMITED));
+        assertThat(Thread.interrupted()).isTrue();
+
+        // 돌려받지 못했다면 140 토큰을 기다려야 해서(1.4초) queueTimeout을 넘음
+        openAiRateLimiter.acquire(80);
+        assertThat(openAiRateLimiter.getRejectedRequestCount()).isZero();
+    }
+
+    @Test
+    void responseHeadersAdjustLimitAndRemaining() {
+        OpenAiRateLimiter openAiRateLimiter = openAiRateLimiter();
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("x-ratelimit-limit-tokens", "1200000");
+        headers.add("x-ratelimit-remaining-tokens", "0");
+        openAiRateLimiter.update(headers);
+
+        // 남은 토큰이 0이어도 늘어난 한도(파드마다 초당 10000 토큰)로 빠르게 채워짐
+        long startTime = System.nanoTime();
+        openAiRateLimiter.acquire(2000);
+        assertThat(Duration.ofNanos(System.nanoTime() - startTime))
+                .isGreaterThanOrEqualTo(Duration.ofMillis(150))
+                .isLessThan(Duration.ofSeconds(1));
+        assertThat(openAiRateLimiter.getDelayedRequestCount()).isEqualTo(1);
+    }
+
+    private OpenAiRateLimiter openAiRateLimiter() {
+        return new OpenAiRateLimiter("gpt-4o-mini", openAiRateLimitProperties, 1000, mock(ChatTokenBudgeter.class),
+                mock(StringRedisTemplate.class), mock(ReactiveStringRedisTemplate.class));
+    }
+}
@@ -0,0 +1,183 @@
+package com.tosi.chat.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.common.config.OpenAiRateLimitProperties;
+import com.tosi.chat.common.config.OpenAiResilienceProperties;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import com.tosi.chat.service.ChatTokenBudgeter;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class OpenAiResilienceTest {
+    private static final String COMPLETION = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"안녕!\"}}]}";
+    private static final List<MultiChatMessage> MESSAGES = List.of(new MultiChatMessage("user", "안녕?"));
+
+    private HttpServer stubServer;
+    private ExecutorService stubExecutor;
+    private final Queue<StubResponse> stubResponses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private OpenAiResilienceProperties openAiResilienceProperties;
+    private CompletionRouter completionRouter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 순서대로 지연, 오류 응답을 주입하는 OpenAI API 스텁; 준비한 응답이 없으면 바로 200으로 응답
+        stubExecutor = Executors.newCachedThreadPool();
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.setExecutor(stubExecutor);
+        stubServer.createContext("/v1/chat/completions", exchange -> {
+            requestCount.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            StubResponse stubResponse = stubResponses.poll();
+            if (stubResponse == null)
+                stubResponse = new StubResponse(200, 0, Map.of());
+            try {
+                Thread.sleep(stubResponse.delayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (stubResponse.status() == 200 ? COMPLETION : "{\"error\":{}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            stubResponse.headers().forEach(exchange.getResponseHeaders()::add);
+            exchange.sendResponseHeaders(stubResponse.status(), body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        stubServer.start();
+
+        openAiResilienceProperties = new OpenAiResilienceProperties();
+        openAiResilienceProperties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void serverErrorsAreRetried() {
+        stubResponses.add(new StubResponse(503, 0, Map.of()));
+        stubResponses.add(new StubResponse(502, 0, Map.of()));
+        ChatGptClient chatGptClient = chatGptClient();
+        OpenAiResilience openAiResilience = openAiResilience();
+
+        assertThat(chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD)).isEqualTo("안녕!");
+        assertThat(requestCount.get()).isEqualTo(3);
+        assertThat(openAiResilience.getRetriedCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tooManyRequestsWaitsForRetryAfter() {
+        stubResponses.add(new StubResponse(429, 0, Map.of("retry-after-ms", "300")));
+        ChatGptClient chatGptClient = chatGptClient();
+
+        long startTime = System.nanoTime();
+        assertThat(chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD)).isEqualTo("안녕!");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startTime)).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+        assertThat(requestCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void clientErrorsAndLongRetryAfterAreNotRetried() {
+        stubResponses.add(new StubResponse(400, 0, Map.of()));
+        stubResponses.add(new StubResponse(429, 0, Map.of("Retry-After", "60")));
+        ChatGptClient chatGptClient = chatGptClient();
+
+        assertThatThrownBy(() -> chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD)).isInstanceOf(HttpClientErrorException.BadRequest.class);
+        assertThatThrownBy(() -> chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getExceptionCode()).isEqualTo(ExceptionCode.CHAT_API_RATE_LIMITED));
+        assertThat(requestCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedServerErrors() {
+        openAiResilienceProperties.getRetry().setMaxAttempts(1);
+        openAiResilienceProperties.getCircuitBreaker().setSlidingWindowSize(4);
+        openAiResilienceProperties.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        for (int i = 0; i < 4; i++)
+            stubResponses.add(new StubResponse(500, 0, Map.of()));
+        ChatGptClient chatGptClient = chatGptClient();
+        OpenAiResilience openAiResilience = openAiResilience();
+
+        for (int i = 0; i < 4; i++)
+            assertThatThrownBy(() -> chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD)).isNotInstanceOf(CustomException.class);
+
+        assertThatThrownBy(() -> chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getExceptionCode()).isEqualTo(ExceptionCode.CHAT_API_UNAVAILABLE));
+        assertThat(openAiResilience.getCircuitBreakerState()).isEqualTo("OPEN");
+        assertThat(requestCount.get()).isEqualTo(4);
+    }
+
+    @Test
+    void slowRequestIsHedged() {
+        OpenAiResilienceProperties.Hedge hedge = openAiResilienceProperties.getHedge();
+        hedge.setEnabled(true);
+        hedge.setMinimumNumberOfCalls(5);
+        hedge.setMinDelay(Duration.ofMillis(100));
+        ChatGptClient chatGptClient = chatGptClient();
+        OpenAiResilience openAiResilience = openAiResilience();
+        for (int i = 0; i < 5; i++)
+            chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD);
+
+        stubResponses.add(new StubResponse(200, 3000, Map.of()));
+        long startTime = System.nanoTime();
+        assertThat(chatGptClient.requestChat(MESSAGES, ChatGptProperties.Tier.STANDARD)).isEqualTo("안녕!");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startTime)).isLessThan(Duration.ofSeconds(2));
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        assertThat(openAiResilience.getHedgedRequestCount()).isEqualTo(1);
+        assertThat(openAiResilience.getCircuitBreakerState()).isEqualTo("CLOSED");
+        assertThat(requestCount.get()).isEqualTo(7);
+    }
+
+    private ChatGptClient chatGptClient() {
+        ChatGptProperties chatGptProperties = new ChatGptProperties();
+        chatGptProperties.setApiKey("test-key");
+        chatGptProperties.setApiUrl("http://localhost:" + stubServer.getAddress().getPort() + "/v1/chat/completions");
+        completionRouter = new CompletionRouter(chatGptProperties, openAiResilienceProperties, new OpenAiRateLimitProperties(),
+                mock(ChatTokenBudgeter.class), mock(StringRedisTemplate.class), mock(ReactiveStringRedisTemplate.class),
+                new SimpleMeterRegistry());
+        // 헤지 요청이 먼저 성공하면 요청 스레드의 첫 요청을 interrupt로 중단하므로 운영과 같은 JDK HttpClient 사용
+        return new ChatGptClient(completionRouter, new RestTemplate(new JdkClientHttpRequestFactory()), new ObjectMapper(), new ChatUsageRecorder());
+    }
+
+    private OpenAiResilience openAiResilience() {
+        return completionRouter.getCompletionBackends().get(0).getOpenAiResilience();
+    }
+
+    private record StubResponse(int status, long delayMillis, Map<String, String> headers) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.tosi.chat.common.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.common.config.ChatAdmissionProperties;
+import com.tosi.chat.dto.ChatSessionDto;
+import com.tosi.chat.repository.ChatSessionRedisRepository;
+import com.tosi.chat.service.UserAuthorizationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ChatAdmissionFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatSessionRedisRepository chatSessionRedisRepository = mock(ChatSessionRedisRepository.class);
+    private ChatAdmissionProperties chatAdmissionProperties;
+
+    @BeforeEach
+    void setUp() {
+        chatAdmissionProperties = new ChatAdmissionProperties();
+        chatAdmissionProperties.setUser(new ChatAdmissionProperties.Bucket(1, 2));
+        chatAdmissionProperties.setIp(new ChatAdmissionProperties.Bucket(1, 3));
+        when(chatSessionRedisRepository.findSession(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void requestsOverUserOrIpLimitAreRejectedWithRetryAfter() throws Exception {
+        // Redis 명령 결과가 없으므로 로컬 버킷으로 제한
+        ChatAdmissionFilter chatAdmissionFilter = chatAdmissionFilter();
+
+        assertThat(send(chatAdmissionFilter, "token-a").getStatus()).isEqualTo(200);
+        assertThat(send(chatAdmissionFilter, "token-a").getStatus()).isEqualTo(200);
+        MockHttpServletResponse userLimited = send(chatAdmissionFilter, "token-a");
+        assertThat(userLimited.getStatus()).isEqualTo(429);
+        assertThat(userLimited.getHeader("Retry-After")).isEqualTo("60");
+        assertThat(objectMapper.readTree(userLimited.getContentAsByteArray()).get("code").asText()).isEqualTo("CHAT_004");
+
+        // 다른 토큰은 회원 한도가 남아 있지만 같은 IP의 한도(3)는 모두 사용
+        assertThat(send(chatAdmissionFilter, "token-b").getStatus()).isEqualTo(200);
+        assertThat(send(chatAdmissionFilter, null).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void followUpRequestsWithoutTokenAreLimitedByTheSessionOwner() throws Exception {
+        when(chatSessionRedisRepository.findSession("session-a")).thenReturn(Optional.of(chatSessionDto(1L)));
+        when(chatSessionRedisRepository.findSession("session-b")).thenReturn(Optional.of(chatSessionDto(1L)));
+        ChatAdmissionFilter chatAdmissionFilter = chatAdmissionFilter();
+
+        // 컨트롤러는 필터가 읽은 본문을 그대로 다시 읽음
+        String[] forwardedBody = new String[1];
+        MockHttpServletResponse response = sendChat(chatAdmissionFilter, "/api/chat", "session-a",
+                (request, servletResponse) -> forwardedBody[0] = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(forwardedBody[0]).isEqualTo(chatRequestBody("session-a"));
+
+        // 같은 회원의 다른 세션, 다른 경로도 하나의 회원 한도(2)를 나눠 씀
+        assertThat(sendChat(chatAdmissionFilter, "/api/chat/stream", "session-b", new MockFilterChain()).getStatus()).isEqualTo(200);
+        MockHttpServletResponse userLimited = sendChat(chatAdmissionFilter, "/api/chat/final", "session-a", new MockFilterChain());
+        assertThat(userLimited.getStatus()).isEqualTo(429);
+        assertThat(userLimited.getHeader("Retry-After")).isEqualTo("60");
+    }
+
+    @Test
+    void followUpRequestsForUnknownSessionsAreRejectedBeforeTheController() throws Exception {
+        ChatAdmissionFilter chatAdmissionFilter = chatAdmissionFilter();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        MockHttpServletResponse response = sendChat(chatAdmissionFilter, "/api/chat/stream/final", "unknown", filterChain);
+
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(objectMapper.readTree(response.getContentAsByteArray()).get("code").asText()).isEqualTo("CHAT_001");
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void redisFailureFallsBackToLocalBucketsWithoutRetryingEachRequest() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("Redis command timed out"));
+        AdmissionRateLimiter admissionRateLimiter = new AdmissionRateLimiter(chatAdmissionProperties, stringRedisTemplate);
+
+        assertThat(admissionRateLimiter.tryAcquire("token-a", "10.0.0.1").isAdmitted()).isTrue();
+        assertThat(admissionRateLimiter.tryAcquire("token-a", "10.0.0.1").isAdmitted()).isTrue();
+        assertThat(admissionRateLimiter.tryAcquire("token-a", "10.0.0.1").rejectedBy()).isEqualTo(AdmissionRateLimiter.Scope.USER);
+        // 실패 후 REDIS_RETRY_INTERVAL 동안은 Redis 명령을 보내지 않음
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void requestsOverConcurrencyLimitAreShed() throws Exception {
+        chatAdmissionProperties.getConcurrency().setInitialLimit(1);
+        chatAdmissionProperties.getConcurrency().setMinLimit(1);
+        ChatAdmissionFilter chatAdmissionFilter = chatAdmissionFilter();
+
+        // 첫 요청이 처리되는 동안 들어온 요청은 503
+        MockHttpServletResponse[] overloaded = new MockHttpServletResponse[1];
+        MockHttpServletResponse response = send(chatAdmissionFilter, "token-a",
+                (request, servletResponse) -> overloaded[0] = send(chatAdmissionFilter, "token-b"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(overloaded[0].getStatus()).isEqualTo(503);
+        assertThat(overloaded[0].getHeader("Retry-After")).isEqualTo("1");
+        assertThat(send(chatAdmissionFilter, "token-b").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void concurrencyLimitDecreasesOnSlowResponsesAndGrowsWhenBusy() throws InterruptedException {
+        ChatAdmissionProperties.Concurrency concurrency = new ChatAdmissionProperties.Concurrency();
+        concurrency.setInitialLimit(20);
+        concurrency.setLatencyThreshold(Duration.ofMillis(50));
+        AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = new AdaptiveConcurrencyLimiter(concurrency);
+
+        // 한도를 줄이기 전에 시작한 느린 요청들은 한 번만 줄임
+        long[] startedAt = new long[10];
+        for (int i = 0; i < startedAt.length; i++)
+            startedAt[i] = adaptiveConcurrencyLimiter.tryAcquire();
+        Thread.sleep(60);
+        for (long started : startedAt)
+            adaptiveConcurrencyLimiter.release(started, false);
+        assertThat(adaptiveConcurrencyLimiter.getLimit()).isEqualTo(18);
+
+        // 한도의 절반 이상 사용 중에 빠르게 끝나면 늘림
+        for (int i = 0; i < 17; i++)
+            adaptiveConcurrencyLimiter.tryAcquire();
+        for (int i = 0; i < 60; i++)
+            adaptiveConcurrencyLimiter.release(adaptiveConcurrencyLimiter.tryAcquire(), false);
+        assertThat(adaptiveConcurrencyLimiter.getLimit()).isGreaterThan(18);
+        assertThat(adaptiveConcurrencyLimiter.getInflight()).isEqualTo(17);
+    }
+
+    private ChatAdmissionFilter chatAdmissionFilter() {
+        return new ChatAdmissionFilter(chatAdmissionProperties,
+                new UserAuthorizationCache(objectMapper, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)),
+                chatSessionRedisRepository, mock(StringRedisTemplate.class), objectMapper, new SimpleMeterRegistry());
+    }
+
+    private ChatSessionDto chatSessionDto(Long userId) {
+        return ChatSessionDto.builder()
+                .userId(userId)
+                .childName("민준")
+                .characterName("토끼")
+                .taleId(1L)
+                .build();
+    }
+
+    private String chatRequestBody(String sessionId) {
+        return "{\"sessionId\":\"" + sessionId + "\",\"multiChatMessage\":\"안녕\"}";
+    }
+
+    private MockHttpServletResponse sendChat(ChatAdmissionFilter chatAdmissionFilter, String path, String sessionId, FilterChain filterChain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        request.setContent(chatRequestBody(sessionId).getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        chatAdmissionFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    private MockHttpServletResponse send(ChatAdmissionFilter chatAdmissionFilter, String accessToken) {
+        return send(chatAdmissionFilter, accessToken, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse send(ChatAdmissionFilter chatAdmissionFilter, String accessToken, FilterChain filterChain) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/chat/init");
+        request.setRemoteAddr("10.0.0.1");
+        if (accessToken != null)
+            request.addHeader("Authorization", accessToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            chatAdmissionFilter.doFilter(request, response, filterChain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
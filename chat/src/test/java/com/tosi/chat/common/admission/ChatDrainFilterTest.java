@@ -0,0 +1,54 @@
+package com.tosi.chat.common.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatDrainFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void stopRejectsNewChatsAndWaitsForAsyncResponses() throws Exception {
+        ChatDrainFilter chatDrainFilter = new ChatDrainFilter(objectMapper, new SimpleMeterRegistry(), Duration.ofSeconds(5));
+        chatDrainFilter.start();
+
+        // 스트리밍처럼 비동기로 응답하는 요청
+        MockHttpServletRequest streamRequest = new MockHttpServletRequest("GET", "/api/chat/stream");
+        streamRequest.setAsyncSupported(true);
+        AsyncContext[] asyncContext = new AsyncContext[1];
+        chatDrainFilter.doFilter(streamRequest, new MockHttpServletResponse(),
+                (request, response) -> asyncContext[0] = request.startAsync());
+        assertThat(chatDrainFilter.getInflight()).isEqualTo(1);
+
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(chatDrainFilter::stop);
+        Thread.sleep(100);
+        assertThat(stopped).isNotDone();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        chatDrainFilter.doFilter(new MockHttpServletRequest("POST", "/api/chat"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getHeader("Connection")).isEqualTo("close");
+        assertThat(objectMapper.readTree(rejected.getContentAsByteArray()).get("code").asText()).isEqualTo("CHAT_006");
+
+        // 채팅이 아닌 요청(헬스 체크 등)은 그대로 처리
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        chatDrainFilter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), health, new MockFilterChain());
+        assertThat(health.getStatus()).isEqualTo(200);
+
+        asyncContext[0].complete();
+        stopped.get(1, TimeUnit.SECONDS);
+        assertThat(chatDrainFilter.getInflight()).isZero();
+        assertThat(chatDrainFilter.isRunning()).isFalse();
+    }
+}
@@ -0,0 +1,51 @@
+package com.tosi.chat.common.prompt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PromptTemplateTest {
+
+    @Test
+    void boundTemplateRendersSameAsFullRender() {
+        PromptTemplate promptTemplate = PromptTemplate.parse("동화 제목: {{taleTitle}}\n캐릭터: {{ characterName }}\n이름: {{childName}}\n");
+
+        String rendered = promptTemplate.render(Map.of("taleTitle", "토끼와 거북이", "characterName", "거북이", "childName", "민지"));
+        String boundRendered = promptTemplate.bind(Map.of("taleTitle", "토끼와 거북이"))
+                .render(Map.of("characterName", "거북이", "childName", "민지"));
+
+        assertThat(rendered).isEqualTo("동화 제목: 토끼와 거북이\n캐릭터: 거북이\n이름: 민지\n");
+        assertThat(boundRendered).isEqualTo(rendered);
+    }
+
+    @Test
+    void unclosedVariableIsRejected() {
+        assertThatThrownBy(() -> PromptTemplate.parse("동화 제목: {{taleTitle")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void modifiedTemplateFileIsReloaded(@TempDir Path directory) throws Exception {
+        Path chatInit = directory.resolve("chat-init.txt");
+        Files.writeString(chatInit, "캐릭터: {{characterName}}", StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("chat-final.txt"), "안녕", StandardCharsets.UTF_8);
+        PromptTemplateRegistry promptTemplateRegistry = new PromptTemplateRegistry(new DefaultResourceLoader(), directory.toUri().toString());
+
+        Files.writeString(chatInit, "등장인물: {{characterName}}", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(chatInit, FileTime.from(Instant.now().plusSeconds(10)));
+        promptTemplateRegistry.reloadIfModified();
+
+        assertThat(promptTemplateRegistry.getVersion()).isEqualTo(1);
+        assertThat(promptTemplateRegistry.getChatInitTemplate().render(Map.of("characterName", "거북이"))).isEqualTo("등장인물: 거북이");
+        assertThat(promptTemplateRegistry.getChatFinalPrompt()).isEqualTo("안녕");
+    }
+}
@@ -0,0 +1,74 @@
+package com.tosi.chat.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaleDetailDtoCodecTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void versionOneRoundTripCompressesLargeContent() {
+        TaleDetailDto taleDetailDto = taleDetailDto("거북이는 느리지만 포기하지 않고 한 걸음 한 걸음 걸었어요.\n".repeat(50));
+        TaleDetailDtoCodec lz4Codec = codec(TaleDetailDtoCodec.Compression.LZ4);
+        TaleDetailDtoCodec plainCodec = codec(TaleDetailDtoCodec.Compression.NONE);
+
+        byte[] compressed = lz4Codec.encode(taleDetailDto);
+        byte[] plain = plainCodec.encode(taleDetailDto);
+
+        assertThat(compressed[0]).isEqualTo(TaleDetailDtoCodec.VERSION_1);
+        assertThat(compressed.length).isLessThan(plain.length / 4);
+        // 압축 여부는 값에 기록되므로 설정이 달라도 읽을 수 있음
+        assertThat(plainCodec.decode(compressed)).usingRecursiveComparison().isEqualTo(taleDetailDto);
+        assertThat(lz4Codec.decode(plain)).usingRecursiveComparison().isEqualTo(taleDetailDto);
+    }
+
+    @Test
+    void nullFieldsRoundTrip() {
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(3L).build();
+        TaleDetailDtoCodec taleDetailDtoCodec = codec(TaleDetailDtoCodec.Compression.LZ4);
+
+        assertThat(taleDetailDtoCodec.decode(taleDetailDtoCodec.encode(taleDetailDto))).usingRecursiveComparison().isEqualTo(taleDetailDto);
+    }
+
+    @Test
+    void legacyFormatsAreReadable() throws Exception {
+        TaleDetailDto taleDetailDto = taleDetailDto("옛날 옛적에");
+        TaleDetailDtoCodec taleDetailDtoCodec = codec(TaleDetailDtoCodec.Compression.LZ4);
+
+        assertThat(taleDetailDtoCodec.decode(objectMapper.writeValueAsBytes(taleDetailDto)))
+                .usingRecursiveComparison().isEqualTo(taleDetailDto);
+        assertThat(taleDetailDtoCodec.decodeHash(Map.of(
+                "_class", "com.tosi.chat.dto.TaleDetailDto",
+                "taleId", "1",
+                "title", "토끼와 거북이",
+                "content", "옛날 옛적에",
+                "characters.[0]", "토끼",
+                "characters.[1]", "거북이",
+                "images.[0]", "tale/1/images/1.png")))
+                .usingRecursiveComparison().isEqualTo(taleDetailDto);
+        assertThatThrownBy(() -> taleDetailDtoCodec.decode(new byte[]{9}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private TaleDetailDtoCodec codec(TaleDetailDtoCodec.Compression compression) {
+        return new TaleDetailDtoCodec(objectMapper, new SimpleMeterRegistry(), compression, 512);
+    }
+
+    private TaleDetailDto taleDetailDto(String content) {
+        return TaleDetailDto.builder()
+                .taleId(1L)
+                .title("토끼와 거북이")
+                .content(content)
+                .characters(new String[]{"토끼", "거북이"})
+                .images(List.of("tale/1/images/1.png"))
+                .build();
+    }
+}
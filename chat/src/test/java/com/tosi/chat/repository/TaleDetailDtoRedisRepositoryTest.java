@@ -0,0 +1,85 @@
+package com.tosi.chat.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class TaleDetailDtoRedisRepositoryTest {
+    private static final byte[] CORRUPTED = {TaleDetailDtoCodec.VERSION_1, 1, 2};
+
+    private final TaleDetailDtoCodec taleDetailDtoCodec = new TaleDetailDtoCodec(new ObjectMapper(), new SimpleMeterRegistry(),
+            TaleDetailDtoCodec.Compression.LZ4, 512);
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private ValueOperations<String, byte[]> valueOperations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        binaryRedisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void storedTaleIsDecoded() {
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(1L).title("토끼와 거북이").images(List.of()).build();
+        when(valueOperations.get("taleDetail::1")).thenReturn(taleDetailDtoCodec.encode(taleDetailDto));
+
+        assertThat(repository().findById("1")).get().usingRecursiveComparison().isEqualTo(taleDetailDto);
+        verify(binaryRedisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void corruptedValueIsDeletedAndTreatedAsMiss() {
+        when(valueOperations.get("taleDetail::1")).thenReturn(CORRUPTED);
+
+        assertThat(repository().findById("1")).isEmpty();
+        verify(binaryRedisTemplate).delete("taleDetail::1");
+    }
+
+    @Test
+    void redisFailureIsLeftToTheCaller() {
+        when(valueOperations.get("taleDetail::1")).thenThrow(new QueryTimeoutException("Redis command timed out"));
+
+        // 새 키 조회 실패는 이전 형식 키 조회로 넘어가지 않고 TaleServiceImpl에서 처리
+        TaleDetailDtoRedisRepository legacyRepository = new TaleDetailDtoRedisRepository(binaryRedisTemplate,
+                mock(StringRedisTemplate.class), taleDetailDtoCodec, true);
+        assertThatThrownBy(() -> legacyRepository.findById("1")).isInstanceOf(QueryTimeoutException.class);
+        verify(valueOperations, never()).get("TaleDetailDto:json:1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void corruptedValueIsDeletedAndTreatedAsMissReactive() {
+        ReactiveRedisTemplate<String, byte[]> reactiveBinaryRedisTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, byte[]> reactiveValueOperations = mock(ReactiveValueOperations.class);
+        when(reactiveBinaryRedisTemplate.opsForValue()).thenReturn(reactiveValueOperations);
+        when(reactiveValueOperations.get("taleDetail::1")).thenReturn(Mono.just(CORRUPTED));
+        when(reactiveBinaryRedisTemplate.delete("taleDetail::1")).thenReturn(Mono.just(1L));
+        ReactiveTaleDetailDtoRedisRepository reactiveRepository = new ReactiveTaleDetailDtoRedisRepository(reactiveBinaryRedisTemplate,
+                mock(ReactiveStringRedisTemplate.class), taleDetailDtoCodec, false);
+
+        assertThat(reactiveRepository.findById(1L).blockOptional()).isEmpty();
+        verify(reactiveBinaryRedisTemplate).delete("taleDetail::1");
+    }
+
+    private TaleDetailDtoRedisRepository repository() {
+        return new TaleDetailDtoRedisRepository(binaryRedisTemplate, mock(StringRedisTemplate.class), taleDetailDtoCodec, false);
+    }
+}
@@ -0,0 +1,111 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.client.ChatGptClient;
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.dto.ChatInitRequestDto;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatOpeningCacheTest {
+    private ChatGptClient chatGptClient;
+    private ZSetOperations<String, String> zSetOperations;
+    private ListOperations<String, String> listOperations;
+    private StringRedisTemplate stringRedisTemplate;
+    private ChatOpeningCache chatOpeningCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        chatGptClient = mock(ChatGptClient.class);
+        ChatMessageAssembler chatMessageAssembler = mock(ChatMessageAssembler.class);
+        when(chatMessageAssembler.makeInitChatTurn(isNull(), any(), any())).thenAnswer(invocation -> {
+            ChatInitRequestDto chatInitRequestDto = invocation.getArgument(1);
+            return new ChatTurn("session", null, chatInitRequestDto,
+                    List.of(new MultiChatMessage("system", "캐릭터: " + chatInitRequestDto.getCharacterName())), List.of(), null, new ChatTurnUsage());
+        });
+        TaleService taleService = mock(TaleService.class);
+        when(taleService.findTaleDetail(anyLong())).thenAnswer(invocation -> TaleDetailDto.builder()
+                .taleId(invocation.getArgument(0))
+                .characters(new String[]{"토끼", "거북이"})
+                .build());
+
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        listOperations = mock(ListOperations.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(stringRedisTemplate.opsForList()).thenReturn(listOperations);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(zSetOperations.reverseRange(anyString(), eq(0L), eq(19L))).thenReturn(Set.of("7"));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        chatOpeningCache = new ChatOpeningCache(chatGptClient, chatMessageAssembler, taleService, mock(ObjectProvider.class),
+                stringRedisTemplate, new SimpleMeterRegistry(), true, 20, List.of(1L), 3, Duration.ofHours(24));
+    }
+
+    @Test
+    void refreshPreparesOpeningsWithoutChildName() {
+        when(chatGptClient.requestChoices(anyList(), eq(ChatGptProperties.Tier.STANDARD), eq(3)))
+                .thenReturn(List.of("민지야 안녕! 나는 거북이야.", "안녕! 나는 거북이야. 같이 이야기하자."));
+
+        assertThat(chatOpeningCache.find(request(7L, "거북이", "서준"))).isEmpty(); // 요청 수는 순위에 반영됨
+        chatOpeningCache.refresh();
+
+        verify(zSetOperations).incrementScore(anyString(), eq("7"), eq(1.0));
+        verify(chatGptClient, times(4)).requestChoices(argThat(messages -> messages.size() == 2), any(), eq(3)); // 동화 2개 x 등장인물 2명
+        // 이름을 부른 첫 인사는 버리고, 나머지만 리스트가 없을 때 저장
+        verify(stringRedisTemplate, times(4)).execute(any(RedisScript.class), anyList(), eq("86400000"), eq("안녕! 나는 거북이야. 같이 이야기하자."));
+        assertThat(chatOpeningCache.find(request(7L, "거북이", "서준"))).contains("안녕! 나는 거북이야. 같이 이야기하자.");
+        assertThat(chatOpeningCache.find(request(1L, "토끼", "서준"))).isPresent();
+        assertThat(chatOpeningCache.find(request(2L, "토끼", "서준"))).isEmpty();
+        assertThat(chatOpeningCache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void storedOpeningsAreReusedWithoutOpenAiRequest() {
+        when(listOperations.range(anyString(), eq(0L), eq(-1L))).thenReturn(List.of("안녕! 오늘 무슨 이야기를 할까?"));
+
+        chatOpeningCache.refresh();
+
+        verify(chatGptClient, never()).requestChoices(anyList(), any(), anyInt());
+        assertThat(chatOpeningCache.find(request(1L, "토끼", "서준"))).contains("안녕! 오늘 무슨 이야기를 할까?");
+    }
+
+    @Test
+    void openingsStoredWhileWaitingForLockAreReused() {
+        // 잠금을 잡기 전에는 없었지만, 잠금을 잡은 후 다시 조회하면 다른 파드가 저장해둔 첫 인사가 있음
+        when(listOperations.range(anyString(), eq(0L), eq(-1L)))
+                .thenReturn(List.of(), List.of("안녕! 오늘 무슨 이야기를 할까?"));
+
+        chatOpeningCache.refresh();
+
+        verify(chatGptClient, never()).requestChoices(anyList(), any(), anyInt());
+        assertThat(chatOpeningCache.find(request(1L, "토끼", "서준"))).contains("안녕! 오늘 무슨 이야기를 할까?");
+    }
+
+    private ChatInitRequestDto request(Long taleId, String characterName, String childName) {
+        return ChatInitRequestDto.builder()
+                .taleId(taleId)
+                .characterName(characterName)
+                .childName(childName)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.tosi.chat.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChatResponseCacheTest {
+    private ValueOperations<String, String> valueOperations;
+    private ChatResponseCache chatResponseCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        chatResponseCache = new ChatResponseCache(stringRedisTemplate, mock(ReactiveStringRedisTemplate.class),
+                true, Duration.ofHours(1), 100, 8, 0.9, Duration.ofHours(1));
+    }
+
+    @Test
+    void similarQuestionIsServedLocallyToOtherChildren() {
+        chatResponseCache.save(key("민지", "좋아하는 음식이 뭐야?", 1), "나는 당근을 제일 좋아해!");
+
+        assertThat(chatResponseCache.find(key("서준", "좋아하는 음식이 뭐야", 1))).contains("나는 당근을 제일 좋아해!");
+        assertThat(chatResponseCache.find(key("서준", "좋아하는  음식이 뭐야~~ 😀", 1))).isPresent();
+        assertThat(chatResponseCache.getSimilarHitCount()).isEqualTo(2);
+        verify(valueOperations).set(anyString(), eq("나는 당근을 제일 좋아해!"), eq(Duration.ofHours(1)));
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void responseWithChildNameIsNotCached() {
+        chatResponseCache.save(key("민지", "좋아하는 음식이 뭐야?", 1), "민지야, 나는 당근을 제일 좋아해!");
+
+        assertThat(chatResponseCache.find(key("서준", "좋아하는 음식이 뭐야?", 1))).isEmpty();
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void changedPromptMisses() {
+        chatResponseCache.save(key("민지", "좋아하는 음식이 뭐야?", 1), "나는 당근을 제일 좋아해!");
+
+        ChatResponseCacheKey editedPromptKey = new ChatResponseCacheKey(1L, "토끼", "edited-prompt", "민지", "좋아하는 음식이 뭐야?", 1, false);
+        assertThat(chatResponseCache.find(editedPromptKey)).isEmpty();
+        assertThat(chatResponseCache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void differentQuestionOrTurnMisses() {
+        chatResponseCache.save(key("민지", "좋아하는 음식이 뭐야?", 1), "나는 당근을 제일 좋아해!");
+
+        assertThat(ChatResponseVectorIndex.similarity("좋아하는음식이뭐야", "싫어하는음식이뭐야")).isLessThan(0.9);
+        assertThat(chatResponseCache.find(key("민지", "싫어하는 음식이 뭐야?", 1))).isEmpty();
+        assertThat(chatResponseCache.find(key("민지", "좋아하는 음식이 뭐야?", 2))).isEmpty();
+        assertThat(chatResponseCache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void exactHitFromRedisIsIndexedLocally() {
+        when(valueOperations.get(anyString())).thenReturn("안녕! 만나서 반가워.");
+
+        assertThat(chatResponseCache.find(key("민지", "안녕", 0))).contains("안녕! 만나서 반가워.");
+        assertThat(chatResponseCache.find(key("민지", "안녕!", 0))).contains("안녕! 만나서 반가워.");
+
+        assertThat(chatResponseCache.getExactHitCount()).isEqualTo(1);
+        assertThat(chatResponseCache.getSimilarHitCount()).isEqualTo(1);
+        assertThat(chatResponseCache.getHitRate()).isEqualTo(1.0);
+    }
+
+    private ChatResponseCacheKey key(String childName, String message, int turn) {
+        return new ChatResponseCacheKey(1L, "토끼", "prompt", childName, message, turn, false);
+    }
+}
@@ -0,0 +1,84 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.common.config.ChatGptProperties;
+import com.tosi.chat.dto.TaleDetailDto;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatTokenBudgeterTest {
+    private ChatTokenBudgeter chatTokenBudgeter;
+
+    @BeforeEach
+    void setUp() {
+        ChatGptProperties chatGptProperties = mock(ChatGptProperties.class);
+        when(chatGptProperties.getModel()).thenReturn("gpt-4o-mini");
+        chatTokenBudgeter = new ChatTokenBudgeter(chatGptProperties, 300, 60, 40, 100, 100);
+    }
+
+    @Test
+    void shortTaleIsKeptAsIs() {
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(1L).title("토끼와 거북이").content("옛날 옛적에 토끼와 거북이가 살았어요.").build();
+
+        assertThat(chatTokenBudgeter.selectTaleContent(taleDetailDto, List.of("거북이"))).isEqualTo(taleDetailDto.getContent());
+    }
+
+    @Test
+    void longTaleKeepsFirstAndRelevantPassages() {
+        String first = "옛날 옛적 숲속 마을에 동물들이 모여 살았어요.";
+        String relevant = "거북이는 느리지만 포기하지 않고 끝까지 결승선을 향해 걸었어요.";
+        StringBuilder content = new StringBuilder(first);
+        for (int i = 0; i < 10; i++)
+            content.append("\n하늘에는 구름이 둥실둥실 떠다니고 바람이 살랑살랑 불었어요 ").append(i).append('.');
+        content.append('\n').append(relevant);
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(2L).title("토끼와 거북이").content(content.toString()).build();
+
+        String selected = chatTokenBudgeter.selectTaleContent(taleDetailDto, List.of("거북이", "결승선까지 포기하지 않았어?"));
+
+        assertThat(selected).startsWith(first).contains(relevant);
+        assertThat(chatTokenBudgeter.countMessageTokens(selected)).isLessThanOrEqualTo(60 + 4);
+    }
+
+    @Test
+    void oldTurnsAreTrimmedFromUserMessage() {
+        List<MultiChatMessage> sessionMessageList = new ArrayList<>();
+        sessionMessageList.add(new MultiChatMessage("system", "안녕! 나는 거북이야. 오늘 무슨 이야기를 해볼까?"));
+        for (int i = 0; i < 10; i++) {
+            sessionMessageList.add(new MultiChatMessage("user", "거북아, 달리기 시합에서 어떻게 이겼어? " + i));
+            sessionMessageList.add(new MultiChatMessage("system", "나는 쉬지 않고 천천히 꾸준히 걸었어. 포기하지 않는 게 제일 중요해! " + i));
+        }
+
+        int historyStart = chatTokenBudgeter.findHistoryStart(sessionMessageList, 100);
+
+        assertThat(historyStart).isPositive();
+        assertThat(sessionMessageList.get(historyStart).getRole()).isEqualTo("user");
+        int historyTokens = 0;
+        for (MultiChatMessage message : sessionMessageList.subList(historyStart, sessionMessageList.size()))
+            historyTokens += chatTokenBudgeter.countMessageTokens(message.getContent());
+        assertThat(historyTokens).isLessThanOrEqualTo(300 - 100);
+        assertThat(chatTokenBudgeter.findHistoryStart(sessionMessageList.subList(0, 3), 100)).isZero();
+    }
+
+    @Test
+    void promptTokensAreCountedOncePerPrompt() {
+        ChatTokenBudgeter.PromptKey promptKey = new ChatTokenBudgeter.PromptKey(1L, "거북이", "서준", 0);
+        String prompt = "너는 토끼와 거북이 동화의 거북이야. 서준이와 이야기해줘.";
+        int promptTokens = chatTokenBudgeter.countPromptTokens(promptKey, prompt);
+
+        assertThat(promptTokens).isEqualTo(chatTokenBudgeter.countMessageTokens(prompt));
+        assertThat(chatTokenBudgeter.countPromptTokens(promptKey, new String(prompt))).isEqualTo(promptTokens);
+        assertThat(chatTokenBudgeter.countRequestTokens(List.of(new MultiChatMessage("system", prompt))))
+                .isEqualTo(promptTokens + 3);
+
+        String editedPrompt = prompt + " 동화 내용이 바뀌었어요.";
+        assertThat(chatTokenBudgeter.countPromptTokens(promptKey, editedPrompt))
+                .isEqualTo(chatTokenBudgeter.countMessageTokens(editedPrompt));
+    }
+}
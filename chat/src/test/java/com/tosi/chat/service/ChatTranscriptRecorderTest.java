@@ -0,0 +1,77 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.dto.ChatTranscriptDto;
+import com.tosi.chat.repository.ChatTranscriptJdbcRepository;
+import io.github.flashvayne.chatgpt.dto.chat.MultiChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ChatTranscriptRecorderTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queuedRecordsAreWrittenInBatchesAndDrainedOnStop() throws InterruptedException {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        ChatTranscriptJdbcRepository chatTranscriptJdbcRepository = mock(ChatTranscriptJdbcRepository.class);
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<List<ChatTranscriptDto>>getArgument(0).size());
+            firstWriteStarted.countDown();
+            releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(chatTranscriptJdbcRepository).saveAll(anyList());
+        ChatTranscriptRecorder chatTranscriptRecorder = recorder(chatTranscriptJdbcRepository, 10);
+        chatTranscriptRecorder.start();
+
+        // 첫 기록을 저장하는 동안 들어온 기록은 다음 batch로 모임
+        chatTranscriptRecorder.record(chatTurn(0), "응답 0");
+        assertThat(firstWriteStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int turn = 1; turn <= 4; turn++)
+            chatTranscriptRecorder.record(chatTurn(turn), "응답 " + turn);
+        releaseFirstWrite.countDown();
+        chatTranscriptRecorder.stop();
+
+        assertThat(batchSizes).containsExactly(1, 3, 1);
+        assertThat(chatTranscriptRecorder.getWrittenCount()).isEqualTo(5);
+        assertThat(chatTranscriptRecorder.isRunning()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullQueueDropsRecords() {
+        ChatTranscriptRecorder chatTranscriptRecorder = recorder(mock(ChatTranscriptJdbcRepository.class), 2);
+
+        // 쓰기 스레드를 시작하지 않아 큐가 비워지지 않음
+        for (int turn = 1; turn <= 3; turn++)
+            chatTranscriptRecorder.tryRecord(chatTurn(turn), "응답");
+        chatTranscriptRecorder.record(chatTurn(4), "응답");
+
+        assertThat(chatTranscriptRecorder.getDroppedCount()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChatTranscriptRecorder recorder(ChatTranscriptJdbcRepository chatTranscriptJdbcRepository, int capacity) {
+        ObjectProvider<ChatTranscriptJdbcRepository> objectProvider = mock(ObjectProvider.class);
+        when(objectProvider.getIfAvailable()).thenReturn(chatTranscriptJdbcRepository);
+        return new ChatTranscriptRecorder(objectProvider, new SimpleMeterRegistry(), capacity, 3,
+                Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofSeconds(5));
+    }
+
+    private ChatTurn chatTurn(int turn) {
+        List<MultiChatMessage> newMessageList = List.of(new MultiChatMessage("user", "질문 " + turn));
+        return new ChatTurn("session", null, null, newMessageList, newMessageList,
+                new ChatResponseCacheKey(1L, "토끼", "prompt", "민지", "질문 " + turn, turn, false), new ChatTurnUsage());
+    }
+}
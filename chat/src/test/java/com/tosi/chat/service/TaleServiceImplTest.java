@@ -0,0 +1,115 @@
+package com.tosi.chat.service;
+
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.health.TaleServiceHealthIndicator;
+import com.tosi.chat.dto.TaleDetailDto;
+import com.tosi.chat.repository.TaleDetailDtoRedisRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaleServiceImplTest {
+    private static final String TALE_URL = "http://tale/api/tales";
+
+    private RestTemplate restTemplate;
+    private TaleDetailDtoRedisRepository taleDetailDtoRedisRepository;
+    private TaleServiceImpl taleService;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        taleDetailDtoRedisRepository = mock(TaleDetailDtoRedisRepository.class);
+        when(taleDetailDtoRedisRepository.findById(anyString())).thenReturn(Optional.empty());
+        taleService = new TaleServiceImpl(restTemplate, taleDetailDtoRedisRepository, new TaleServiceHealthIndicator(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), Duration.ofSeconds(30), 2, 4, false);
+        ReflectionTestUtils.setField(taleService, "taleURL", TALE_URL);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(1L).title("토끼와 거북이").content("옛날 옛적에").build();
+        when(restTemplate.getForObject(eq(TALE_URL + "/content/1"), eq(TaleDetailDto.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return taleDetailDto;
+        });
+
+        int requestCount = 30;
+        ExecutorService executorService = Executors.newFixedThreadPool(requestCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<TaleDetailDto>> futures = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                return taleService.findTaleDetail(1L);
+            }));
+        }
+        startLatch.countDown();
+        for (Future<TaleDetailDto> future : futures)
+            assertThat(future.get()).isSameAs(taleDetailDto);
+        executorService.shutdown();
+
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(TaleDetailDto.class));
+        verify(taleDetailDtoRedisRepository, times(1)).findById("1");
+        verify(taleDetailDtoRedisRepository, times(1)).save(taleDetailDto);
+    }
+
+    @Test
+    void notFoundTaleIsNegativelyCached() {
+        when(restTemplate.getForObject(anyString(), eq(TaleDetailDto.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertThatThrownBy(() -> taleService.findTaleDetail(404L)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> taleService.findTaleDetail(404L)).isInstanceOf(CustomException.class);
+
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(TaleDetailDto.class));
+        verify(taleDetailDtoRedisRepository, never()).save(any());
+    }
+
+    @Test
+    void redisFailureIsTreatedAsMissAndWriteBackIsBestEffort() {
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(3L).title("흥부와 놀부").content("옛날 옛적에").build();
+        when(taleDetailDtoRedisRepository.findById("3")).thenThrow(new QueryTimeoutException("Redis command timed out"));
+        doThrow(new QueryTimeoutException("Redis command timed out")).when(taleDetailDtoRedisRepository).save(taleDetailDto);
+        when(restTemplate.getForObject(eq(TALE_URL + "/content/3"), eq(TaleDetailDto.class))).thenReturn(taleDetailDto);
+
+        assertThat(taleService.findTaleDetail(3L)).isSameAs(taleDetailDto);
+        assertThat(taleService.getRedisErrorCount()).isEqualTo(1);
+        assertThat(taleService.getRedisMissCount()).isZero();
+        verify(taleDetailDtoRedisRepository, times(1)).save(taleDetailDto);
+    }
+
+    @Test
+    void locallyCachedTaleIsReturnedWithoutThreadHop() throws Exception {
+        TaleDetailDto taleDetailDto = TaleDetailDto.builder().taleId(2L).title("해님 달님").content("옛날 옛적에").build();
+        when(restTemplate.getForObject(eq(TALE_URL + "/content/2"), eq(TaleDetailDto.class))).thenReturn(taleDetailDto);
+
+        CompletableFuture<TaleDetailDto> loadingFuture = taleService.findTaleDetailAsync(2L);
+        assertThat(loadingFuture.get()).isSameAs(taleDetailDto);
+
+        CompletableFuture<TaleDetailDto> cachedFuture = taleService.findTaleDetailAsync(2L);
+        assertThat(cachedFuture).isCompleted();
+        assertThat(cachedFuture.join()).isSameAs(taleDetailDto);
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(TaleDetailDto.class));
+    }
+}
@@ -0,0 +1,93 @@
+package com.tosi.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tosi.chat.common.exception.CustomException;
+import com.tosi.chat.common.exception.ExceptionCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserAuthorizationCacheTest {
+    private UserAuthorizationCache userAuthorizationCache;
+    private AtomicInteger authorizeCount;
+
+    @BeforeEach
+    void setUp() {
+        userAuthorizationCache = new UserAuthorizationCache(new ObjectMapper(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        authorizeCount = new AtomicInteger();
+    }
+
+    @Test
+    void concurrentLookupsShareOneAuthorization() throws Exception {
+        String accessToken = "Bearer " + jwt(System.currentTimeMillis() / 1000 + 3600);
+
+        int requestCount = 30;
+        ExecutorService executorService = Executors.newFixedThreadPool(requestCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                return userAuthorizationCache.getUserId(accessToken, token -> {
+                    authorizeCount.incrementAndGet();
+                    sleep(200);
+                    return 7L;
+                });
+            }));
+        }
+        startLatch.countDown();
+        for (Future<Long> future : futures)
+            assertThat(future.get()).isEqualTo(7L);
+        executorService.shutdown();
+
+        assertThat(authorizeCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsNotReused() {
+        String accessToken = "Bearer " + jwt(System.currentTimeMillis() / 1000 - 1);
+
+        userAuthorizationCache.getUserId(accessToken, token -> (long) authorizeCount.incrementAndGet());
+        userAuthorizationCache.getUserId(accessToken, token -> (long) authorizeCount.incrementAndGet());
+
+        assertThat(authorizeCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedAuthorizationIsNotCached() {
+        assertThatThrownBy(() -> userAuthorizationCache.getUserId("token", token -> {
+            throw new CustomException(ExceptionCode.USER_SERVICE_UNAVAILABLE);
+        })).isInstanceOf(CustomException.class);
+
+        assertThat(userAuthorizationCache.getUserId("token", token -> 7L)).isEqualTo(7L);
+    }
+
+    private String jwt(long exp) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(("{\"sub\":\"7\",\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}